@@ -0,0 +1,100 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shots per second when firing at every square of a 100x100 board in a random order,
+ * one shot per call or the whole board as one volley.
+ * The board is reset to the next of a set of prebuilt layouts inside the measured call rather than in a
+ * per-invocation setup, and resetOnly measures that reset by itself over the same number of operations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchFireBenchmark {
+
+    private static final int SIZE = 100;
+    private static final int CELLS = SIZE * SIZE;
+    private static final int LAYOUTS = 16;
+
+    @Param({"GRID", "BITBOARD", "CONCURRENT"})
+    Board.Engine engine;
+
+    private Board board;
+    private Board[] layouts;
+    private int layout;
+    private int[] cells;
+    private byte[] results;
+    private int[] sunkCells;
+
+    @Setup
+    public void setup(){
+        ShipType[] fleet = Fleets.ofDensity(SIZE, SIZE, 0.13);
+        board = Fleets.build(SIZE, SIZE, engine, fleet, 0);
+        results = new byte[CELLS];
+        sunkCells = new int[board.getShipCount()];
+
+        layouts = new Board[LAYOUTS];
+        for(int i = 0; i < LAYOUTS; i++)
+            layouts[i] = Fleets.build(SIZE, SIZE, engine, fleet, i + 1);
+
+        cells = new int[CELLS];
+        for(int cell = 0; cell < CELLS; cell++)
+            cells[cell] = cell;
+
+        Random shuffle = new Random(1);
+        for(int i = CELLS - 1; i > 0; i--){
+            int j = shuffle.nextInt(i + 1);
+            int cell = cells[i];
+            cells[i] = cells[j];
+            cells[j] = cell;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public void fireAtCell(Blackhole blackhole){
+        resetBoard();
+
+        for(int cell : cells)
+            blackhole.consume(board.fireAtCell(cell));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public int fireBatch(){
+        resetBoard();
+        return board.fireBatch(cells, CELLS, results, sunkCells);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CELLS)
+    public void resetOnly(){
+        resetBoard();
+    }
+
+    private void resetBoard(){
+        layout = (layout + 1) & (LAYOUTS - 1);
+        board.reset(layouts[layout]);
+    }
+}
@@ -0,0 +1,52 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of adding the ships to a board and building it, at several board sizes and fleet densities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBuildBenchmark {
+
+    @Param({"10", "32", "100", "1000"})
+    int size;
+
+    // Fraction of the board covered by ships.
+    @Param({"0.13", "0.5"})
+    double density;
+
+    @Param({"GRID", "BITBOARD"})
+    Board.Engine engine;
+
+    private ShipType[] fleet;
+    private long seed;
+
+    @Setup
+    public void setup(){
+        fleet = Fleets.ofDensity(size, size, density);
+    }
+
+    @Benchmark
+    public Board addShipsAndBuild(){
+        return Fleets.build(size, size, engine, fleet, seed++);
+    }
+}
@@ -0,0 +1,61 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.utils.CoordinateUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Point;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating and converting the coordinates typed in by a player.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CoordinateBenchmark {
+
+    // Fields rather than constants, so the JIT can't fold the results.
+    String valid = "J10";
+    String invalid = "K11";
+    String moves = "A1 B2 C3 D4 E5 F6 G7 H8 I9 J10 A10 B9 C8 D7 E6 F5 G4 H3 I2 J1";
+    int[] cells = new int[20];
+
+    @Benchmark
+    public boolean isValidValid(){
+        return CoordinateUtils.isValid(valid);
+    }
+
+    @Benchmark
+    public boolean isValidInvalid(){
+        return CoordinateUtils.isValid(invalid);
+    }
+
+    @Benchmark
+    public Point toPoint(){
+        return CoordinateUtils.toPoint(valid);
+    }
+
+    @Benchmark
+    public int parseCell(){
+        return CoordinateUtils.parseCell(valid, 10, 10);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public int[] parseMoves(){
+        CoordinateUtils.parseMoves(moves, 10, 10, cells);
+        return cells;
+    }
+}
@@ -0,0 +1,83 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.events.GameEventStream;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Firing at a board with an event stream attached, against the same board without one, with a number of spectators
+ * subscribed with the DROP policy. The spectators never poll, so the ring is always full and every shot overwrites one
+ * they haven't read. The board is reset to the same layout each time every square has been fired at.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBenchmark {
+
+    private static final int SIZE = 100;
+
+    @Param({"0", "1", "1000"})
+    int subscribers;
+
+    @Param({"GRID", "BITBOARD"})
+    Board.Engine engine;
+
+    private Board layout;
+    private Board board;
+    private Board publishingBoard;
+    private int[] cells;
+    private int shot;
+
+    @Setup
+    public void setup(){
+        ShipType[] fleet = Fleets.ofDensity(SIZE, SIZE, 0.13);
+        layout = Fleets.build(SIZE, SIZE, engine, fleet, 1);
+        board = Fleets.build(SIZE, SIZE, engine, fleet, 1);
+        publishingBoard = Fleets.build(SIZE, SIZE, engine, fleet, 1);
+
+        GameEventStream stream = new GameEventStream(1 << 12);
+        for(int i = 0; i < subscribers; i++)
+            stream.subscribe(GameEventStream.OverflowPolicy.DROP);
+        publishingBoard.setEventStream(stream);
+
+        // Fire in a scattered order, so the shots don't just walk along the rows.
+        cells = new int[SIZE * SIZE];
+        for(int i = 0; i < cells.length; i++)
+            cells[i] = (int) ((i * 7919L) % cells.length);
+    }
+
+    @Benchmark
+    public Board.ShotResult fireWithoutStream(){
+        return fire(board);
+    }
+
+    @Benchmark
+    public Board.ShotResult fireAndPublish(){
+        return fire(publishingBoard);
+    }
+
+    private Board.ShotResult fire(Board target){
+        if(shot == cells.length){
+            target.reset(layout);
+            shot = 0;
+        }
+
+        return target.fireAtCell(cells[shot++]);
+    }
+}
@@ -0,0 +1,125 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of firing at a volley of squares on a fresh 10x10 board with the default fleet.
+ * MISS only fires at empty squares, HIT fires at every ship square but the last of each ship,
+ * and ALL fires at every square so the volley includes each ship being destroyed.
+ * <p>
+ * The board is reset to the next of a set of prebuilt layouts inside the measured call, as a volley is far too short
+ * for per-invocation setup to be timed accurately. resetOnly measures the reset by itself, to subtract from fireVolley.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FireBenchmark {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+    private static final int SIZE = 10;
+    private static final int LAYOUTS = 64;
+
+    @Param({"MISS", "HIT", "ALL"})
+    String mix;
+
+    @Param({"GRID", "BITBOARD", "CONCURRENT"})
+    Board.Engine engine;
+
+    private Board board;
+    private Board[] layouts;
+    private int[][] targetsX;
+    private int[][] targetsY;
+    private int layout;
+
+    @Setup
+    public void setup(){
+        board = Fleets.build(SIZE, SIZE, engine, FLEET, 0);
+        layouts = new Board[LAYOUTS];
+        targetsX = new int[LAYOUTS][];
+        targetsY = new int[LAYOUTS][];
+
+        for(int i = 0; i < LAYOUTS; i++){
+            layouts[i] = Fleets.build(SIZE, SIZE, engine, FLEET, i);
+            findTargets(i);
+        }
+    }
+
+    /**
+     * Find the squares of the mix to fire at on a layout.
+     */
+    private void findTargets(int index){
+        Board layoutBoard = layouts[index];
+        int[] xs = new int[SIZE * SIZE];
+        int[] ys = new int[SIZE * SIZE];
+        int count = 0;
+
+        for(int y = 0; y < SIZE; y++){
+            for(int x = 0; x < SIZE; x++){
+                boolean hasShip = layoutBoard.getShip(x, y) != null;
+
+                if(mix.equals("ALL") || (mix.equals("MISS") && !hasShip) || (mix.equals("HIT") && hasShip)){
+                    xs[count] = x;
+                    ys[count] = y;
+                    count++;
+                }
+            }
+        }
+
+        // Leave the last square of each ship alone so none of them are destroyed.
+        if(mix.equals("HIT")){
+            count = 0;
+            for(int shipIndex = 0; shipIndex < FLEET.length; shipIndex++){
+                int[] cells = new int[FLEET[shipIndex].getLength()];
+                int length = layoutBoard.getShipCells(shipIndex, cells);
+                for(int i = 0; i < length - 1; i++){
+                    xs[count] = cells[i] % SIZE;
+                    ys[count] = cells[i] / SIZE;
+                    count++;
+                }
+            }
+        }
+
+        targetsX[index] = Arrays.copyOf(xs, count);
+        targetsY[index] = Arrays.copyOf(ys, count);
+    }
+
+    @Benchmark
+    public void fireVolley(Blackhole blackhole){
+        int index = nextLayout();
+        board.reset(layouts[index]);
+
+        int[] xs = targetsX[index];
+        int[] ys = targetsY[index];
+        for(int i = 0; i < xs.length; i++)
+            blackhole.consume(board.fireAtSquare(xs[i], ys[i]));
+    }
+
+    @Benchmark
+    public void resetOnly(){
+        board.reset(layouts[nextLayout()]);
+    }
+
+    private int nextLayout(){
+        layout = (layout + 1) & (LAYOUTS - 1);
+        return layout;
+    }
+}
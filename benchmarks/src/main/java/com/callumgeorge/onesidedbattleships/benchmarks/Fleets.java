@@ -0,0 +1,51 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+
+/**
+ * Fleets used to populate the benchmark boards.
+ */
+final class Fleets {
+
+    private Fleets(){
+    }
+
+    /**
+     * Create a fleet of battleships and destroyers that covers roughly the given fraction of the board.
+     * @param width Width of the board.
+     * @param height Height of the board.
+     * @param density Fraction of the squares to cover with ships.
+     * @return Ships to add to the board.
+     */
+    static ShipType[] ofDensity(int width, int height, double density){
+        int squaresToCover = Math.max(ShipType.BATTLESHIP.getLength(), (int) (width * height * density));
+        int shipCount = squaresToCover / ((ShipType.BATTLESHIP.getLength() + ShipType.DESTROYER.getLength()) / 2);
+        ShipType[] fleet = new ShipType[Math.max(1, shipCount)];
+
+        for(int i = 0; i < fleet.length; i++)
+            fleet[i] = i % 2 == 0 ? ShipType.BATTLESHIP : ShipType.DESTROYER;
+
+        return fleet;
+    }
+
+    /**
+     * Build a board with the given fleet.
+     * @param width Width of the board.
+     * @param height Height of the board.
+     * @param engine Engine to store the board state with.
+     * @param fleet Ships to add to the board.
+     * @param seed Seed for the ship placements.
+     * @return Built board.
+     */
+    static Board build(int width, int height, Board.Engine engine, ShipType[] fleet, long seed){
+        Board.BoardBuilder builder = new Board.BoardBuilder(width, height)
+                .setEngine(engine)
+                .setSeed(seed);
+
+        for(ShipType shipType : fleet)
+            builder.addShip(shipType);
+
+        return builder.build();
+    }
+}
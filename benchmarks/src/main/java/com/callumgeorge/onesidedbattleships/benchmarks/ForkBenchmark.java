@@ -0,0 +1,67 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of trying a shot on a branch of a search and going back, on a 10x10 board that is half played.
+ * A branch is either a mark, the shot and a rollback, or a fork of the board that the shot is fired at.
+ * The search tries each square that hasn't been fired at in turn.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ForkBenchmark {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+    private static final int SIZE = 10;
+
+    @Param({"GRID", "BITBOARD"})
+    Board.Engine engine;
+
+    private Board board;
+    private int next;
+
+    @Setup
+    public void setup(){
+        board = Fleets.build(SIZE, SIZE, engine, FLEET, 1);
+
+        for(int cell = 0; cell < SIZE * SIZE; cell += 2)
+            board.fireAtCell(cell);
+    }
+
+    @Benchmark
+    public Board.ShotResult markAndRollback(){
+        int mark = board.mark();
+        Board.ShotResult shotResult = board.fireAtCell(nextCell());
+        board.rollback(mark);
+
+        return shotResult;
+    }
+
+    @Benchmark
+    public Board.ShotResult fork(){
+        return board.fork().fireAtCell(nextCell());
+    }
+
+    private int nextCell(){
+        next = (next + 2) % (SIZE * SIZE);
+        return next + 1;
+    }
+}
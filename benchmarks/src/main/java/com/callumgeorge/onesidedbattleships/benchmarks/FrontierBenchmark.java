@@ -0,0 +1,85 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardSquare;
+import com.callumgeorge.onesidedbattleships.ships.Ship;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the squares to fire at next to the damaged ships, from the board's damaged ships or by scanning every square
+ * for a hit on a ship that isn't destroyed. Every ship on the board has had one square hit.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FrontierBenchmark {
+
+    @Param({"10", "100"})
+    int size;
+
+    @Param({"GRID", "BITBOARD"})
+    Board.Engine engine;
+
+    private Board board;
+    private int[] cells;
+
+    @Setup
+    public void setup(){
+        ShipType[] fleet = Fleets.ofDensity(size, size, 0.13);
+        board = Fleets.build(size, size, engine, fleet, 1);
+
+        int[] shipCells = new int[ShipType.BATTLESHIP.getLength()];
+        for(int shipIndex = 0; shipIndex < board.getShipCount(); shipIndex++){
+            board.getShipCells(shipIndex, shipCells);
+            board.fireAtCell(shipCells[0]);
+        }
+
+        cells = new int[size * size];
+    }
+
+    @Benchmark
+    public int damagedShips(){
+        return board.getFrontierCells(cells);
+    }
+
+    @Benchmark
+    public int scanSquares(){
+        int count = 0;
+
+        for(int y = 0; y < size; y++){
+            for(int x = 0; x < size; x++){
+                if(board.getSquareState(x, y) != BoardSquare.BoardSquareState.NOTHING)
+                    continue;
+
+                if(isDamagedHit(x - 1, y) || isDamagedHit(x + 1, y) || isDamagedHit(x, y - 1) || isDamagedHit(x, y + 1))
+                    cells[count++] = y * size + x;
+            }
+        }
+
+        return count;
+    }
+
+    private boolean isDamagedHit(int x, int y){
+        if(x < 0 || x >= size || y < 0 || y >= size || board.getSquareState(x, y) != BoardSquare.BoardSquareState.HIT)
+            return false;
+
+        Ship ship = board.getShip(x, y);
+        return !ship.isShipDestroyed();
+    }
+}
@@ -0,0 +1,156 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.journal.JournalReplayer;
+import com.callumgeorge.onesidedbattleships.journal.MoveJournal;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost the journal adds to a shot, and how quickly whole games can be replayed from it.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+    private static final int REPLAY_GAMES = 1000;
+
+    private static final int FIRE_JOURNAL_CAPACITY = 1 << 22;
+
+    /**
+     * A board to fire at, which is rebuilt every hundred shots. The journal is swapped for a new one whenever it fills.
+     */
+    @State(Scope.Thread)
+    public static class FireState {
+
+        JournalReplayer replayer = new JournalReplayer(10, 10, FLEET);
+        MoveJournal journal;
+        Path path;
+
+        Board board;
+        int gameId;
+        int cell;
+        long seed;
+
+        @Setup(Level.Iteration)
+        public void setup() throws IOException {
+            openJournal();
+            newGame();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            closeJournal();
+        }
+
+        void newGame(){
+            if(journal.getRecordCount() > FIRE_JOURNAL_CAPACITY - 200){
+                try {
+                    closeJournal();
+                    openJournal();
+                } catch (IOException e){
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            // The journal records the seed the board was built from, so the game can be replayed.
+            long gameSeed = seed++;
+            board = replayer.buildBoard(gameSeed);
+            gameId = journal.startGame(gameSeed);
+            cell = 0;
+        }
+
+        private void openJournal() throws IOException {
+            path = Files.createTempFile("fire", ".journal");
+            journal = new MoveJournal(path, FIRE_JOURNAL_CAPACITY);
+        }
+
+        private void closeJournal() throws IOException {
+            journal.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Board.ShotResult fire(FireState state){
+        if(state.cell == 100)
+            state.newGame();
+
+        int cell = state.cell++;
+        return state.board.fireAtCell(cell);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Board.ShotResult fireAndRecord(FireState state){
+        if(state.cell == 100)
+            state.newGame();
+
+        int cell = state.cell++;
+        Board.ShotResult result = state.board.fireAtCell(cell);
+        state.journal.recordShot(state.gameId, cell, result);
+        return result;
+    }
+
+    /**
+     * A journal holding a thousand finished games.
+     */
+    @State(Scope.Benchmark)
+    public static class ReplayState {
+
+        JournalReplayer replayer = new JournalReplayer(10, 10, FLEET);
+        MoveJournal journal;
+        Path path;
+
+        @Setup
+        public void setup() throws IOException {
+            path = Files.createTempFile("replay", ".journal");
+            journal = new MoveJournal(path, REPLAY_GAMES * 101 + 1, 0);
+
+            for(int seed = 0; seed < REPLAY_GAMES; seed++){
+                Board board = replayer.buildBoard(seed);
+                int gameId = journal.startGame(seed);
+
+                for(int cell = 0; !board.allShipsDestroyed(); cell++)
+                    journal.recordShot(gameId, cell, board.fireAtCell(cell));
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            journal.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(REPLAY_GAMES)
+    public Map<Integer, JournalReplayer.ReplayedGame> replayGames(ReplayState state){
+        return state.replayer.replay(state.journal);
+    }
+}
@@ -0,0 +1,73 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardPool;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.simulation.RandomTargetingStrategy;
+import com.callumgeorge.onesidedbattleships.simulation.SimulationRunner;
+import com.callumgeorge.onesidedbattleships.utils.SeededRandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of playing a whole game with the random strategy, building a new board for each game
+ * or resetting a board from a {@link BoardPool}. Compare the gc.count and gc.alloc.rate.norm of the two.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PoolingBenchmark {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+    private static final int SIZE = 10;
+
+    @Param({"GRID", "BITBOARD"})
+    Board.Engine engine;
+
+    private BoardPool pool;
+    private RandomTargetingStrategy strategy;
+    private SeededRandomSource placementRandom;
+    private SeededRandomSource strategyRandom;
+    private long seed;
+
+    @Setup
+    public void setup(){
+        pool = BoardPool.of(SIZE, SIZE, engine, FLEET);
+        strategy = new RandomTargetingStrategy();
+        placementRandom = new SeededRandomSource(0);
+        strategyRandom = new SeededRandomSource(0);
+    }
+
+    @Benchmark
+    public int newBoardPerGame(){
+        seed++;
+        Board board = Fleets.build(SIZE, SIZE, engine, FLEET, seed);
+
+        return SimulationRunner.playGame(board, FLEET, strategy, strategyRandom.setSeed(seed));
+    }
+
+    @Benchmark
+    public int pooledBoard(){
+        seed++;
+        Board board = pool.acquire(placementRandom.setSeed(seed));
+
+        int turns = SimulationRunner.playGame(board, FLEET, strategy, strategyRandom.setSeed(seed));
+        pool.release(board);
+
+        return turns;
+    }
+}
@@ -0,0 +1,66 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.AsciiBoardRenderer;
+import com.callumgeorge.onesidedbattleships.utils.BoardUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering a board with half of its squares fired at as Ascii.
+ * generateAsciiBoard draws a whole new board, while the renderer redraws its frame into a reused builder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    @Param({"10", "26"})
+    int size;
+
+    @Param({"GRID", "BITBOARD"})
+    Board.Engine engine;
+
+    private Board board;
+    private AsciiBoardRenderer renderer;
+    private StringBuilder output;
+
+    @Setup
+    public void setup(){
+        board = Fleets.build(size, size, engine, Fleets.ofDensity(size, size, 0.13), 1);
+
+        for(int y = 0; y < size; y++)
+            for(int x = y % 2; x < size; x += 2)
+                board.fireAtSquare(x, y);
+
+        renderer = new AsciiBoardRenderer(board);
+        output = new StringBuilder(renderer.getLength());
+    }
+
+    @Benchmark
+    public String generateAsciiBoard(){
+        return BoardUtils.generateAsciiBoard(board);
+    }
+
+    @Benchmark
+    public StringBuilder renderFrame(){
+        output.setLength(0);
+        renderer.render(output);
+        return output;
+    }
+}
@@ -0,0 +1,82 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How the cost of building a board and firing at it grows with the size of the board, with 13% of it covered by ships.
+ * Shots work through every square in a random order and then start again, so once a board has had every square
+ * fired at the rest of the shots return the previous result. On the small boards that is most of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScalingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int size;
+
+    @Param({"GRID", "BITBOARD", "CONCURRENT", "SPARSE"})
+    Board.Engine engine;
+
+    private ShipType[] fleet;
+    private int[] targets;
+    private Board board;
+    private int shot;
+    private long seed;
+
+    @Setup
+    public void setup(){
+        fleet = Fleets.ofDensity(size, size, 0.13);
+
+        // Shuffle the squares so the shots don't run along the rows.
+        targets = new int[size * size];
+        for(int cell = 0; cell < targets.length; cell++)
+            targets[cell] = cell;
+
+        Random random = new Random(1);
+        for(int i = targets.length - 1; i > 0; i--){
+            int j = random.nextInt(i + 1);
+            int target = targets[i];
+            targets[i] = targets[j];
+            targets[j] = target;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupBoard(){
+        board = Fleets.build(size, size, engine, fleet, seed++);
+        shot = 0;
+    }
+
+    @Benchmark
+    public Board build(){
+        return Fleets.build(size, size, engine, fleet, seed++);
+    }
+
+    @Benchmark
+    public Board.ShotResult fireRandomSquare(){
+        int target = targets[shot];
+        shot = shot + 1 == targets.length ? 0 : shot + 1;
+
+        return board.fireAtCell(target);
+    }
+}
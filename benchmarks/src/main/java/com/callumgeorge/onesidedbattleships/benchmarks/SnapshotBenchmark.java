@@ -0,0 +1,66 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardSnapshot;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of saving and restoring a game that is half played.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+
+    @Param({"10", "32"})
+    int size;
+
+    @Param({"GRID", "BITBOARD"})
+    Board.Engine engine;
+
+    private Board board;
+    private ByteBuffer buffer;
+    private byte[] snapshot;
+
+    @Setup
+    public void setup(){
+        ShipType[] fleet = Fleets.ofDensity(size, size, 0.13);
+        board = Fleets.build(size, size, engine, fleet, 1);
+
+        // Fire at every other square.
+        for(int cell = 0; cell < size * size; cell += 2)
+            board.fireAtCell(cell);
+
+        buffer = ByteBuffer.allocate(BoardSnapshot.getLength(board));
+        snapshot = BoardSnapshot.toBytes(board);
+    }
+
+    @Benchmark
+    public ByteBuffer save(){
+        buffer.clear();
+        BoardSnapshot.write(board, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Board restore(){
+        return BoardSnapshot.fromBytes(snapshot);
+    }
+}
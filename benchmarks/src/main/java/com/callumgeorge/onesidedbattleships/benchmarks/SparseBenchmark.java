@@ -0,0 +1,81 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and playing a 100000x100000 SPARSE board with 300 ships, which no other engine can hold.
+ * Shots land on random squares, so nearly all of them miss and each adds a square to the board.
+ * The board is built again for each iteration, so it holds at most a few million squares.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SparseBenchmark {
+
+    private static final int SIZE = 100_000;
+    private static final int TARGETS = 1 << 16;
+
+    private ShipType[] fleet;
+    private int[] targetsX;
+    private int[] targetsY;
+    private Board board;
+    private int shot;
+    private long seed;
+
+    @Setup
+    public void setup(){
+        fleet = new ShipType[300];
+        for(int i = 0; i < fleet.length; i++)
+            fleet[i] = i % 2 == 0 ? ShipType.BATTLESHIP : ShipType.DESTROYER;
+
+        targetsX = new int[TARGETS];
+        targetsY = new int[TARGETS];
+
+        Random random = new Random(1);
+        for(int i = 0; i < TARGETS; i++){
+            targetsX[i] = random.nextInt(SIZE);
+            targetsY[i] = random.nextInt(SIZE);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupBoard(){
+        board = Fleets.build(SIZE, SIZE, Board.Engine.SPARSE, fleet, seed++);
+    }
+
+    @Benchmark
+    public Board build(){
+        return Fleets.build(SIZE, SIZE, Board.Engine.SPARSE, fleet, seed++);
+    }
+
+    @Benchmark
+    public Board.ShotResult fireRandomSquare(){
+        int i = shot++ & (TARGETS - 1);
+        // Move along a square each time the targets come round again, so the shots keep landing on new squares.
+        return board.fireAtSquare((targetsX[i] + (shot >>> 16)) % SIZE, targetsY[i]);
+    }
+
+    @Benchmark
+    public Object getShip(){
+        int i = shot++ & (TARGETS - 1);
+        return board.getShip(targetsX[i], targetsY[i]);
+    }
+}
@@ -0,0 +1,76 @@
+package com.callumgeorge.onesidedbattleships.benchmarks;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.simulation.Tournament;
+import com.callumgeorge.onesidedbattleships.utils.SeededRandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of giving a strategy the board for the next game of a {@link Tournament}: building the layout from its seed,
+ * laying a pooled board out again from the seed, or copying the layout from a corpus that was laid out up front.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TournamentBenchmark {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+    private static final int SIZE = 10;
+    private static final int CORPUS_SIZE = 1024;
+
+    @Param({"GRID", "BITBOARD"})
+    Board.Engine engine;
+
+    private Board[] corpus;
+    private Board board;
+    private SeededRandomSource placementRandom;
+    private int game;
+
+    @Setup
+    public void setup(){
+        corpus = new Board[CORPUS_SIZE];
+        for(int i = 0; i < CORPUS_SIZE; i++)
+            corpus[i] = Fleets.build(SIZE, SIZE, Board.Engine.BITBOARD, FLEET, i);
+
+        board = Fleets.build(SIZE, SIZE, engine, FLEET, 0);
+        placementRandom = new SeededRandomSource(0);
+    }
+
+    @Benchmark
+    public Board buildFromSeed(){
+        return Fleets.build(SIZE, SIZE, engine, FLEET, next());
+    }
+
+    @Benchmark
+    public Board resetFromSeed(){
+        board.reset(placementRandom.setSeed(next()));
+        return board;
+    }
+
+    @Benchmark
+    public Board resetToCorpusLayout(){
+        board.reset(corpus[next()]);
+        return board;
+    }
+
+    private int next(){
+        game = (game + 1) & (CORPUS_SIZE - 1);
+        return game;
+    }
+}
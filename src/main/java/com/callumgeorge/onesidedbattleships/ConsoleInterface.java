@@ -1,122 +1,535 @@
 package com.callumgeorge.onesidedbattleships;
 
 import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.journal.JournalReplayer;
+import com.callumgeorge.onesidedbattleships.journal.MoveJournal;
+import com.callumgeorge.onesidedbattleships.metrics.GameMetrics;
+import com.callumgeorge.onesidedbattleships.server.GameServer;
+import com.callumgeorge.onesidedbattleships.server.LoadGenerator;
+import com.callumgeorge.onesidedbattleships.ships.FleetConfig;
 import com.callumgeorge.onesidedbattleships.ships.ShipType;
-import com.callumgeorge.onesidedbattleships.utils.BoardUtils;
+import com.callumgeorge.onesidedbattleships.simulation.LayoutEnumerator;
+import com.callumgeorge.onesidedbattleships.simulation.ProbabilityDensityStrategy;
+import com.callumgeorge.onesidedbattleships.simulation.RandomTargetingStrategy;
+import com.callumgeorge.onesidedbattleships.simulation.SimulationResult;
+import com.callumgeorge.onesidedbattleships.simulation.SimulationRunner;
+import com.callumgeorge.onesidedbattleships.simulation.TargetingStrategy;
+import com.callumgeorge.onesidedbattleships.simulation.Tournament;
+import com.callumgeorge.onesidedbattleships.simulation.TournamentResult;
+import com.callumgeorge.onesidedbattleships.utils.AsciiBoardRenderer;
 import com.callumgeorge.onesidedbattleships.utils.CoordinateUtils;
+import com.callumgeorge.onesidedbattleships.utils.LatencyHistogram;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
 
-import java.awt.*;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 /**
  * Console/Terminal Interface for the one-side-battleships game.
  */
 public class ConsoleInterface {
 
-    private static final int BOARD_HEIGHT = 10;
-    private static final int BOARD_WIDTH = 10;
+    private static final int DEFAULT_HEIGHT = 10;
+    private static final int DEFAULT_WIDTH = 10;
+    private static final ShipType[] DEFAULT_FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+
+    // Most games and moves a journal file can hold.
+    private static final int JOURNAL_CAPACITY = 1 << 20;
+
+    // Size of the buffers between the game and the console or script.
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final int width;
+    private final int height;
+
     private Board board;
+    private AsciiBoardRenderer boardRenderer;
+    private int turnCount;
 
-    public static void main(String[] args) {
-        ConsoleInterface consoleInterface = new ConsoleInterface();
+    // Leave the board out of the output when true.
+    private boolean quiet;
+
+    // Records each move when the game is being journaled, else null.
+    private MoveJournal journal;
+    private int journalGameId;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int width = DEFAULT_WIDTH;
+        int height = DEFAULT_HEIGHT;
+        ShipType[] fleet = DEFAULT_FLEET;
+        boolean quiet = false;
+
+        // Change the board size or fleet for any of the modes e.g. --size 26x20 --fleet fleet.txt
+        // and stop drawing the board when playing with --quiet
+        List<String> command = new ArrayList<>();
+        for(int i = 0; i < args.length; i++){
+            if(args[i].equals("--size") && i + 1 < args.length){
+                String[] size = args[++i].toLowerCase().split("x");
+                width = Integer.parseInt(size[0]);
+                height = Integer.parseInt(size[size.length - 1]);
+            } else if(args[i].equals("--fleet") && i + 1 < args.length){
+                fleet = FleetConfig.load(Paths.get(args[++i]));
+            } else if(args[i].equals("--quiet")){
+                quiet = true;
+            } else command.add(args[i]);
+        }
+        args = command.toArray(new String[0]);
+
+        // Print the metrics on the way out when they are enabled with -Dbattleships.metrics=true
+        if(GameMetrics.ENABLED)
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(GameMetrics.dump())));
+
+        // Play games without a human e.g. --simulate 100000 density
+        if(args.length >= 2 && args[0].equals("--simulate")){
+            simulateGames(width, height, fleet, Integer.parseInt(args[1]), args.length > 2 ? args[2] : "random");
+            return;
+        }
+
+        // Play every strategy over the same boards and compare them e.g. --tournament 100000
+        if(args.length >= 2 && args[0].equals("--tournament")){
+            playTournament(width, height, fleet, Integer.parseInt(args[1]));
+            return;
+        }
+
+        // Count every layout of the fleet and the chance of a ship on each square e.g. --layouts
+        if(args.length >= 1 && args[0].equals("--layouts")){
+            countLayouts(width, height, fleet);
+            return;
+        }
+
+        // Host games over TCP e.g. --server 7777
+        if(args.length >= 2 && args[0].equals("--server")){
+            hostGames(width, height, fleet, Integer.parseInt(args[1]));
+            return;
+        }
+
+        // Play games against a local server from many connections e.g. --load 7777 1000 10000
+        if(args.length >= 4 && args[0].equals("--load")){
+            generateLoad(width, height, Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+
+        // Play the moves from a file, or - for stdin, with an optional seed for the layouts e.g. --script moves.txt 42
+        if(args.length >= 2 && args[0].equals("--script")){
+            RandomSource random = args.length > 2 ? RandomSource.seeded(Long.parseLong(args[2])) : RandomSource.threadLocal();
+            playScript(new ConsoleInterface(width, height, fleet).setQuiet(quiet), args[1], random);
+            return;
+        }
+
+        // Record each move so the game can be carried on if the process dies e.g. --journal game.journal
+        if(args.length >= 2 && args[0].equals("--journal")){
+            try(MoveJournal journal = new MoveJournal(Paths.get(args[1]), JOURNAL_CAPACITY)){
+                new ConsoleInterface(width, height, fleet, journal).setQuiet(quiet).startGame();
+            }
+            return;
+        }
+
+        ConsoleInterface consoleInterface = new ConsoleInterface(width, height, fleet).setQuiet(quiet);
         consoleInterface.startGame();
     }
 
     public ConsoleInterface(){
-        this.board = new Board.BoardBuilder(BOARD_WIDTH, BOARD_HEIGHT)
-                .addShip(ShipType.BATTLESHIP)
-                .addShip(ShipType.DESTROYER)
-                .addShip(ShipType.DESTROYER)
-                .build();
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT, DEFAULT_FLEET);
     }
 
     /**
-     * Begin execution of the game. This will prompt user input.
+     * @param width Width of the board to play on.
+     * @param height Height of the board to play on.
+     * @param fleet Ships to add to the board.
+     */
+    public ConsoleInterface(int width, int height, ShipType[] fleet){
+        Board.BoardBuilder builder = new Board.BoardBuilder(width, height);
+
+        for(ShipType shipType : fleet)
+            builder.addShip(shipType);
+
+        this.width = width;
+        this.height = height;
+        this.board = builder.build();
+        this.boardRenderer = new AsciiBoardRenderer(board);
+    }
+
+    /**
+     * Play a game that records each move to the journal.
+     * If the journal holds a game that was never finished then that game is carried on, else a new game is started.
+     * @param width Width of the board to play on.
+     * @param height Height of the board to play on.
+     * @param fleet Ships to add to the board.
+     * @param journal Journal to record the moves to.
+     */
+    public ConsoleInterface(int width, int height, ShipType[] fleet, MoveJournal journal){
+        JournalReplayer replayer = new JournalReplayer(width, height, fleet).setEngine(Board.Engine.GRID);
+        Map<Integer, JournalReplayer.ReplayedGame> unfinishedGames = replayer.replayUnfinished(journal);
+
+        if(unfinishedGames.isEmpty()){
+            long seed = ThreadLocalRandom.current().nextLong();
+            this.journalGameId = journal.startGame(seed);
+            this.board = replayer.buildBoard(seed);
+        } else {
+            // Carry on with the most recent game.
+            JournalReplayer.ReplayedGame game = null;
+            for(JournalReplayer.ReplayedGame unfinishedGame : unfinishedGames.values())
+                game = unfinishedGame;
+
+            this.journalGameId = game.getGameId();
+            this.board = game.getBoard();
+            this.turnCount = game.getTurnCount();
+        }
+
+        this.width = width;
+        this.height = height;
+        this.journal = journal;
+        this.boardRenderer = new AsciiBoardRenderer(board);
+    }
+
+    /**
+     * Play games across all of the available cores and print the turn counts.
+     * @param width Width of the boards to play on.
+     * @param height Height of the boards to play on.
+     * @param fleet Ships to add to each board.
+     * @param games Number of games to play.
+     * @param strategyName Strategy to play with, either random or density.
+     */
+    private static void simulateGames(int width, int height, ShipType[] fleet, int games, String strategyName){
+        Supplier<TargetingStrategy> strategyFactory;
+        switch (strategyName){
+            case "random":
+                strategyFactory = RandomTargetingStrategy::new;
+                break;
+            case "density":
+                strategyFactory = ProbabilityDensityStrategy::new;
+                break;
+            default:
+                System.out.println("Unknown strategy " + strategyName + ", expected random or density.");
+                return;
+        }
+
+        long startTime = System.nanoTime();
+
+        SimulationResult result = new SimulationRunner(width, height, fleet, strategyFactory)
+                .run(games, startTime);
+
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.println(result);
+        System.out.println(String.format("Played %d games in %d ms.", games, elapsedMillis));
+    }
+
+    /**
+     * Play every strategy over the same boards and print how each did, and how they differ game by game.
+     * @param width Width of the boards to play on.
+     * @param height Height of the boards to play on.
+     * @param fleet Ships to add to each board.
+     * @param games Number of games each strategy plays.
+     */
+    private static void playTournament(int width, int height, ShipType[] fleet, int games){
+        long startTime = System.nanoTime();
+
+        TournamentResult result = new Tournament(width, height, fleet)
+                .addStrategy("random", RandomTargetingStrategy::new)
+                .addStrategy("density", ProbabilityDensityStrategy::new)
+                .run(games, startTime);
+
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.print(result);
+        System.out.println(String.format("Played %d games with each strategy in %d ms.", games, elapsedMillis));
+    }
+
+    /**
+     * Count every layout of the fleet and print the chance of a ship being on each square.
+     * @param width Width of the board.
+     * @param height Height of the board.
+     * @param fleet Ships to lay out.
+     */
+    private static void countLayouts(int width, int height, ShipType[] fleet){
+        long startTime = System.nanoTime();
+
+        LayoutEnumerator.LayoutCount count = new LayoutEnumerator(width, height, fleet).count();
+
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        System.out.print(count);
+        System.out.println(String.format("Counted in %d ms.", elapsedMillis));
+    }
+
+    /**
+     * Play the moves from a script file or stdin, then print the throughput to stderr so it stays out of the results.
+     * @param consoleInterface Interface to play the moves on.
+     * @param path Script file to read, or - for stdin.
+     * @param random Source to lay out the ships of each game with.
      */
-    public void startGame(){
+    private static void playScript(ConsoleInterface consoleInterface, String path, RandomSource random) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+        long startTime = System.nanoTime();
+
+        int gamesWon;
+        if(path.equals("-")){
+            gamesWon = consoleInterface.playScript(new InputStreamReader(System.in, StandardCharsets.UTF_8), writer, random);
+        } else {
+            try(Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)){
+                gamesWon = consoleInterface.playScript(reader, writer, random);
+            }
+        }
+
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+        System.err.println(String.format("Won %d games in %.2f s.", gamesWon, elapsedSeconds));
+    }
 
-        int turnCount = 0;
+    /**
+     * Host games on the port until the process is stopped.
+     * @param width Width of the boards to play on.
+     * @param height Height of the boards to play on.
+     * @param fleet Ships to add to each board.
+     * @param port Port to listen on.
+     */
+    private static void hostGames(int width, int height, ShipType[] fleet, int port) throws IOException, InterruptedException {
+        GameServer server = new GameServer(width, height, fleet);
+        server.start(port);
+
+        System.out.println(String.format("Hosting games on port %d.", server.getPort()));
+        server.awaitClose();
+    }
+
+    /**
+     * Play moves against a server on this machine and print the throughput and move latencies.
+     * @param width Width of the boards the server plays on.
+     * @param height Height of the boards the server plays on.
+     * @param port Port the server is listening on.
+     * @param clients Number of connections to play from.
+     * @param movesPerClient Number of moves each connection makes.
+     */
+    private static void generateLoad(int width, int height, int port, int clients, int movesPerClient) throws IOException {
+        LoadGenerator generator = new LoadGenerator(new InetSocketAddress("localhost", port), width, height);
+        long startTime = System.nanoTime();
 
-        Scanner reader = new Scanner(System.in);
-        System.out.println(BoardUtils.generateAsciiBoard(board));
+        LatencyHistogram latencies = generator.run(clients, movesPerClient, startTime);
+
+        double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.println(String.format("Played %d moves from %d connections in %.2f s (%.0f moves/s).",
+                latencies.getCount(), clients, elapsedSeconds, latencies.getCount() / elapsedSeconds));
+        System.out.println(String.format("Move latency: p50 %d us, p99 %d us, max %d us.",
+                latencies.getPercentile(50) / 1000, latencies.getPercentile(99) / 1000, latencies.getMax() / 1000));
+    }
+
+    /**
+     * Begin execution of the game. This will prompt user input.
+     * @throws IOException If the console fails.
+     */
+    public void startGame() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in), IO_BUFFER_SIZE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out)), IO_BUFFER_SIZE);
+
+        printBoard(writer);
+        writer.flush();
 
         while(!board.allShipsDestroyed()) {
             // Increment the turn count.
             turnCount++;
 
-            // Request target square.
-            Point targetSquare;
-            try {
-                targetSquare = requestTargetSquare(reader);
-            }catch (NoSuchElementException e){
-                // This will occur if the scanner no longer has any lines to read. Assume program has been prematurely stopped.
+            // Request target square, if there's nothing left to read then assume the program has been prematurely stopped.
+            int targetCell = requestTargetCell(reader, writer);
+            if(targetCell < 0)
                 return;
-            }
 
             // Fire at the target square.
-            Board.ShotResult shotResult = this.board.fireAtSquare(targetSquare);
+            Board.ShotResult shotResult = this.board.fireAtCell(targetCell);
+
+            if(journal != null)
+                journal.recordShot(journalGameId, targetCell, shotResult);
 
             // Reprint the board to show the result.
-            System.out.print("\n\n\n");
-            System.out.println(BoardUtils.generateAsciiBoard(board));
-            System.out.println();
+            writer.write("\n\n\n");
+            printBoard(writer);
+            writer.write('\n');
 
             // Tell the user what happened.
-            System.out.print("Result: ");
+            writer.write("Result: ");
             switch (shotResult){
                 case MISS:
-                    System.out.println("MISS");
+                    writer.write("MISS\n");
                     break;
                 case HIT:
-                    System.out.println("HIT");
+                    writer.write("HIT\n");
                     break;
                 case DESTROYED:
-                    System.out.println("You sunk my " + board.getShip(targetSquare).getShipType().name() + "!");
+                    writer.write("You sunk my " + board.getShipAtCell(targetCell).getShipType().name() + "!\n");
             }
+
+            // Send the whole turn to the console at once.
+            writer.flush();
         }
 
         // Reprint the board one last time to show the result.
-        System.out.print("\n\n\n");
-        System.out.println(BoardUtils.generateAsciiBoard(board));
-        System.out.println();
+        writer.write("\n\n\n");
+        printBoard(writer);
+        writer.write('\n');
+
+        // Make sure the finished game is on disk before telling the player, so it isn't carried on next time.
+        if(journal != null)
+            journal.commit();
 
         // All ships have been destroyed so inform the player and wait for user input before ending.
-        System.out.println("All ships have been sunk. Congratulations!");
-        System.out.println(String.format("You completed the game in %d turns.", turnCount));
-        System.out.println();
+        writer.write("All ships have been sunk. Congratulations!\n");
+        writer.write(String.format("You completed the game in %d turns.%n", turnCount));
+        writer.write('\n');
+
+        writer.write("Press enter to end game...\n");
+        writer.flush();
+        reader.readLine();
+    }
+
+    /**
+     * Play the moves read from a script, e.g. for acceptance testing, starting a new game each time one is won.
+     * Lines can hold several moves separated by whitespace, commas or semicolons, and lines starting with # are skipped.
+     * Each move writes HIT, MISS, SUNK followed by the ship type or ERR if it's invalid, in the same way as the server,
+     * and WIN followed by the number of turns once every ship has been sunk. Unless quiet, the board is drawn after each move.
+     * The output is only flushed when no more of the script is ready to be read, so a piped file is written in large blocks.
+     * @param script Reader for the moves.
+     * @param output Writer for the results, it is flushed but not closed.
+     * @param random Source to lay out the ships of each game with, seed it to play the same games each time.
+     * @return Number of games won.
+     * @throws IOException If the script or output fails.
+     */
+    public int playScript(Reader script, Writer output, RandomSource random) throws IOException {
+        BufferedReader lines = script instanceof BufferedReader ? (BufferedReader) script : new BufferedReader(script, IO_BUFFER_SIZE);
+        Writer writer = output instanceof BufferedWriter ? output : new BufferedWriter(output, IO_BUFFER_SIZE);
+        int[] cells = new int[16];
+        int gamesWon = 0;
+
+        // Lay the board out from the source, so a seeded script plays the same games each time.
+        board.reset(random);
+        turnCount = 0;
+
+        String line;
+        while((line = lines.readLine()) != null){
+            if(line.isEmpty() || line.charAt(0) == '#')
+                continue;
 
-        System.out.println("Press enter to end game...");
-        reader.nextLine();
+            // Every move takes at least two characters, so this is always enough for the whole line.
+            if(cells.length < line.length() / 2 + 1)
+                cells = new int[line.length() / 2 + 1];
+
+            int moveCount = CoordinateUtils.parseMoves(line, width, height, cells);
+            for(int i = 0; i < moveCount; i++){
+                if(playScriptedMove(cells[i], writer)){
+                    gamesWon++;
+                    board.reset(random);
+                    turnCount = 0;
+                }
+            }
+
+            // Only pay for writing to the output once the script would make us wait.
+            if(!lines.ready())
+                writer.flush();
+        }
 
-        // Close the scanner.
-        reader.close();
+        writer.flush();
+        return gamesWon;
+    }
+
+    /**
+     * Fire at the cell and write the result.
+     * @param cell Cell to fire at, or -1 if the move was invalid.
+     * @param writer Writer for the result.
+     * @return True if the move won the game, else false.
+     */
+    private boolean playScriptedMove(int cell, Writer writer) throws IOException {
+        if(cell < 0){
+            writer.write("ERR\n");
+            return false;
+        }
+
+        turnCount++;
+        Board.ShotResult shotResult = board.fireAtCell(cell);
+
+        if(!quiet)
+            printBoard(writer);
+
+        switch (shotResult){
+            case HIT:
+                writer.write("HIT\n");
+                break;
+            case MISS:
+                writer.write("MISS\n");
+                break;
+            case DESTROYED:
+                writer.write("SUNK ");
+                writer.write(board.getShipAtCell(cell).getShipType().name());
+                writer.write('\n');
+                break;
+        }
+
+        if(!board.allShipsDestroyed())
+            return false;
+
+        writer.write("WIN ");
+        writer.write(Integer.toString(turnCount));
+        writer.write('\n');
+        return true;
+    }
+
+    /**
+     * Set whether the board is left out of the output, so only the results of each move are written.
+     * @param quiet True to stop drawing the board, else false.
+     */
+    public ConsoleInterface setQuiet(boolean quiet){
+        this.quiet = quiet;
+        return this;
+    }
+
+    /**
+     * Print the board, only redrawing the rows that have changed since it was last printed.
+     * Nothing is printed when quiet.
+     */
+    private void printBoard(Writer writer) throws IOException {
+        if(quiet)
+            return;
+
+        boardRenderer.render(writer);
+        writer.write('\n');
     }
 
     /**
      * Request the users input for the target square.
-     * @param reader Scanner for the console.
-     * @return target point.
+     * @param reader Reader for the console.
+     * @param writer Writer for the console.
+     * @return target cell, where cell = y * width + x, or -1 if there's nothing left to read.
      */
-    private Point requestTargetSquare(Scanner reader) throws NoSuchElementException {
+    private int requestTargetCell(BufferedReader reader, Writer writer) throws IOException {
         // Retrieve the coordinates from the user and validate them before continuing.
-        String targetCoordinates;
-        boolean coordinatesValid;
+        int targetCell;
 
         do {
             // Request user input.
-            System.out.print("Enter Cell to Target: ");
+            writer.write("Enter Cell to Target: ");
+            writer.flush();
 
             // Get the user input and validate it, if it's invalid then inform the user.
-            targetCoordinates = reader.nextLine().toUpperCase().trim();
-            coordinatesValid = CoordinateUtils.isValid(targetCoordinates);
+            String line = reader.readLine();
+            if(line == null)
+                return -1;
+
+            targetCell = CoordinateUtils.parseCell(line.trim(), width, height);
 
-            if(!coordinatesValid)
-                System.out.println("\nCoordinates are not in a valid format e.g. A10. Please try again.");
+            if(targetCell < 0)
+                writer.write("\nCoordinates are not in a valid format e.g. A10. Please try again.\n");
 
-        } while (!coordinatesValid);
+        } while (targetCell < 0);
 
-        return CoordinateUtils.toPoint(targetCoordinates);
+        return targetCell;
     }
 }
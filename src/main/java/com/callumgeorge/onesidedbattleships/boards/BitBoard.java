@@ -0,0 +1,239 @@
+package com.callumgeorge.onesidedbattleships.boards;
+
+import com.callumgeorge.onesidedbattleships.metrics.GameMetrics;
+import com.callumgeorge.onesidedbattleships.ships.Ship;
+
+import java.util.Arrays;
+
+/**
+ * Board that packs the state of the squares into bitsets, one bit per square in row order.
+ * Rather than a ShipNode reference per square, the ship on a square is looked up through a 16 bit ship id map.
+ */
+class BitBoard extends Board {
+
+    // Largest number of ships the ship id map can address, id 0 is reserved for an empty square.
+    private static final int MAX_SHIPS = Character.MAX_VALUE;
+
+    private final long[] occupied;
+    private final long[] hits;
+    private final long[] misses;
+
+    // Index of the ship on each square plus one, 0 when the square is empty.
+    private final char[] shipIds;
+
+    BitBoard(BoardBuilder builder){
+        super(builder);
+
+        if(ships.length > MAX_SHIPS)
+            throw new IllegalStateException("A BITBOARD board can hold at most " + MAX_SHIPS + " ships");
+
+        int cells = getDenseCellCount();
+        int words = (int) ((cells + 63L) >>> 6);
+        this.occupied = new long[words];
+        this.hits = new long[words];
+        this.misses = new long[words];
+        this.shipIds = new char[cells];
+
+        placeShips();
+    }
+
+    private BitBoard(BitBoard board){
+        super(board);
+
+        this.occupied = board.occupied.clone();
+        this.hits = board.hits.clone();
+        this.misses = board.misses.clone();
+        this.shipIds = board.shipIds.clone();
+    }
+
+    @Override
+    public Board fork(){
+        return new BitBoard(this);
+    }
+
+    @Override
+    protected void resetSquares(){
+        Arrays.fill(occupied, 0);
+        Arrays.fill(hits, 0);
+        Arrays.fill(misses, 0);
+        Arrays.fill(shipIds, (char) 0);
+
+        placeShips();
+    }
+
+    /**
+     * Place each of the ships in the bitsets.
+     */
+    private void placeShips(){
+        for(int shipIndex = 0; shipIndex < ships.length; shipIndex++){
+            Direction direction = shipDirections[shipIndex];
+
+            for(int i = 0; i < ships[shipIndex].getLength(); i++){
+                int cell = (shipRootsY[shipIndex] + direction.dy * i) * width + shipRootsX[shipIndex] + direction.dx * i;
+                this.occupied[cell >>> 6] |= 1L << cell;
+                this.shipIds[cell] = (char) (shipIndex + 1);
+            }
+        }
+    }
+
+    @Override
+    protected int fire(int x, int y){
+        checkBounds(x, y);
+        int cell = y * width + x;
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+
+        // Check if this square has already been fired at. If it has then return the previous result.
+        if((hits[word] & bit) != 0)
+            return RESULT_HIT;
+        if((misses[word] & bit) != 0)
+            return RESULT_MISS;
+
+        markRowChanged(y);
+        recordFired(cell);
+
+        if((occupied[word] & bit) == 0){
+            misses[word] |= bit;
+            return RESULT_MISS | FIRST_SHOT;
+        }
+
+        // The square has a ship so destroy the node under it.
+        hits[word] |= bit;
+        int shipIndex = shipIds[cell] - 1;
+
+        boolean destroyed = ships[shipIndex].getShipNode(getShipNodePosition(shipIndex, x, y)).destroyNode();
+        updateDamage(shipIndex);
+
+        if(destroyed)
+            return RESULT_DESTROYED | FIRST_SHOT | (--this.shipsAlive == 0 ? LAST_SHIP : 0);
+
+        return RESULT_HIT | FIRST_SHOT;
+    }
+
+    /**
+     * Fire at a volley of squares, straight from the bitsets.
+     * The destroyed ships are taken off the ships alive once, at the end of the volley.
+     */
+    @Override
+    public int fireBatch(int[] cells, int count, byte[] results, int[] sunkCells){
+        // Each shot of the volley is published on its own.
+        if(getEventStream() != null)
+            return super.fireBatch(cells, count, results, sunkCells);
+
+        checkCells(cells, count);
+        int sunk = 0;
+
+        for(int i = 0; i < count; i++){
+            int cell = cells[i];
+            int word = cell >>> 6;
+            long bit = 1L << cell;
+
+            if((hits[word] & bit) != 0){
+                results[i] = RESULT_HIT;
+                continue;
+            }
+            if((misses[word] & bit) != 0){
+                results[i] = RESULT_MISS;
+                continue;
+            }
+
+            int y = cell / width;
+            markRowChanged(y);
+            recordFired(cell);
+
+            if((occupied[word] & bit) == 0){
+                misses[word] |= bit;
+                results[i] = RESULT_MISS;
+                continue;
+            }
+
+            hits[word] |= bit;
+            int shipIndex = shipIds[cell] - 1;
+
+            boolean destroyed = ships[shipIndex].getShipNode(getShipNodePosition(shipIndex, cell - y * width, y)).destroyNode();
+            updateDamage(shipIndex);
+
+            if(destroyed){
+                sunkCells[sunk++] = cell;
+                results[i] = RESULT_DESTROYED;
+            } else results[i] = RESULT_HIT;
+        }
+
+        this.shipsAlive -= sunk;
+
+        if(GameMetrics.ENABLED)
+            recordBatch(results, count, sunk > 0 && shipsAlive == 0);
+
+        return sunk;
+    }
+
+    @Override
+    protected void unfire(int x, int y){
+        int cell = y * width + x;
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        misses[word] &= ~bit;
+
+        if((hits[word] & bit) == 0)
+            return;
+
+        hits[word] &= ~bit;
+        int shipIndex = shipIds[cell] - 1;
+
+        if(ships[shipIndex].getShipNode(getShipNodePosition(shipIndex, x, y)).repairNode())
+            this.shipsAlive++;
+
+        updateDamage(shipIndex);
+    }
+
+    @Override
+    public Ship getShip(int x, int y){
+        checkBounds(x, y);
+        int shipId = shipIds[y * width + x];
+
+        return shipId == 0 ? null : ships[shipId - 1];
+    }
+
+    /**
+     * Get the Record at the specific index.
+     * The squares are built from the bitsets, so they are a snapshot and will not track later shots.
+     * @param index Index for the Row.
+     * @return Array of BoardSquares for that row.
+     */
+    @Override
+    public BoardSquare[] getRow(int index){
+        BoardSquare[] row = new BoardSquare[this.width];
+
+        for(int x = 0, cell = index * width; x < this.width; x++, cell++){
+            BoardSquare boardSquare = new BoardSquare();
+            boardSquare.setState(getSquareState(x, index));
+
+            int shipId = shipIds[cell];
+            if(shipId != 0)
+                boardSquare.setShipNode(ships[shipId - 1].getShipNode(getShipNodePosition(shipId - 1, x, index)));
+
+            row[x] = boardSquare;
+        }
+
+        return row;
+    }
+
+    @Override
+    public BoardSquare.BoardSquareState getSquareState(int x, int y){
+        checkBounds(x, y);
+        int cell = y * width + x;
+        long bit = 1L << cell;
+
+        if((hits[cell >>> 6] & bit) != 0)
+            return BoardSquare.BoardSquareState.HIT;
+        if((misses[cell >>> 6] & bit) != 0)
+            return BoardSquare.BoardSquareState.MISS;
+
+        return BoardSquare.BoardSquareState.NOTHING;
+    }
+
+    @Override
+    public Engine getEngine(){
+        return Engine.BITBOARD;
+    }
+}
@@ -1,35 +1,123 @@
 package com.callumgeorge.onesidedbattleships.boards;
 
+import com.callumgeorge.onesidedbattleships.events.GameEventStream;
+import com.callumgeorge.onesidedbattleships.metrics.GameMetrics;
 import com.callumgeorge.onesidedbattleships.ships.Ship;
 import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
 
 import java.awt.Point;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
 
 /**
  * Board that will hold the references to the ships.
+ * The way the state of the board is stored is decided by the {@link Engine} chosen when it is built.
  */
-public class Board {
+public abstract class Board {
 
     public enum ShotResult {HIT, MISS, DESTROYED}
 
-    private int width;
-    private int height;
+    // Ordinals of the shot results, as written by fireBatch.
+    static final byte RESULT_HIT = (byte) ShotResult.HIT.ordinal();
+    static final byte RESULT_MISS = (byte) ShotResult.MISS.ordinal();
+    static final byte RESULT_DESTROYED = (byte) ShotResult.DESTROYED.ordinal();
 
-    private int shipsAlive;
+    // What fire reports about a shot, the ordinal of its result along with whether the shot was the first
+    // at the square, and whether it destroyed the last ship alive.
+    protected static final int RESULT_MASK = 0b11;
+    protected static final int FIRST_SHOT = 1 << 2;
+    protected static final int LAST_SHIP = 1 << 3;
 
-    private List<Point[]> shipPoints;
-    private BoardSquare[][] boardSquareGrid;
+    private static final ShotResult[] SHOT_RESULTS = ShotResult.values();
 
-    private Board(BoardBuilder builder){
+    /**
+     * Storage engines that a board can be built with.
+     * GRID holds a BoardSquare object per cell, BITBOARD packs the cell states into bitsets.
+     * CONCURRENT packs each cell into an atomic int so the board can be fired at from many threads at once,
+     * the other engines must only be used by one thread at a time.
+     * SPARSE only stores the squares that hold a ship or have been fired at, for huge boards that are mostly empty.
+     */
+    public enum Engine {GRID, BITBOARD, CONCURRENT, SPARSE}
+
+    protected final int width;
+    protected final int height;
+
+    protected int shipsAlive;
+
+    protected final Ship[] ships;
+    final int[] shipRootsX;
+    final int[] shipRootsY;
+    final Direction[] shipDirections;
+
+    // Incremented each time a square in the row changes state.
+    private final int[] rowVersions;
+
+    // Offsets of the neighbours of a square, left, right, up then down.
+    private static final int[] NEIGHBOUR_DX = {-1, 1, 0, 0};
+    private static final int[] NEIGHBOUR_DY = {0, 0, -1, 1};
+
+    // Ships that have been hit but not destroyed, in no particular order, and where each ship is in that list or -1.
+    private final int[] damagedShips;
+    private final int[] damagedPositions;
+    private int damagedCount;
+
+    // Created the first time the board is reset, along with where the placer put each ship, which is only
+    // copied to the ships once all of them have been placed.
+    private ShipPlacer shipPlacer;
+    private int[] placedX;
+    private int[] placedY;
+    private Direction[] placedDirections;
+
+    // Most cells the undo log holds before it grows, on boards with more cells than this.
+    private static final int INITIAL_UNDO_CAPACITY = 1 << 12;
+
+    // Most squares an engine that stores every square can hold, so every cell fits in an int and an array.
+    private static final long MAX_DENSE_CELLS = Integer.MAX_VALUE - 8;
+
+    // Cells first fired at since the undo log was started by mark, in the order they were fired at.
+    private long[] undoLog;
+    private int undoLength;
+    private boolean recordingUndo;
+
+    // Stream the shots are published to, or null if nobody is watching.
+    private GameEventStream events;
+
+    protected Board(BoardBuilder builder){
         this.width = builder.width;
         this.height = builder.height;
-        this.shipsAlive = builder.shipsAlive;
-        this.shipPoints = builder.shipPoints;
-        this.boardSquareGrid = builder.boardSquareGrid;
+        this.shipsAlive = builder.ships.size();
+        this.ships = builder.ships.toArray(new Ship[0]);
+        this.shipRootsX = Arrays.copyOf(builder.shipRootsX, this.ships.length);
+        this.shipRootsY = Arrays.copyOf(builder.shipRootsY, this.ships.length);
+        this.shipDirections = Arrays.copyOf(builder.shipDirections, this.ships.length);
+        this.rowVersions = new int[this.height];
+        this.damagedShips = new int[this.ships.length];
+        this.damagedPositions = new int[this.ships.length];
+
+        Arrays.fill(damagedPositions, -1);
+    }
+
+    /**
+     * Copy a board, including the state of every ship. The copy starts without an undo log or an event stream.
+     * @param board Board to copy.
+     */
+    protected Board(Board board){
+        this.width = board.width;
+        this.height = board.height;
+        this.shipsAlive = board.shipsAlive;
+        this.ships = new Ship[board.ships.length];
+        this.shipRootsX = board.shipRootsX.clone();
+        this.shipRootsY = board.shipRootsY.clone();
+        this.shipDirections = board.shipDirections.clone();
+        this.rowVersions = board.rowVersions.clone();
+        this.damagedShips = board.damagedShips.clone();
+        this.damagedPositions = board.damagedPositions.clone();
+        this.damagedCount = board.damagedCount;
+
+        for(int shipIndex = 0; shipIndex < ships.length; shipIndex++)
+            this.ships[shipIndex] = new Ship(board.ships[shipIndex]);
     }
 
     /**
@@ -54,59 +142,232 @@ public class Board {
      * @return Result of the shot.
      */
     public ShotResult fireAtSquare(Point point){
-        BoardSquare boardSquare = boardSquareGrid[point.x][point.y];
-
-        // Default the result to a miss.
-        ShotResult shotResult = ShotResult.MISS;
-
-        // Check if this square has already been fired at. If it has then return the previous result.
-        BoardSquare.BoardSquareState currentState = boardSquare.getState();
-        if (currentState == BoardSquare.BoardSquareState.HIT){
-            return ShotResult.HIT;
-        } else if(currentState == BoardSquare.BoardSquareState.MISS){
-            return ShotResult.MISS;
-        }
+        return fireAtSquare(point.x, point.y);
+    }
 
-        // If the square has a ship node, then destroy it.
-        if(boardSquare.hasShipNode()){
-            boolean isShipDestroyed = boardSquare.getShipNode().destroyNode();
+    /**
+     * Fire at the square on the board.
+     * If the square has already been fired at then the previous result is returned.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     * @return Result of the shot.
+     */
+    public ShotResult fireAtSquare(int x, int y){
+        if(events != null)
+            return SHOT_RESULTS[fireAndPublish(x, y) & RESULT_MASK];
 
-            if(isShipDestroyed){
-                shotResult = ShotResult.DESTROYED;
-                this.shipsAlive--;
-            } else
-                shotResult = ShotResult.HIT;
-        }
+        int shot = fire(x, y);
 
-        // Record the result in the square.
-        if (shotResult == ShotResult.MISS)
-            boardSquare.setState(BoardSquare.BoardSquareState.MISS);
-        else boardSquare.setState(BoardSquare.BoardSquareState.HIT);
+        if(GameMetrics.ENABLED)
+            GameMetrics.recordShot(SHOT_RESULTS[shot & RESULT_MASK], (shot & LAST_SHIP) != 0);
 
-        return shotResult;
+        return SHOT_RESULTS[shot & RESULT_MASK];
     }
 
+    /**
+     * Fire at the square on the board, in the way the engine stores it.
+     * If the square has already been fired at then the previous result is returned, without FIRST_SHOT.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     * @return Ordinal of the result of the shot, with FIRST_SHOT if this shot changed the square,
+     * and LAST_SHIP if it destroyed the last ship alive.
+     */
+    protected abstract int fire(int x, int y);
+
     /**
      * Get the ship at the provided position.
      * @param point Point to retrieve ship.
      * @return Returns the ship found at the point. If no ship is found then null is returned.
      */
     public Ship getShip(Point point){
-        BoardSquare boardSquare = boardSquareGrid[point.x][point.y];
+        return getShip(point.x, point.y);
+    }
+
+    /**
+     * Get the ship at the provided position.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     * @return Returns the ship found at the position. If no ship is found then null is returned.
+     */
+    public abstract Ship getShip(int x, int y);
+
+    /**
+     * Fire at the square on the board, addressed by its cell.
+     * If the square has already been fired at then the previous result is returned.
+     * @param cell Cell of the square, where cell = y * width + x.
+     * @return Result of the shot.
+     */
+    public ShotResult fireAtCell(int cell){
+        return fireAtSquare(cell % width, cell / width);
+    }
+
+    /**
+     * Fire at a volley of squares, addressed by their cells, in the order given.
+     * Each result is written as the ordinal of its {@link ShotResult}, and each ship destroyed by the volley
+     * is reported once, by the cell of the shot that destroyed it. The cells are all checked before any are
+     * fired at, so a volley with a cell off the board changes nothing.
+     * @param cells Cells of the squares, where cell = y * width + x.
+     * @param count Number of cells to fire at, from the start of the array.
+     * @param results Receives the ordinal of the result of each shot, must hold at least count results.
+     * @param sunkCells Receives the cell that destroyed each ship, must hold at least as many cells as there are ships.
+     * @return Number of ships destroyed by the volley.
+     * @throws IndexOutOfBoundsException If a cell is off the board.
+     */
+    public int fireBatch(int[] cells, int count, byte[] results, int[] sunkCells){
+        checkCells(cells, count);
+        int sunk = 0;
+        boolean won = false;
+
+        // Published shots are counted one at a time as they are published, so the volley isn't counted again.
+        boolean publishing = events != null;
+
+        for(int i = 0; i < count; i++){
+            int cell = cells[i];
+            int shot = publishing ? fireAndPublish(cell % width, cell / width) : fire(cell % width, cell / width);
+            results[i] = (byte) (shot & RESULT_MASK);
+            won |= (shot & LAST_SHIP) != 0;
+
+            if(results[i] == RESULT_DESTROYED)
+                sunkCells[sunk++] = cell;
+        }
 
-        if(!boardSquare.hasShipNode())
-            return null;
+        if(GameMetrics.ENABLED && !publishing)
+            recordBatch(results, count, won);
 
-        return boardSquare.getShipNode().getShip();
+        return sunk;
+    }
+
+    /**
+     * Attach a stream that every shot fired at the board is published to, so spectators can watch the game live.
+     * Shots are published from whichever thread fires them. While a stream is attached, volleys are fired one shot
+     * at a time, and shots undone by a rollback stay in the stream.
+     * @param events Stream to publish to, or null to stop publishing.
+     * @return This board.
+     * @throws IllegalArgumentException If the board or one of its ship types is too large to be packed into the stream.
+     */
+    public Board setEventStream(GameEventStream events){
+        if(events != null){
+            if(width > GameEventStream.MAX_BOARD_SIZE || height > GameEventStream.MAX_BOARD_SIZE)
+                throw new IllegalArgumentException(String.format("A %dx%d board is too large to publish to a game event stream", width, height));
+
+            for(Ship ship : ships)
+                if(ship.getShipType().getId() >= GameEventStream.MAX_SHIP_TYPES)
+                    throw new IllegalArgumentException("Ship type " + ship.getShipType() + " has too large an id to publish to a game event stream");
+
+            events.startGame();
+        }
+
+        this.events = events;
+        return this;
+    }
+
+    /**
+     * Get the stream the shots are published to.
+     * @return Attached event stream, or null if there isn't one.
+     */
+    public GameEventStream getEventStream(){
+        return events;
+    }
+
+    /**
+     * Fire at the square and publish the shot to the event stream.
+     * @return What fire reported about the shot.
+     */
+    private int fireAndPublish(int x, int y){
+        int shot = fire(x, y);
+        ShotResult shotResult = SHOT_RESULTS[shot & RESULT_MASK];
+        boolean gameOver = (shot & LAST_SHIP) != 0;
+
+        if(GameMetrics.ENABLED)
+            GameMetrics.recordShot(shotResult, gameOver);
+
+        Ship ship = shotResult == ShotResult.MISS ? null : getShip(x, y);
+        publishShot(events, x, y, shotResult, ship == null ? null : ship.getShipType(), (shot & FIRST_SHOT) == 0, gameOver);
+        return shot;
+    }
+
+    /**
+     * Publish a shot to the event stream, which only one thread may do at a time.
+     * @param events Stream to publish to.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     * @param shotResult Result of the shot.
+     * @param shipType Type of the ship that was hit, or null for a miss.
+     * @param repeated True if the square had already been fired at.
+     * @param gameOver True if the shot destroyed the last ship.
+     */
+    protected void publishShot(GameEventStream events, int x, int y, ShotResult shotResult, ShipType shipType, boolean repeated, boolean gameOver){
+        events.publishShot(x, y, shotResult, shipType, repeated, gameOver);
+    }
+
+    /**
+     * Get the ship on the square, addressed by its cell.
+     * @param cell Cell of the square, where cell = y * width + x.
+     * @return Returns the ship found at the cell. If no ship is found then null is returned.
+     */
+    public Ship getShipAtCell(int cell){
+        return getShip(cell % width, cell / width);
+    }
+
+    /**
+     * Get the state of the square, addressed by its cell.
+     * @param cell Cell of the square, where cell = y * width + x.
+     * @return State of the square.
+     */
+    public BoardSquare.BoardSquareState getCellState(int cell){
+        return getSquareState(cell % width, cell / width);
+    }
+
+    /**
+     * Get the cells for the ship at the specified index, without allocating any Points.
+     * @param index Index for the ship to retrieve. Relates to the position the ship was added at i.e First Ship added = 0.
+     * @param cells Receives the cell of each square of the ship from its root, must hold at least the length of the ship.
+     * @return Number of cells written, which is the length of the ship.
+     * @throws IllegalStateException If the board has too many squares for a cell to fit in an int.
+     */
+    public int getShipCells(int index, int[] cells){
+        checkIntCells();
+        int length = ships[index].getLength();
+        int cell = shipRootsY[index] * width + shipRootsX[index];
+        int step = shipDirections[index].dy * width + shipDirections[index].dx;
+
+        for(int i = 0; i < length; i++, cell += step)
+            cells[i] = cell;
+
+        return length;
     }
 
     /**
      * Get the points for the ship at the specified index.
+     * Each call allocates the Points, so {@link #getShipCells(int, int[])} should be preferred in loops.
      * @param index Index for the ship to retrieves. Relates to the position the ship was added at i.e First Ship added = 0.
      * @return Points for the specified ship.
      */
     public Point[] getShipPoints(int index){
-        return this.shipPoints.get(index);
+        Point[] points = new Point[ships[index].getLength()];
+
+        for(int i = 0; i < points.length; i++)
+            points[i] = new Point(shipRootsX[index] + shipDirections[index].dx * i,
+                    shipRootsY[index] + shipDirections[index].dy * i);
+
+        return points;
+    }
+
+    /**
+     * Get the number of ships that were added to the board.
+     * @return Number of ships on the board, including destroyed ships.
+     */
+    public int getShipCount(){
+        return this.ships.length;
+    }
+
+    /**
+     * Get the type of the ship at the specified index.
+     * @param index Index for the ship. Relates to the position the ship was added at i.e First Ship added = 0.
+     * @return Type of the ship.
+     */
+    public ShipType getShipType(int index){
+        return this.ships[index].getShipType();
     }
 
     /**
@@ -117,26 +378,476 @@ public class Board {
         return this.shipsAlive == 0;
     }
 
+    /**
+     * Get the number of ships that have been hit but not destroyed.
+     * The damaged ships are kept up to date as the board is fired at, so this doesn't look at any squares.
+     * @return Number of damaged ships.
+     */
+    public int getDamagedShipCount(){
+        return damagedCount;
+    }
+
+    /**
+     * Get the index of one of the ships that have been hit but not destroyed.
+     * The order of the damaged ships changes as ships are hit and destroyed.
+     * @param position Position of the ship among the damaged ships, from 0 to getDamagedShipCount() - 1.
+     * @return Index of the ship, relating to the position the ship was added at.
+     * @throws IndexOutOfBoundsException If there is no damaged ship at the position.
+     */
+    public int getDamagedShip(int position){
+        if(position < 0 || position >= damagedCount)
+            throw new IndexOutOfBoundsException("Damaged ship " + position + " of " + damagedCount);
+
+        return damagedShips[position];
+    }
+
+    /**
+     * Get the cells of a ship that have been hit, in the time it takes to look along the ship.
+     * @param index Index for the ship. Relates to the position the ship was added at i.e First Ship added = 0.
+     * @param cells Receives the cell of each hit square from the root of the ship, must hold at least the length of the ship.
+     * @return Number of cells written.
+     * @throws IllegalStateException If the board has too many squares for a cell to fit in an int.
+     */
+    public int getHitCells(int index, int[] cells){
+        checkIntCells();
+        Ship ship = ships[index];
+        int cell = shipRootsY[index] * width + shipRootsX[index];
+        int step = shipDirections[index].dy * width + shipDirections[index].dx;
+        int count = 0;
+
+        for(int i = 0; i < ship.getLength(); i++, cell += step)
+            if(ship.getShipNode(i).isDestroyed()) cells[count++] = cell;
+
+        return count;
+    }
+
+    /**
+     * Get the frontier of the damaged ships, the squares that haven't been fired at next to a hit square of a ship
+     * that has been hit but not destroyed. These are where the rest of the damaged ships can be.
+     * Each square is given once. The frontier is found from the damaged ships alone, so the time it takes grows with
+     * the length of the damaged ships and not with the size of the board.
+     * @param cells Receives the cell of each square on the frontier. At most cells.length cells are written,
+     *              and 2 * length + 2 cells for each damaged ship is always enough.
+     * @return Number of cells written.
+     * @throws IllegalStateException If the board has too many squares for a cell to fit in an int,
+     *                               in which case {@link #getFrontierCells(long[])} gives the cells.
+     */
+    public int getFrontierCells(int[] cells){
+        checkIntCells();
+        return getFrontierCells(cells, null);
+    }
+
+    /**
+     * Get the frontier of the damaged ships, as for {@link #getFrontierCells(int[])}, on a board of any size.
+     * @param cells Receives the cell of each square on the frontier, where cell = (long) y * width + x.
+     * @return Number of cells written.
+     */
+    public int getFrontierCells(long[] cells){
+        return getFrontierCells(null, cells);
+    }
+
+    /**
+     * Get the frontier of the damaged ships into whichever of the arrays is given.
+     * @param intCells Receives the cells as ints, or null.
+     * @param longCells Receives the cells as longs, or null.
+     * @return Number of cells written.
+     */
+    protected int getFrontierCells(int[] intCells, long[] longCells){
+        int count = 0;
+
+        for(int position = 0; position < damagedCount; position++)
+            count = addFrontierCells(damagedShips[position], intCells, longCells, count);
+
+        return count;
+    }
+
+    /**
+     * Add the squares next to the hit squares of a damaged ship to the frontier.
+     * @param shipIndex Index of the damaged ship.
+     * @param intCells Receives the cells as ints, or null.
+     * @param longCells Receives the cells as longs, or null.
+     * @param count Number of cells already written.
+     * @return Number of cells written, including those already written.
+     */
+    protected int addFrontierCells(int shipIndex, int[] intCells, long[] longCells, int count){
+        Ship ship = ships[shipIndex];
+        Direction direction = shipDirections[shipIndex];
+
+        for(int i = 0; i < ship.getLength(); i++){
+            if(!ship.getShipNode(i).isDestroyed())
+                continue;
+
+            int x = shipRootsX[shipIndex] + direction.dx * i;
+            int y = shipRootsY[shipIndex] + direction.dy * i;
+
+            // Each neighbour is given with where the hit is from it, as an index into the neighbour offsets.
+            count = addFrontierCell(x - 1, y, 1, intCells, longCells, count);
+            count = addFrontierCell(x + 1, y, 0, intCells, longCells, count);
+            count = addFrontierCell(x, y - 1, 3, intCells, longCells, count);
+            count = addFrontierCell(x, y + 1, 2, intCells, longCells, count);
+        }
+
+        return count;
+    }
+
+    /**
+     * Add a square to the frontier if it is on the board and hasn't been fired at.
+     * A square next to several damaged hits is only added from the first of them in the order of the neighbour offsets,
+     * so it is added once without searching the frontier.
+     * @param hitNeighbour Index of the neighbour offset that leads from the square to the hit it was found from.
+     */
+    private int addFrontierCell(int x, int y, int hitNeighbour, int[] intCells, long[] longCells, int count){
+        int capacity = intCells != null ? intCells.length : longCells.length;
+        if(count == capacity || x < 0 || x >= width || y < 0 || y >= height
+                || getSquareState(x, y) != BoardSquare.BoardSquareState.NOTHING)
+            return count;
+
+        for(int i = 0; i < hitNeighbour; i++)
+            if(isDamagedHit(x + NEIGHBOUR_DX[i], y + NEIGHBOUR_DY[i])) return count;
+
+        long cell = (long) y * width + x;
+        if(intCells != null)
+            intCells[count] = (int) cell;
+        else longCells[count] = cell;
+
+        return count + 1;
+    }
+
+    /**
+     * Determine if a square has been hit and the ship on it hasn't been destroyed.
+     */
+    protected boolean isDamagedHit(int x, int y){
+        if(x < 0 || x >= width || y < 0 || y >= height || getSquareState(x, y) != BoardSquare.BoardSquareState.HIT)
+            return false;
+
+        // A hit ship has been damaged, so it is still damaged unless it has been destroyed.
+        return !getShip(x, y).isShipDestroyed();
+    }
+
+    /**
+     * Bring the ship's place among the damaged ships up to date, after one of its nodes has been destroyed or repaired.
+     * @param shipIndex Index of the ship.
+     */
+    protected void updateDamage(int shipIndex){
+        Ship ship = ships[shipIndex];
+        boolean damaged = !ship.isShipDestroyed() && ship.getRemainingHealth() < ship.getLength();
+        int position = damagedPositions[shipIndex];
+
+        if(damaged && position < 0){
+            damagedShips[damagedCount] = shipIndex;
+            damagedPositions[shipIndex] = damagedCount++;
+        } else if(!damaged && position >= 0){
+            // Move the last damaged ship into the gap.
+            int last = damagedShips[--damagedCount];
+            damagedShips[position] = last;
+            damagedPositions[last] = position;
+            damagedPositions[shipIndex] = -1;
+        }
+    }
+
+    /**
+     * Clear every shot and place every ship at a new random position, so the board can be used for another game
+     * without building a new one. Ships that were added at a chosen position are placed at random too.
+     * Nothing is allocated after the first reset, and the board must not be fired at while it is being reset.
+     * @param random Source of the random ship placements.
+     * @throws IllegalStateException If there is no room left on the board for a ship, in which case the board is left as it was.
+     */
+    public void reset(RandomSource random){
+        long startTime = GameMetrics.ENABLED ? System.nanoTime() : 0;
+
+        if(shipPlacer == null){
+            shipPlacer = new ShipPlacer(width, height, random);
+            placedX = new int[ships.length];
+            placedY = new int[ships.length];
+            placedDirections = new Direction[ships.length];
+        } else {
+            shipPlacer.setRandomSource(random);
+            shipPlacer.clear();
+        }
+
+        // Place the ships in the order they were added, as the builder does.
+        // Nothing on the board changes until every ship has a place, so a fleet that doesn't fit leaves the game as it was.
+        for(int shipIndex = 0; shipIndex < ships.length; shipIndex++){
+            shipPlacer.place(ships[shipIndex].getLength());
+
+            placedX[shipIndex] = shipPlacer.getPlacedX();
+            placedY[shipIndex] = shipPlacer.getPlacedY();
+            placedDirections[shipIndex] = shipPlacer.getPlacedDirection();
+        }
+
+        for(int shipIndex = 0; shipIndex < ships.length; shipIndex++)
+            ships[shipIndex].reset();
+
+        System.arraycopy(placedX, 0, shipRootsX, 0, ships.length);
+        System.arraycopy(placedY, 0, shipRootsY, 0, ships.length);
+        System.arraycopy(placedDirections, 0, shipDirections, 0, ships.length);
+
+        finishReset(startTime);
+    }
+
+    /**
+     * Clear every shot and place every ship where the ship added at the same position is on another board,
+     * so the same layout can be played again, e.g. by each strategy of a tournament, without building a new board.
+     * Only the layout is copied, the shots fired at the other board are not. Nothing is allocated.
+     * @param layout Board to copy the ship positions from, it isn't changed.
+     * @throws IllegalArgumentException If the other board has a different size or fleet.
+     */
+    public void reset(Board layout){
+        long startTime = GameMetrics.ENABLED ? System.nanoTime() : 0;
+
+        if(layout.width != width || layout.height != height || layout.ships.length != ships.length)
+            throw new IllegalArgumentException(String.format("Can't copy the layout of a %dx%d board with %d ships to a %dx%d board with %d ships",
+                    layout.width, layout.height, layout.ships.length, width, height, ships.length));
+
+        for(int shipIndex = 0; shipIndex < ships.length; shipIndex++)
+            if(layout.ships[shipIndex].getShipType() != ships[shipIndex].getShipType())
+                throw new IllegalArgumentException(String.format("Ship %d is a %s on the layout but a %s on this board",
+                        shipIndex, layout.ships[shipIndex].getShipType(), ships[shipIndex].getShipType()));
+
+        for(int shipIndex = 0; shipIndex < ships.length; shipIndex++)
+            ships[shipIndex].reset();
+
+        System.arraycopy(layout.shipRootsX, 0, shipRootsX, 0, ships.length);
+        System.arraycopy(layout.shipRootsY, 0, shipRootsY, 0, ships.length);
+        System.arraycopy(layout.shipDirections, 0, shipDirections, 0, ships.length);
+
+        // The placer no longer matches the ships, it is cleared before the next random reset.
+        finishReset(startTime);
+    }
+
+    /**
+     * Clear the squares, the undo log and the damaged ships once the ships have been given their new positions, and record the time the reset took.
+     */
+    private void finishReset(long startTime){
+        commit();
+
+        while(damagedCount > 0)
+            damagedPositions[damagedShips[--damagedCount]] = -1;
+
+        this.shipsAlive = ships.length;
+        resetSquares();
+
+        if(events != null)
+            events.startGame();
+
+        for(int y = 0; y < height; y++)
+            markRowChanged(y);
+
+        if(GameMetrics.ENABLED)
+            GameMetrics.recordLayout(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Clear the state of every square and place the ships at their current positions.
+     */
+    protected abstract void resetSquares();
+
+    /**
+     * Copy the board, with the same ships and shots, so a branch of a search can be played on it without changing this board.
+     * The copy is independent of this board from then on. For a search that plays one branch at a time,
+     * {@link #mark()} and {@link #rollback(int)} are cheaper still.
+     * @return Copy of the board, built with the same engine.
+     */
+    public abstract Board fork();
+
+    /**
+     * Start recording the squares fired at, if it hasn't started already, and mark how far the recording has got.
+     * Rolling back to the mark undoes every shot fired after it. Marks can be nested, as long as each is rolled back
+     * before the marks taken ahead of it. The recording goes on until {@link #commit()} or a reset,
+     * and the first mark allocates the log, after which nothing is allocated unless a huge board needs it to grow.
+     * While recording, the board must only be used by one thread at a time, whatever its engine.
+     * @return Mark to roll back to.
+     */
+    public int mark(){
+        if(undoLog == null)
+            undoLog = new long[(int) Math.min((long) width * height, INITIAL_UNDO_CAPACITY)];
+
+        recordingUndo = true;
+        return undoLength;
+    }
+
+    /**
+     * Undo every shot fired since the mark was taken, latest first, so the board is as it was at the mark.
+     * @param mark Mark returned by {@link #mark()}.
+     * @throws IllegalStateException If no mark has been taken since the board was last committed or reset.
+     * @throws IllegalArgumentException If the mark has already been rolled past.
+     */
+    public void rollback(int mark){
+        if(!recordingUndo)
+            throw new IllegalStateException("There is no mark to roll back to");
+        if(mark < 0 || mark > undoLength)
+            throw new IllegalArgumentException("Mark " + mark + " has already been rolled back past, the log is at " + undoLength);
+
+        while(undoLength > mark){
+            long cell = undoLog[--undoLength];
+            int y = (int) (cell / width);
+
+            unfire((int) (cell - (long) y * width), y);
+            markRowChanged(y);
+        }
+    }
+
+    /**
+     * Keep every shot fired since the first mark and stop recording them, so marks can no longer be rolled back to.
+     */
+    public void commit(){
+        recordingUndo = false;
+        undoLength = 0;
+    }
+
+    /**
+     * Record that a square has changed from not being fired at, so the shot can be undone by a rollback.
+     * @param cell Cell of the square, where cell = y * width + x.
+     */
+    protected final void recordFired(long cell){
+        if(!recordingUndo)
+            return;
+
+        if(undoLength == undoLog.length)
+            undoLog = Arrays.copyOf(undoLog, undoLength * 2);
+
+        undoLog[undoLength++] = cell;
+    }
+
+    /**
+     * Put a square back to not being fired at, repairing the ship node on it if it was hit, in the way the engine stores it.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     */
+    protected abstract void unfire(int x, int y);
+
     /**
      * Get the Record at the specific index.
      * @param index Index for the Row.
      * @return Array of BoardSquares for that row.
      */
-    public BoardSquare[] getRow(int index){
-        BoardSquare[] row = new BoardSquare[this.width];
+    public abstract BoardSquare[] getRow(int index);
 
-        for(int i = 0; i < this.width; i++){
-            row[i] = boardSquareGrid[i][index];
+    /**
+     * Get the state of a single square, without building the row it is on.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     * @return State of the square.
+     */
+    public abstract BoardSquare.BoardSquareState getSquareState(int x, int y);
+
+    /**
+     * Get the version of a row, which changes each time a square in the row changes state.
+     * Comparing versions shows which rows have changed since they were last read.
+     * @param index Index for the Row.
+     * @return Version of the row.
+     */
+    public int getRowVersion(int index){
+        return rowVersions[index];
+    }
+
+    /**
+     * Record that a square in the row has changed state.
+     * @param index Index for the Row.
+     */
+    protected void markRowChanged(int index){
+        rowVersions[index]++;
+    }
+
+    /**
+     * Get the engine that is storing the state of this board.
+     * @return Engine of the board.
+     */
+    public abstract Engine getEngine();
+
+    /**
+     * Get the number of squares on the board, for an engine that stores every square.
+     * @return Number of squares, which fits in an int.
+     * @throws IllegalArgumentException If the board has too many squares for the engine, which should be SPARSE instead.
+     */
+    protected final int getDenseCellCount(){
+        long cells = (long) width * height;
+        if(cells > MAX_DENSE_CELLS)
+            throw new IllegalArgumentException(String.format(
+                    "A %dx%d board has too many squares for the %s engine, build it with the SPARSE engine instead", width, height, getEngine()));
+
+        return (int) cells;
+    }
+
+    /**
+     * Check that every cell of the board fits in an int, for the methods that take or give cells as ints.
+     * @throws IllegalStateException If the board has more squares than an int can address.
+     */
+    protected final void checkIntCells(){
+        if((long) width * height > Integer.MAX_VALUE)
+            throw new IllegalStateException(String.format("The cells of a %dx%d board don't fit in an int", width, height));
+    }
+
+    /**
+     * Check that every cell of a volley is on the board.
+     * @param cells Cells of the squares.
+     * @param count Number of cells in the volley.
+     * @throws IndexOutOfBoundsException If a cell is off the board.
+     */
+    protected void checkCells(int[] cells, int count){
+        long cellCount = (long) width * height;
+
+        for(int i = 0; i < count; i++)
+            if(cells[i] < 0 || cells[i] >= cellCount)
+                throw new IndexOutOfBoundsException(String.format("Cell %d is off the %dx%d board", cells[i], width, height));
+    }
+
+    /**
+     * Record the results of a volley with the metrics.
+     * @param results Ordinals of the results of the shots.
+     * @param count Number of shots in the volley.
+     * @param won True if the volley destroyed the last ship alive.
+     */
+    protected void recordBatch(byte[] results, int count, boolean won){
+        int hits = 0;
+        int misses = 0;
+
+        for(int i = 0; i < count; i++){
+            if(results[i] == ShotResult.HIT.ordinal()) hits++;
+            else if(results[i] == ShotResult.MISS.ordinal()) misses++;
         }
 
-        return row;
+        int destroyed = count - hits - misses;
+        GameMetrics.recordShots(hits, misses, destroyed, won);
+    }
+
+    /**
+     * Check that the position is on the board.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     * @throws IndexOutOfBoundsException If the position is off the board.
+     */
+    protected void checkBounds(int x, int y){
+        if(x < 0 || x >= width || y < 0 || y >= height)
+            throw new IndexOutOfBoundsException(String.format("(%d, %d) is off the %dx%d board", x, y, width, height));
+    }
+
+    /**
+     * Get the position of the square along the ship, this is the index of the ship node at that square.
+     * @param shipIndex Index of the ship.
+     * @param x X position of the square, must be occupied by the ship.
+     * @param y Y position of the square, must be occupied by the ship.
+     * @return Position of the square along the ship (zero based).
+     */
+    protected int getShipNodePosition(int shipIndex, int x, int y){
+        return Math.abs(x - shipRootsX[shipIndex]) + Math.abs(y - shipRootsY[shipIndex]);
     }
 
 
     /**
      * Directions that a ship can point on the board.
      */
-    private enum Direction {NORTH, EAST, SOUTH, WEST}
+    public enum Direction {
+        NORTH(0, 1), EAST(1, 0), SOUTH(0, -1), WEST(-1, 0);
+
+        final int dx;
+        final int dy;
+
+        Direction(int dx, int dy){
+            this.dx = dx;
+            this.dy = dy;
+        }
+    }
 
     /**
      * Constructs the Board object.
@@ -144,14 +855,17 @@ public class Board {
     public static class BoardBuilder{
         private int width;
         private int height;
-        private int shipsAlive;
+        private Engine engine;
+
+        private List<Ship> ships;
+        private int[] shipRootsX;
+        private int[] shipRootsY;
+        private Direction[] shipDirections;
 
-        private List<Point[]> shipPoints;
-        private BoardSquare[][] boardSquareGrid;
+        private ShipPlacer shipPlacer;
 
-        Random randomX = new Random();
-        Random randomY = new Random();
-        Random randomDirection = new Random();
+        // Time spent placing the ships, recorded with the metrics once the board is built.
+        private long layoutTime;
 
         /**
          * @param width How long the Board should be on the X axis.
@@ -160,184 +874,124 @@ public class Board {
         public BoardBuilder(int width, int height){
             this.width = width;
             this.height = height;
-            this.shipsAlive = 0;
-            this.shipPoints = new ArrayList<Point[]>();
-
-            // Setup the board square boardSquareGrid and populated each position.
-            this.boardSquareGrid = new BoardSquare[width][height];
-
-            for (int x = 0; x < width; x++){
-                for(int y = 0; y < height; y++){
-                    this.boardSquareGrid[x][y] = new BoardSquare();
-                }
-            }
+            this.engine = Engine.GRID;
+            this.ships = new ArrayList<Ship>();
+            this.shipRootsX = new int[4];
+            this.shipRootsY = new int[4];
+            this.shipDirections = new Direction[4];
+            this.shipPlacer = new ShipPlacer(width, height, RandomSource.threadLocal());
         }
 
         /**
-         * Build and return the Board.
-         * @return Constructed Board.
+         * Set the engine the board will be built with. Defaults to GRID.
+         * @param engine Engine to store the board state with.
          */
-        public Board build(){
-            return new Board(this);
+        public BoardBuilder setEngine(Engine engine){
+            this.engine = engine;
+            return this;
         }
 
         /**
-         * Add a ship to the boards. The ship will be placed in a random position.
-         * @param shipType Ship to add to the boards.
+         * Seed the placement of the ships, so the same seed and fleet always produces the same layout.
+         * This should be set before any ships are added.
+         * @param seed Seed for the ship placements.
          */
-        public BoardBuilder addShip(ShipType shipType){
-            // Create the ship based off the ship type.
-            Ship ship = new Ship(shipType);
-
-            // Get the root position for the ship.
-            Point rootPosition = getRootPosition(ship);
-
-            // Get the direction the ship is to face.
-            Direction direction = getShipDirection(rootPosition, ship);
-
-            // Place the ship on the board.
-            Point[] points = getShipPoints(rootPosition, ship, direction);
-
-            for(int i = 0; i < points.length; i++) {
-                Point shipPoint = points[i];
-                BoardSquare boardSquare = this.boardSquareGrid[shipPoint.x][shipPoint.y];
-                boardSquare.setShipNode(ship.getShipNode(i));
-            }
-
-            // Add the ships to the ship points so we can tracck the position of the ships.
-            shipPoints.add(points);
-
-            // Increment the ships count.
-            this.shipsAlive++;
-
-            return this;
+        public BoardBuilder setSeed(long seed){
+            return setRandomSource(RandomSource.seeded(seed));
         }
 
         /**
-         * Returns a valid root position that's not already populated.
-         * @return Position of the root node.
+         * Set the source of the random ship placements. Defaults to an unseeded thread local source.
+         * This should be set before any ships are added.
+         * @param randomSource Source of the random ship placements.
          */
-        private Point getRootPosition(Ship ship){
-            // Determine the root node.
-            Point rootPoint = new Point(randomX.nextInt(width), randomY.nextInt(height));
-
-            // Determine if the node is already populated, and that at least one direction is free.
-            // If the node isn't valid make a recursive call to generate new root node.
-            // The recursion will stop once a valid node has been found.
-            if(isSquarePopulated(rootPoint)
-                || (isDirectionObstructed(rootPoint, ship, Direction.NORTH)
-                    && isDirectionObstructed(rootPoint, ship, Direction.EAST)
-                    && isDirectionObstructed(rootPoint, ship, Direction.SOUTH)
-                    && isDirectionObstructed(rootPoint, ship, Direction.WEST)))
-                return getRootPosition(ship);
-            else return rootPoint;
+        public BoardBuilder setRandomSource(RandomSource randomSource){
+            this.shipPlacer.setRandomSource(randomSource);
+            return this;
         }
 
         /**
-         * Generates as random direction for the ship
-         * @param rootPoint Starting Point for the Ship
-         * @param ship The ship intended to be placed
-         * @return Random direction to place ship.
+         * Build and return the Board.
+         * @return Constructed Board.
          */
-        private Direction getShipDirection(Point rootPoint, Ship ship){
-            Direction direction = Direction.values()[randomDirection.nextInt(4)];
+        public Board build(){
+            if(!GameMetrics.ENABLED)
+                return buildEngine();
 
-            if(isDirectionObstructed(rootPoint, ship, direction))
-                return getShipDirection(rootPoint, ship);
-            else return direction;
+            long startTime = System.nanoTime();
+            Board board = buildEngine();
+            GameMetrics.recordLayout(layoutTime + System.nanoTime() - startTime);
+
+            return board;
+        }
+
+        private Board buildEngine(){
+            switch (engine){
+                case BITBOARD:
+                    return new BitBoard(this);
+                case CONCURRENT:
+                    return new ConcurrentBoard(this);
+                case SPARSE:
+                    return new SparseBoard(this);
+                default:
+                    return new GridBoard(this);
+            }
         }
 
         /**
-         * Check if the direction the ship is to be placed is obstructed.
-         * i.e. Off the boards, or if another ship is in place.
-         * @param rootPoint
-         * @param ship
-         * @param direction
-         * @return
+         * Add a ship to the boards. The ship will be placed in a random position.
+         * @param shipType Ship to add to the boards.
+         * @throws IllegalStateException If there is no room left on the board for the ship.
          */
-        private boolean isDirectionObstructed(Point rootPoint, Ship ship, Board.Direction direction){
-            // Check if this direction will put us off the boards.
-            if(isDirectionOffTheBoard(rootPoint, ship, direction)) return true;
+        public BoardBuilder addShip(ShipType shipType){
+            long startTime = GameMetrics.ENABLED ? System.nanoTime() : 0;
 
-            // Check if all the cells in that specific direction are free.
-            Point[] points = getShipPoints(rootPoint, ship, direction);
-            for(Point point : points)
-                if(isSquarePopulated(point)) return true;
+            // Create the ship based off the ship type.
+            Ship ship = new Ship(shipType);
 
-            // Validation of the direction has passed so return false.
-            return false;
-        }
+            // Choose a position for the ship, this will fail if the board is already full.
+            shipPlacer.place(ship.getLength());
 
-        /**
-         * Check if the direction the ship is to be placed puts it off the boards.
-         * @param rootPoint Start point for the ship.
-         * @param ship The ship intended to be placed.
-         * @param direction The direction the ship it to point.
-         * @return True is the direction would put the ship off the boards, else false.
-         */
-        private boolean isDirectionOffTheBoard(Point rootPoint, Ship ship, Board.Direction direction){
-            // Calculate if the rootPoint +/- the ship length puts the ship of the boards.
-            boolean isDirectionOffTheBoard = false;
-
-            switch (direction){
-                case NORTH:
-                    isDirectionOffTheBoard = rootPoint.y + (ship.getLength() - 1) > height - 1;
-                    break;
-                case EAST:
-                    isDirectionOffTheBoard = rootPoint.x + (ship.getLength() - 1) > width - 1;
-                    break;
-                case SOUTH:
-                    isDirectionOffTheBoard = rootPoint.y - (ship.getLength() - 1) < 0;
-                    break;
-                case WEST:
-                    isDirectionOffTheBoard = rootPoint.x - (ship.getLength() - 1) < 0;
-                    break;
-            }
+            if(GameMetrics.ENABLED)
+                layoutTime += System.nanoTime() - startTime;
 
-            // Direction isn't off the boards, so return false.
-            return isDirectionOffTheBoard;
+            // Record the placement so the board can position the ship.
+            recordPlacement(ship);
+            return this;
         }
 
         /**
-         * Get all the points on the boards that the ship will be placed on.
-         * @param rootPoint Start point for the ship.
-         * @param ship The ship intended to be placed.
-         * @param direction The direction the ship it to point.
-         * @return All the points the ship is intended to be placed at.
+         * Add a ship to the boards at a chosen position, e.g. to rebuild a board that was saved.
+         * @param shipType Ship to add to the boards.
+         * @param x X position of the root of the ship.
+         * @param y Y position of the root of the ship.
+         * @param direction The direction the ship points from its root.
+         * @throws IllegalStateException If the ship would go off the board or overlap another ship.
          */
-        private Point[] getShipPoints(Point rootPoint, Ship ship, Direction direction){
-            Point[] points = new Point[ship.getLength()];
-            int pointCount = 0;
-
-            switch (direction){
-                case NORTH:
-                    for(int i = 0, y = rootPoint.y; i < ship.getLength(); i++, y++)
-                        points[i] = new Point(rootPoint.x, y);
-                    break;
-                case EAST:
-                    for(int i = 0, x = rootPoint.x; i < ship.getLength(); i++, x++)
-                        points[i] = new Point(x, rootPoint.y);
-                    break;
-                case SOUTH:
-                    for(int i = 0, y = rootPoint.y; i < ship.getLength(); i++, y--)
-                        points[i] = new Point(rootPoint.x, y);
-                    break;
-                case WEST:
-                    for(int i = 0, x = rootPoint.x; i < ship.getLength(); i++, x--)
-                        points[i] = new Point(x, rootPoint.y);
-                    break;
-            }
+        public BoardBuilder addShip(ShipType shipType, int x, int y, Direction direction){
+            Ship ship = new Ship(shipType);
 
-            return points;
+            shipPlacer.placeAt(x, y, direction, ship.getLength());
+
+            recordPlacement(ship);
+            return this;
         }
 
         /**
-         * Determine if a point on the board has a ship.
-         * @param point X and Y position.
-         * @return True if populated, else false.
+         * Record the position the ship placer chose, so the board can position the ship.
          */
-        private boolean isSquarePopulated(Point point){
-            return this.boardSquareGrid[point.x][point.y].hasShipNode();
+        private void recordPlacement(Ship ship){
+            int index = ships.size();
+            if(index == shipDirections.length){
+                shipRootsX = Arrays.copyOf(shipRootsX, index * 2);
+                shipRootsY = Arrays.copyOf(shipRootsY, index * 2);
+                shipDirections = Arrays.copyOf(shipDirections, index * 2);
+            }
+
+            shipRootsX[index] = shipPlacer.getPlacedX();
+            shipRootsY[index] = shipPlacer.getPlacedY();
+            shipDirections[index] = shipPlacer.getPlacedDirection();
+            ships.add(ship);
         }
     }
 }
@@ -0,0 +1,91 @@
+package com.callumgeorge.onesidedbattleships.boards;
+
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps boards that have finished their games so they can be reset for new ones, rather than built again.
+ * There is one pool for each board size, engine and fleet, and each thread keeps its own boards in the pool,
+ * so acquiring and releasing never contend or allocate once the thread has as many boards as it uses at once.
+ */
+public final class BoardPool {
+
+    private static final Map<List<Object>, BoardPool> POOLS = new ConcurrentHashMap<>();
+
+    private final int width;
+    private final int height;
+    private final Board.Engine engine;
+    private final ShipType[] fleet;
+
+    private final ThreadLocal<ArrayDeque<Board>> freeBoards = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private BoardPool(int width, int height, Board.Engine engine, ShipType[] fleet){
+        this.width = width;
+        this.height = height;
+        this.engine = engine;
+        this.fleet = fleet;
+    }
+
+    /**
+     * Get the pool of boards with a size, engine and fleet. This should be called once and the pool kept,
+     * as finding it allocates.
+     * @param width Width of the boards.
+     * @param height Height of the boards.
+     * @param engine Engine to store the board state with.
+     * @param fleet Ships to add to each board, in the order they are added.
+     * @return Pool shared by every caller asking for the same boards.
+     */
+    public static BoardPool of(int width, int height, Board.Engine engine, ShipType[] fleet){
+        List<Object> key = Arrays.asList(width, height, engine, Arrays.asList(fleet.clone()));
+        return POOLS.computeIfAbsent(key, k -> new BoardPool(width, height, engine, fleet.clone()));
+    }
+
+    /**
+     * Get a board with every ship at a new random position and no shots fired.
+     * A board released by this thread is reset if there is one, else a new board is built.
+     * @param random Source of the random ship placements.
+     * @return Board ready for a new game.
+     * @throws IllegalStateException If there is no room on the board for the fleet.
+     */
+    public Board acquire(RandomSource random){
+        Board board = freeBoards.get().pollFirst();
+
+        if(board == null){
+            Board.BoardBuilder builder = new Board.BoardBuilder(width, height)
+                    .setEngine(engine)
+                    .setRandomSource(random);
+
+            for(ShipType shipType : fleet)
+                builder.addShip(shipType);
+
+            return builder.build();
+        }
+
+        board.reset(random);
+        return board;
+    }
+
+    /**
+     * Return a board to the pool once its game is over. The board must not be used after it is released.
+     * @param board Board acquired from this pool.
+     * @throws IllegalArgumentException If the board has a different size, engine or fleet to the pool.
+     */
+    public void release(Board board){
+        if(board.getWidth() != width || board.getHeight() != height || board.getEngine() != engine
+                || board.getShipCount() != fleet.length)
+            throw new IllegalArgumentException("The board was not acquired from this pool");
+
+        // A board with the same number of ships of other types would be handed out as this pool's fleet.
+        for(int shipIndex = 0; shipIndex < fleet.length; shipIndex++)
+            if(board.getShipType(shipIndex) != fleet[shipIndex])
+                throw new IllegalArgumentException("The board was not acquired from this pool");
+
+        freeBoards.get().addFirst(board);
+    }
+}
@@ -0,0 +1,393 @@
+package com.callumgeorge.onesidedbattleships.boards;
+
+import com.callumgeorge.onesidedbattleships.ships.Ship;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Compact binary encoding of a board, so a game can be saved and restored part way through.
+ * <p>
+ * A snapshot is laid out as:
+ * <pre>
+ *   int    magic "OSBS"
+ *   byte   format version
+ *   byte   engine
+ *   int    length of the snapshot in bytes
+ *   int    width
+ *   int    height
+ *   short  ship type count
+ *   per ship type: short name length, UTF-8 name, int ship length
+ *   int    ship count
+ *   per ship: short index of its ship type, int root square (y * width + x), byte direction
+ *   2 bits per square in row order: 0 not fired at, 1 hit, 2 miss
+ * </pre>
+ * Ship types are saved by name, so types loaded from a fleet config are registered again when the board is restored.
+ * A snapshot is checked in full before any of its ship types are registered, so a corrupt one changes nothing.
+ * A 10x10 board with a battleship and two destroyers takes 101 bytes, and boards of up to 2^31 - 1 squares can be saved.
+ */
+public final class BoardSnapshot {
+
+    private static final int MAGIC = 0x4F534253;
+    private static final byte VERSION = 2;
+
+    // Enough of the header to find the length of the snapshot.
+    private static final int PREFIX_LENGTH = 10;
+    private static final int SHIP_LENGTH = 7;
+
+    private static final int STATE_HIT = 1;
+    private static final int STATE_MISS = 2;
+
+    // Most squares a board can have to be saved, so every cell fits in an int.
+    private static final long MAX_CELLS = Integer.MAX_VALUE;
+
+    private static final Board.Engine[] ENGINES = Board.Engine.values();
+    private static final Board.Direction[] DIRECTIONS = Board.Direction.values();
+
+    private BoardSnapshot(){
+    }
+
+    /**
+     * Get the number of bytes the snapshot of a board takes.
+     * @param board Board to measure.
+     * @return Length of the snapshot.
+     * @throws IllegalArgumentException If the board has too many squares to be saved.
+     */
+    public static int getLength(Board board){
+        long cells = (long) board.width * board.height;
+        if(cells > MAX_CELLS)
+            throw new IllegalArgumentException(String.format("A %dx%d board has too many squares to be saved", board.width, board.height));
+
+        long typesLength = 2;
+        for(ShipType shipType : getShipTypes(board))
+            typesLength += 2 + shipType.name().getBytes(StandardCharsets.UTF_8).length + 4;
+
+        long length = PREFIX_LENGTH + 8 + typesLength + 4 + (long) board.ships.length * SHIP_LENGTH + (cells + 3) / 4;
+        if(length > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(String.format("The snapshot of a %dx%d board would be too large", board.width, board.height));
+
+        return (int) length;
+    }
+
+    /**
+     * Write a snapshot of the board to the buffer, starting at its position.
+     * @param board Board to save.
+     * @param buffer Buffer to write to, the position is moved past the snapshot.
+     * @throws java.nio.BufferOverflowException If the snapshot doesn't fit in the buffer.
+     * @throws IllegalArgumentException If the board has too many squares to be saved.
+     */
+    public static void write(Board board, ByteBuffer buffer){
+        ShipType[] shipTypes = getShipTypes(board);
+
+        buffer.putInt(MAGIC)
+                .put(VERSION)
+                .put((byte) board.getEngine().ordinal())
+                .putInt(getLength(board))
+                .putInt(board.width)
+                .putInt(board.height)
+                .putShort((short) shipTypes.length);
+
+        for(ShipType shipType : shipTypes){
+            byte[] name = shipType.name().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) name.length)
+                    .put(name)
+                    .putInt(shipType.getLength());
+        }
+
+        buffer.putInt(board.ships.length);
+        for(int shipIndex = 0; shipIndex < board.ships.length; shipIndex++){
+            buffer.putShort((short) indexOf(shipTypes, board.ships[shipIndex].getShipType()))
+                    .putInt(board.shipRootsY[shipIndex] * board.width + board.shipRootsX[shipIndex])
+                    .put((byte) board.shipDirections[shipIndex].ordinal());
+        }
+
+        // Pack four squares into each byte.
+        long cells = (long) board.width * board.height;
+        for(long cell = 0; cell < cells; cell += 4){
+            int packed = 0;
+
+            for(int i = 0; i < 4 && cell + i < cells; i++)
+                packed |= getStateBits(board.getCellState((int) (cell + i))) << (i * 2);
+
+            buffer.put((byte) packed);
+        }
+    }
+
+    /**
+     * Save the board to a byte array.
+     * @param board Board to save.
+     * @return Snapshot of the board.
+     */
+    public static byte[] toBytes(Board board){
+        byte[] snapshot = new byte[getLength(board)];
+        write(board, ByteBuffer.wrap(snapshot));
+        return snapshot;
+    }
+
+    /**
+     * Write a snapshot of the board to the channel, starting at its position.
+     * @param board Board to save.
+     * @param channel Channel to write to.
+     * @throws IOException If the channel fails.
+     */
+    public static void write(Board board, FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(toBytes(board));
+
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Restore a board from the snapshot at the position of the buffer.
+     * The board is built with the engine it was saved from, and every square is fired at again.
+     * @param buffer Buffer to read from, the position is moved past the snapshot.
+     * @return Restored board.
+     * @throws IllegalArgumentException If the buffer does not hold a valid snapshot.
+     */
+    public static Board read(ByteBuffer buffer){
+        if(buffer.remaining() < PREFIX_LENGTH || buffer.getInt() != MAGIC)
+            throw new IllegalArgumentException("Not a board snapshot");
+
+        byte version = buffer.get();
+        if(version != VERSION)
+            throw new IllegalArgumentException("Unsupported board snapshot version " + version);
+
+        Board.Engine engine = ENGINES[checkIndex(buffer.get(), ENGINES.length, "engine")];
+        int length = buffer.getInt();
+
+        if(length < PREFIX_LENGTH || buffer.remaining() < length - PREFIX_LENGTH)
+            throw new IllegalArgumentException("Board snapshot is truncated");
+
+        // Read from a view of just this snapshot, so a corrupt snapshot can't read into whatever follows it.
+        ByteBuffer snapshot = buffer.slice();
+        snapshot.limit(length - PREFIX_LENGTH);
+        buffer.position(buffer.position() + length - PREFIX_LENGTH);
+
+        try {
+            return read(snapshot, engine);
+        } catch (BufferUnderflowException | IllegalStateException e){
+            throw new IllegalArgumentException("Board snapshot is corrupt", e);
+        }
+    }
+
+    /**
+     * Restore a board from a byte array.
+     * @param snapshot Snapshot of the board.
+     * @return Restored board.
+     * @throws IllegalArgumentException If the array does not hold a valid snapshot.
+     */
+    public static Board fromBytes(byte[] snapshot){
+        return read(ByteBuffer.wrap(snapshot));
+    }
+
+    /**
+     * Restore a board from the snapshot at the position of the channel.
+     * @param channel Channel to read from, the position is moved past the snapshot.
+     * @return Restored board.
+     * @throws IOException If the channel fails or ends part way through the snapshot.
+     * @throws IllegalArgumentException If the channel does not hold a valid snapshot.
+     */
+    public static Board read(FileChannel channel) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(PREFIX_LENGTH);
+        readFully(channel, prefix);
+
+        int length = prefix.getInt(6);
+        if(prefix.getInt(0) != MAGIC || length < PREFIX_LENGTH)
+            throw new IllegalArgumentException("Not a board snapshot");
+
+        // Read the rest of the snapshot now that its length is known.
+        ByteBuffer snapshot = ByteBuffer.allocate(length);
+        prefix.flip();
+        snapshot.put(prefix);
+        readFully(channel, snapshot);
+
+        snapshot.flip();
+        return read(snapshot);
+    }
+
+    /**
+     * Restore a board from the body of a snapshot, which follows the length.
+     * Everything is checked before the board is built or any ship type is registered.
+     */
+    private static Board read(ByteBuffer snapshot, Board.Engine engine){
+        int width = snapshot.getInt();
+        int height = snapshot.getInt();
+        long cells = (long) width * height;
+        if(width <= 0 || height <= 0 || cells > MAX_CELLS)
+            throw new IllegalArgumentException("Board snapshot has an invalid size " + width + "x" + height);
+
+        String[] typeNames = new String[snapshot.getShort() & 0xFFFF];
+        int[] typeLengths = new int[typeNames.length];
+        for(int i = 0; i < typeNames.length; i++){
+            byte[] name = new byte[snapshot.getShort() & 0xFFFF];
+            snapshot.get(name);
+            typeNames[i] = new String(name, StandardCharsets.UTF_8);
+            typeLengths[i] = snapshot.getInt();
+
+            if(typeNames[i].trim().isEmpty() || Arrays.asList(typeNames).subList(0, i).contains(typeNames[i]))
+                throw new IllegalArgumentException("Board snapshot has a blank or repeated ship type name '" + typeNames[i] + "'");
+            if(typeLengths[i] <= 0 || typeLengths[i] > Math.max(width, height))
+                throw new IllegalArgumentException("Board snapshot has an invalid length " + typeLengths[i] + " for " + typeNames[i]);
+        }
+
+        int shipCount = snapshot.getInt();
+        if(shipCount < 0 || shipCount > snapshot.remaining() / SHIP_LENGTH)
+            throw new IllegalArgumentException("Board snapshot has an invalid ship count " + shipCount);
+
+        int[] shipTypeIndexes = new int[shipCount];
+        int[] shipRoots = new int[shipCount];
+        Board.Direction[] shipDirections = new Board.Direction[shipCount];
+        Set<Integer> occupied = new HashSet<>();
+
+        for(int i = 0; i < shipCount; i++){
+            shipTypeIndexes[i] = checkIndex(snapshot.getShort() & 0xFFFF, typeNames.length, "ship type");
+            shipRoots[i] = snapshot.getInt();
+            shipDirections[i] = DIRECTIONS[checkIndex(snapshot.get(), DIRECTIONS.length, "direction")];
+
+            occupy(occupied, shipRoots[i], shipDirections[i], typeLengths[shipTypeIndexes[i]], width, height);
+        }
+
+        long stateLength = (cells + 3) / 4;
+        if(snapshot.remaining() != stateLength)
+            throw new IllegalArgumentException(String.format("Board snapshot has %d bytes of squares, but a %dx%d board needs %d",
+                    snapshot.remaining(), width, height, stateLength));
+
+        // Count the shots, checking that each landed the way the ships say it should have.
+        int stateStart = snapshot.position();
+        int firedCount = 0;
+
+        for(long cell = 0; cell < cells; cell += 4){
+            int packed = snapshot.get();
+
+            for(int i = 0; i < 4 && cell + i < cells; i++){
+                int state = (packed >>> (i * 2)) & 0b11;
+                if(state == 0)
+                    continue;
+
+                if(state != STATE_HIT && state != STATE_MISS)
+                    throw new IllegalArgumentException("Board snapshot has an unknown square state " + state);
+                if((state == STATE_HIT) != occupied.contains((int) (cell + i)))
+                    throw new IllegalArgumentException("Board snapshot shots don't match its ships");
+
+                firedCount++;
+            }
+        }
+
+        ShipType[] shipTypes = resolveShipTypes(typeNames, typeLengths);
+        Board.BoardBuilder builder = new Board.BoardBuilder(width, height).setEngine(engine);
+
+        for(int i = 0; i < shipCount; i++)
+            builder.addShip(shipTypes[shipTypeIndexes[i]], shipRoots[i] % width, shipRoots[i] / width, shipDirections[i]);
+
+        Board board = builder.build();
+
+        // Gather the squares that were fired at, and replay them in one volley.
+        snapshot.position(stateStart);
+        int[] fired = new int[firedCount];
+        firedCount = 0;
+
+        for(long cell = 0; cell < cells; cell += 4){
+            int packed = snapshot.get();
+
+            for(int i = 0; i < 4 && cell + i < cells; i++)
+                if(((packed >>> (i * 2)) & 0b11) != 0) fired[firedCount++] = (int) (cell + i);
+        }
+
+        board.fireBatch(fired, firedCount, new byte[firedCount], new int[shipCount]);
+        return board;
+    }
+
+    /**
+     * Add the squares of a ship to those occupied, checking it is on the board and doesn't overlap another ship.
+     */
+    private static void occupy(Set<Integer> occupied, int root, Board.Direction direction, int length, int width, int height){
+        if(root < 0 || root >= (long) width * height)
+            throw new IllegalArgumentException("Board snapshot has a ship off the board at " + root);
+
+        int x = root % width;
+        int y = root / width;
+        long endX = x + (long) direction.dx * (length - 1);
+        long endY = y + (long) direction.dy * (length - 1);
+        if(endX < 0 || endX >= width || endY < 0 || endY >= height)
+            throw new IllegalArgumentException("Board snapshot has a ship running off the board from " + root);
+
+        for(int i = 0; i < length; i++)
+            if(!occupied.add((y + direction.dy * i) * width + x + direction.dx * i))
+                throw new IllegalArgumentException("Board snapshot has overlapping ships at " + root);
+    }
+
+    /**
+     * Find the registered ship types for the names, registering any that are new once the rest have been found.
+     */
+    private static ShipType[] resolveShipTypes(String[] names, int[] lengths){
+        ShipType[] shipTypes = new ShipType[names.length];
+
+        for(int i = 0; i < names.length; i++){
+            try {
+                shipTypes[i] = ShipType.valueOf(names[i]);
+            } catch (IllegalArgumentException e){
+                continue;
+            }
+
+            if(shipTypes[i].getLength() != lengths[i])
+                throw new IllegalArgumentException(String.format("Board snapshot has %s with length %d, but it is registered with length %d",
+                        names[i], lengths[i], shipTypes[i].getLength()));
+        }
+
+        for(int i = 0; i < names.length; i++)
+            if(shipTypes[i] == null) shipTypes[i] = ShipType.register(names[i], lengths[i]);
+
+        return shipTypes;
+    }
+
+    /**
+     * Get the distinct types of the ships on the board, in the order they were added.
+     */
+    private static ShipType[] getShipTypes(Board board){
+        ShipType[] shipTypes = new ShipType[board.ships.length];
+        int count = 0;
+
+        for(Ship ship : board.ships)
+            if(indexOf(shipTypes, ship.getShipType()) < 0) shipTypes[count++] = ship.getShipType();
+
+        return Arrays.copyOf(shipTypes, count);
+    }
+
+    private static int indexOf(ShipType[] shipTypes, ShipType shipType){
+        for(int i = 0; i < shipTypes.length; i++)
+            if(shipTypes[i] == shipType) return i;
+
+        return -1;
+    }
+
+    private static int getStateBits(BoardSquare.BoardSquareState state){
+        switch (state){
+            case HIT:
+                return STATE_HIT;
+            case MISS:
+                return STATE_MISS;
+            default:
+                return 0;
+        }
+    }
+
+    private static int checkIndex(int value, int count, String name){
+        if(value < 0 || value >= count)
+            throw new IllegalArgumentException("Board snapshot has an unknown " + name + " " + value);
+
+        return value;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining())
+            if(channel.read(buffer) < 0) throw new EOFException("Board snapshot is truncated");
+    }
+}
@@ -15,6 +15,9 @@ public class BoardSquare {
     private Ship.ShipNode shipNode;
     private BoardSquareState state;
 
+    // Index of the ship on the square of a GRID board, so the board can find the ship's index without searching for it.
+    int shipIndex;
+
     public BoardSquare(){
         this.state = BoardSquareState.NOTHING;
     }
@@ -0,0 +1,341 @@
+package com.callumgeorge.onesidedbattleships.boards;
+
+import com.callumgeorge.onesidedbattleships.events.GameEventStream;
+import com.callumgeorge.onesidedbattleships.ships.Ship;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Board that can be fired at from many threads at once.
+ * Each square is packed into an int holding its state and the ship on it, and a shot claims the square
+ * with a compare and set, so every square changes state exactly once no matter how many threads fire at it.
+ * The shot that destroys the last node of a ship is the only one to return DESTROYED for that ship.
+ * <p>
+ * The damaged ships are kept as a bit per ship, set and cleared with a compare and set on the word holding it
+ * under the ship's own lock, so hits on different ships never wait for each other. The damaged ships and the frontier
+ * can be read while shots are being fired, and give the ships as they were at some point during the read.
+ */
+class ConcurrentBoard extends Board {
+
+    // The low bits of a square hold its state, the rest hold the index of the ship on it plus one.
+    private static final int STATE_MASK = 0b11;
+    private static final int STATE_HIT = 1;
+    private static final int STATE_MISS = 2;
+    private static final int SHIP_SHIFT = 2;
+
+    private final AtomicIntegerArray squares;
+    private final AtomicIntegerArray rowVersions;
+    private final AtomicInteger shipsAliveCount;
+
+    // A bit for each ship that has been hit but not destroyed, and the number of bits set.
+    private final AtomicLongArray damagedShipBits;
+    private final AtomicInteger damagedShipCount;
+
+    ConcurrentBoard(BoardBuilder builder){
+        super(builder);
+
+        this.squares = new AtomicIntegerArray(getDenseCellCount());
+        this.rowVersions = new AtomicIntegerArray(height);
+        this.shipsAliveCount = new AtomicInteger(ships.length);
+        this.damagedShipBits = new AtomicLongArray((ships.length + 63) >>> 6);
+        this.damagedShipCount = new AtomicInteger();
+
+        placeShips();
+    }
+
+    private ConcurrentBoard(ConcurrentBoard board){
+        super(board);
+
+        this.squares = new AtomicIntegerArray(board.squares.length());
+        this.rowVersions = new AtomicIntegerArray(height);
+        this.shipsAliveCount = new AtomicInteger(board.shipsAliveCount.get());
+        this.damagedShipBits = new AtomicLongArray(board.damagedShipBits.length());
+        this.damagedShipCount = new AtomicInteger(board.damagedShipCount.get());
+
+        for(int cell = 0; cell < squares.length(); cell++)
+            squares.set(cell, board.squares.get(cell));
+        for(int y = 0; y < height; y++)
+            rowVersions.set(y, board.rowVersions.get(y));
+        for(int word = 0; word < damagedShipBits.length(); word++)
+            damagedShipBits.set(word, board.damagedShipBits.get(word));
+    }
+
+    /**
+     * Copy the board, which must not be fired at while it is being copied.
+     */
+    @Override
+    public Board fork(){
+        return new ConcurrentBoard(this);
+    }
+
+    /**
+     * Clear the state of every square and place the ships at their current positions.
+     * Unlike firing, this must not happen while other threads are using the board.
+     */
+    @Override
+    protected void resetSquares(){
+        for(int cell = 0; cell < squares.length(); cell++)
+            squares.set(cell, 0);
+        for(int word = 0; word < damagedShipBits.length(); word++)
+            damagedShipBits.set(word, 0);
+
+        shipsAliveCount.set(ships.length);
+        damagedShipCount.set(0);
+        placeShips();
+    }
+
+    /**
+     * Place each of the ships, before the board is shared with any other thread.
+     */
+    private void placeShips(){
+        for(int shipIndex = 0; shipIndex < ships.length; shipIndex++){
+            Direction direction = shipDirections[shipIndex];
+
+            for(int i = 0; i < ships[shipIndex].getLength(); i++){
+                int cell = (shipRootsY[shipIndex] + direction.dy * i) * width + shipRootsX[shipIndex] + direction.dx * i;
+                this.squares.set(cell, (shipIndex + 1) << SHIP_SHIFT);
+            }
+        }
+    }
+
+    @Override
+    protected int fire(int x, int y){
+        checkBounds(x, y);
+        int cell = y * width + x;
+
+        int square;
+        int shipId;
+        do {
+            square = squares.get(cell);
+
+            // Check if this square has already been fired at. If it has then return the previous result.
+            int state = square & STATE_MASK;
+            if(state == STATE_HIT)
+                return RESULT_HIT;
+            if(state == STATE_MISS)
+                return RESULT_MISS;
+
+            shipId = square >>> SHIP_SHIFT;
+        } while(!squares.compareAndSet(cell, square, square | (shipId == 0 ? STATE_MISS : STATE_HIT)));
+
+        // Only the thread that claimed the square gets here.
+        markRowChanged(y);
+        recordFired(cell);
+
+        if(shipId == 0)
+            return RESULT_MISS | FIRST_SHOT;
+
+        // Nodes of the same ship can be destroyed by different threads, so they share the ship's lock.
+        Ship ship = ships[shipId - 1];
+        boolean destroyed;
+        synchronized (ship){
+            destroyed = ship.getShipNode(getShipNodePosition(shipId - 1, x, y)).destroyNode();
+        }
+
+        updateDamage(shipId - 1);
+
+        // Only the thread whose decrement takes the count to zero destroyed the last ship.
+        if(destroyed)
+            return RESULT_DESTROYED | FIRST_SHOT | (shipsAliveCount.decrementAndGet() == 0 ? LAST_SHIP : 0);
+
+        return RESULT_HIT | FIRST_SHOT;
+    }
+
+    /**
+     * Put a square back to not being fired at. Like marks and rollbacks, this must not happen while other threads are using the board.
+     */
+    @Override
+    protected void unfire(int x, int y){
+        int cell = y * width + x;
+        int square = squares.get(cell);
+        squares.set(cell, square & ~STATE_MASK);
+
+        int shipId = square >>> SHIP_SHIFT;
+        if((square & STATE_MASK) != STATE_HIT)
+            return;
+
+        if(ships[shipId - 1].getShipNode(getShipNodePosition(shipId - 1, x, y)).repairNode())
+            shipsAliveCount.incrementAndGet();
+
+        updateDamage(shipId - 1);
+    }
+
+    /**
+     * Set or clear the ship's damaged bit. The bit only changes under the ship's lock, along with its health,
+     * so hits on one ship are counted in order and hits on other ships go ahead at the same time.
+     */
+    @Override
+    protected void updateDamage(int shipIndex){
+        Ship ship = ships[shipIndex];
+        int word = shipIndex >>> 6;
+        long bit = 1L << shipIndex;
+
+        synchronized (ship){
+            boolean damaged = !ship.isShipDestroyed() && ship.getRemainingHealth() < ship.getLength();
+
+            // Other bits in the word belong to other ships, which can be changing at the same time.
+            long bits;
+            do {
+                bits = damagedShipBits.get(word);
+                if(((bits & bit) != 0) == damaged)
+                    return;
+            } while(!damagedShipBits.compareAndSet(word, bits, bits ^ bit));
+
+            if(damaged)
+                damagedShipCount.incrementAndGet();
+            else damagedShipCount.decrementAndGet();
+        }
+    }
+
+    @Override
+    public int getDamagedShipCount(){
+        return damagedShipCount.get();
+    }
+
+    /**
+     * Get the index of one of the ships that have been hit but not destroyed, in the order they were added.
+     * While shots are being fired the damaged ships can change between calls.
+     */
+    @Override
+    public int getDamagedShip(int position){
+        if(position >= 0){
+            int remaining = position;
+
+            for(int word = 0; word < damagedShipBits.length(); word++){
+                long bits = damagedShipBits.get(word);
+                int bitCount = Long.bitCount(bits);
+
+                if(remaining < bitCount){
+                    for(int i = 0; i < remaining; i++)
+                        bits &= bits - 1;
+
+                    return (word << 6) + Long.numberOfTrailingZeros(bits);
+                }
+
+                remaining -= bitCount;
+            }
+        }
+
+        throw new IndexOutOfBoundsException("Damaged ship " + position + " of " + damagedShipCount.get());
+    }
+
+    /**
+     * Get the frontier of the damaged ships, reading each ship's hits under its lock.
+     */
+    @Override
+    protected int getFrontierCells(int[] intCells, long[] longCells){
+        int count = 0;
+
+        for(int word = 0; word < damagedShipBits.length(); word++){
+            for(long bits = damagedShipBits.get(word); bits != 0; bits &= bits - 1){
+                int shipIndex = (word << 6) + Long.numberOfTrailingZeros(bits);
+
+                synchronized (ships[shipIndex]){
+                    count = addFrontierCells(shipIndex, intCells, longCells, count);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Determine if a square has been hit and the ship on it hasn't been destroyed, from the square and the damaged bits.
+     */
+    @Override
+    protected boolean isDamagedHit(int x, int y){
+        if(x < 0 || x >= width || y < 0 || y >= height)
+            return false;
+
+        int square = squares.get(y * width + x);
+        if((square & STATE_MASK) != STATE_HIT)
+            return false;
+
+        int shipIndex = (square >>> SHIP_SHIFT) - 1;
+        return (damagedShipBits.get(shipIndex >>> 6) & 1L << shipIndex) != 0;
+    }
+
+    /**
+     * Publish a shot under the stream's lock, as the stream only takes one publisher at a time.
+     */
+    @Override
+    protected void publishShot(GameEventStream events, int x, int y, ShotResult shotResult, ShipType shipType, boolean repeated, boolean gameOver){
+        synchronized (events){
+            super.publishShot(events, x, y, shotResult, shipType, repeated, gameOver);
+        }
+    }
+
+    @Override
+    public Ship getShip(int x, int y){
+        checkBounds(x, y);
+        int shipId = squares.get(y * width + x) >>> SHIP_SHIFT;
+
+        return shipId == 0 ? null : ships[shipId - 1];
+    }
+
+    @Override
+    public boolean allShipsDestroyed(){
+        return shipsAliveCount.get() == 0;
+    }
+
+    /**
+     * Get the Record at the specific index.
+     * The squares are built from the packed states, so they are a snapshot and will not track later shots.
+     * @param index Index for the Row.
+     * @return Array of BoardSquares for that row.
+     */
+    @Override
+    public BoardSquare[] getRow(int index){
+        BoardSquare[] row = new BoardSquare[this.width];
+
+        for(int x = 0; x < this.width; x++){
+            int square = squares.get(index * width + x);
+
+            BoardSquare boardSquare = new BoardSquare();
+            boardSquare.setState(getSquareState(square));
+
+            int shipId = square >>> SHIP_SHIFT;
+            if(shipId != 0)
+                boardSquare.setShipNode(ships[shipId - 1].getShipNode(getShipNodePosition(shipId - 1, x, index)));
+
+            row[x] = boardSquare;
+        }
+
+        return row;
+    }
+
+    @Override
+    public BoardSquare.BoardSquareState getSquareState(int x, int y){
+        checkBounds(x, y);
+        return getSquareState(squares.get(y * width + x));
+    }
+
+    @Override
+    public int getRowVersion(int index){
+        return rowVersions.get(index);
+    }
+
+    @Override
+    protected void markRowChanged(int index){
+        rowVersions.incrementAndGet(index);
+    }
+
+    @Override
+    public Engine getEngine(){
+        return Engine.CONCURRENT;
+    }
+
+    private static BoardSquare.BoardSquareState getSquareState(int square){
+        switch (square & STATE_MASK){
+            case STATE_HIT:
+                return BoardSquare.BoardSquareState.HIT;
+            case STATE_MISS:
+                return BoardSquare.BoardSquareState.MISS;
+            default:
+                return BoardSquare.BoardSquareState.NOTHING;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.callumgeorge.onesidedbattleships.boards;
+
+import com.callumgeorge.onesidedbattleships.metrics.GameMetrics;
+import com.callumgeorge.onesidedbattleships.ships.Ship;
+
+/**
+ * Board that holds a BoardSquare object for every square, each occupied square references the ShipNode placed on it.
+ */
+class GridBoard extends Board {
+
+    private BoardSquare[][] boardSquareGrid;
+
+    GridBoard(BoardBuilder builder){
+        super(builder);
+
+        // Squares are also addressed by their cell, which must fit in an int.
+        getDenseCellCount();
+
+        // Setup the board square grid and populate each position.
+        this.boardSquareGrid = new BoardSquare[width][height];
+
+        for (int x = 0; x < width; x++){
+            for(int y = 0; y < height; y++){
+                this.boardSquareGrid[x][y] = new BoardSquare();
+            }
+        }
+
+        placeShips();
+    }
+
+    private GridBoard(GridBoard board){
+        super(board);
+
+        // Copy the state of each square, the ship nodes are the copied ships' own.
+        this.boardSquareGrid = new BoardSquare[width][height];
+
+        for (int x = 0; x < width; x++){
+            for(int y = 0; y < height; y++){
+                this.boardSquareGrid[x][y] = new BoardSquare();
+                this.boardSquareGrid[x][y].setState(board.boardSquareGrid[x][y].getState());
+            }
+        }
+
+        placeShips();
+    }
+
+    @Override
+    public Board fork(){
+        return new GridBoard(this);
+    }
+
+    @Override
+    protected void resetSquares(){
+        for(BoardSquare[] column : boardSquareGrid){
+            for(BoardSquare boardSquare : column){
+                boardSquare.setState(BoardSquare.BoardSquareState.NOTHING);
+                boardSquare.setShipNode(null);
+            }
+        }
+
+        placeShips();
+    }
+
+    /**
+     * Place each of the ships on the grid.
+     */
+    private void placeShips(){
+        for(int shipIndex = 0; shipIndex < ships.length; shipIndex++){
+            Ship ship = ships[shipIndex];
+            Direction direction = shipDirections[shipIndex];
+
+            for(int i = 0; i < ship.getLength(); i++){
+                int x = shipRootsX[shipIndex] + direction.dx * i;
+                int y = shipRootsY[shipIndex] + direction.dy * i;
+                this.boardSquareGrid[x][y].setShipNode(ship.getShipNode(i));
+                this.boardSquareGrid[x][y].shipIndex = shipIndex;
+            }
+        }
+    }
+
+    @Override
+    protected int fire(int x, int y){
+        checkBounds(x, y);
+        BoardSquare boardSquare = boardSquareGrid[x][y];
+
+        // Default the result to a miss.
+        int shot = RESULT_MISS | FIRST_SHOT;
+
+        // Check if this square has already been fired at. If it has then return the previous result.
+        BoardSquare.BoardSquareState currentState = boardSquare.getState();
+        if (currentState == BoardSquare.BoardSquareState.HIT){
+            return RESULT_HIT;
+        } else if(currentState == BoardSquare.BoardSquareState.MISS){
+            return RESULT_MISS;
+        }
+
+        // If the square has a ship node, then destroy it.
+        if(boardSquare.hasShipNode()){
+            boolean isShipDestroyed = boardSquare.getShipNode().destroyNode();
+            updateDamage(boardSquare.shipIndex);
+
+            if(isShipDestroyed)
+                shot = RESULT_DESTROYED | FIRST_SHOT | (--this.shipsAlive == 0 ? LAST_SHIP : 0);
+            else
+                shot = RESULT_HIT | FIRST_SHOT;
+        }
+
+        // Record the result in the square.
+        if ((shot & RESULT_MASK) == RESULT_MISS)
+            boardSquare.setState(BoardSquare.BoardSquareState.MISS);
+        else boardSquare.setState(BoardSquare.BoardSquareState.HIT);
+
+        markRowChanged(y);
+        recordFired(y * width + x);
+
+        return shot;
+    }
+
+    /**
+     * Fire at a volley of squares, straight from the grid.
+     * The destroyed ships are taken off the ships alive once, at the end of the volley.
+     */
+    @Override
+    public int fireBatch(int[] cells, int count, byte[] results, int[] sunkCells){
+        // Each shot of the volley is published on its own.
+        if(getEventStream() != null)
+            return super.fireBatch(cells, count, results, sunkCells);
+
+        checkCells(cells, count);
+        int sunk = 0;
+
+        for(int i = 0; i < count; i++){
+            int cell = cells[i];
+            int y = cell / width;
+            BoardSquare boardSquare = boardSquareGrid[cell - y * width][y];
+
+            BoardSquare.BoardSquareState currentState = boardSquare.getState();
+            if(currentState == BoardSquare.BoardSquareState.HIT){
+                results[i] = RESULT_HIT;
+                continue;
+            }
+            if(currentState == BoardSquare.BoardSquareState.MISS){
+                results[i] = RESULT_MISS;
+                continue;
+            }
+
+            markRowChanged(y);
+            recordFired(cell);
+
+            if(!boardSquare.hasShipNode()){
+                boardSquare.setState(BoardSquare.BoardSquareState.MISS);
+                results[i] = RESULT_MISS;
+                continue;
+            }
+
+            boardSquare.setState(BoardSquare.BoardSquareState.HIT);
+
+            boolean destroyed = boardSquare.getShipNode().destroyNode();
+            updateDamage(boardSquare.shipIndex);
+
+            if(destroyed){
+                sunkCells[sunk++] = cell;
+                results[i] = RESULT_DESTROYED;
+            } else results[i] = RESULT_HIT;
+        }
+
+        this.shipsAlive -= sunk;
+
+        if(GameMetrics.ENABLED)
+            recordBatch(results, count, sunk > 0 && shipsAlive == 0);
+
+        return sunk;
+    }
+
+    @Override
+    protected void unfire(int x, int y){
+        BoardSquare boardSquare = boardSquareGrid[x][y];
+
+        BoardSquare.BoardSquareState state = boardSquare.getState();
+        boardSquare.setState(BoardSquare.BoardSquareState.NOTHING);
+
+        if(state != BoardSquare.BoardSquareState.HIT)
+            return;
+
+        if(boardSquare.getShipNode().repairNode())
+            this.shipsAlive++;
+
+        updateDamage(boardSquare.shipIndex);
+    }
+
+    @Override
+    public Ship getShip(int x, int y){
+        checkBounds(x, y);
+        BoardSquare boardSquare = boardSquareGrid[x][y];
+
+        if(!boardSquare.hasShipNode())
+            return null;
+
+        return boardSquare.getShipNode().getShip();
+    }
+
+    @Override
+    public BoardSquare.BoardSquareState getSquareState(int x, int y){
+        checkBounds(x, y);
+        return boardSquareGrid[x][y].getState();
+    }
+
+    @Override
+    public BoardSquare[] getRow(int index){
+        BoardSquare[] row = new BoardSquare[this.width];
+
+        for(int i = 0; i < this.width; i++){
+            row[i] = boardSquareGrid[i][index];
+        }
+
+        return row;
+    }
+
+    @Override
+    public Engine getEngine(){
+        return Engine.GRID;
+    }
+}
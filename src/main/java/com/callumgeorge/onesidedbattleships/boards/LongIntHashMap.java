@@ -0,0 +1,153 @@
+package com.callumgeorge.onesidedbattleships.boards;
+
+import java.util.Arrays;
+
+/**
+ * Map from non-negative long keys to int values, held in flat arrays with open addressing and linear probing,
+ * so nothing is allocated per entry and a lookup is a hash and usually a single probe.
+ * A value of 0 is the same as the key being absent. The table is kept at most half full.
+ */
+final class LongIntHashMap {
+
+    private static final long EMPTY_KEY = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    // Multiplier for Fibonacci hashing, which spreads neighbouring cells across the table.
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int shift;
+
+    /**
+     * @param expectedSize Number of entries the map should hold without growing.
+     */
+    LongIntHashMap(int expectedSize){
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1));
+    }
+
+    private LongIntHashMap(LongIntHashMap map){
+        this.keys = map.keys.clone();
+        this.values = map.values.clone();
+        this.size = map.size;
+        this.shift = map.shift;
+    }
+
+    /**
+     * Get the value of a key.
+     * @param key Key to look up, must not be negative.
+     * @return Value of the key, or 0 if it is absent.
+     */
+    int get(long key){
+        for(int slot = slot(key); ; slot = (slot + 1) & (keys.length - 1)){
+            long slotKey = keys[slot];
+            if(slotKey == key)
+                return values[slot];
+            if(slotKey == EMPTY_KEY)
+                return 0;
+        }
+    }
+
+    /**
+     * Set the value of a key, growing the table if it becomes more than half full.
+     * @param key Key to set, must not be negative.
+     * @param value Value of the key.
+     */
+    void put(long key, int value){
+        int slot = slot(key);
+        while(keys[slot] != EMPTY_KEY){
+            if(keys[slot] == key){
+                values[slot] = value;
+                return;
+            }
+
+            slot = (slot + 1) & (keys.length - 1);
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+
+        if(++size * 2 > keys.length)
+            grow();
+    }
+
+    /**
+     * Remove a key, moving back any entries that probed past it so that no tombstone is left.
+     * @param key Key to remove.
+     */
+    void remove(long key){
+        int mask = keys.length - 1;
+        int slot = slot(key);
+
+        while(keys[slot] != key){
+            if(keys[slot] == EMPTY_KEY)
+                return;
+
+            slot = (slot + 1) & mask;
+        }
+
+        // Shift each following entry of the run back into the gap, unless its home slot is after the gap.
+        int gap = slot;
+        for(int next = (gap + 1) & mask; keys[next] != EMPTY_KEY; next = (next + 1) & mask){
+            int home = slot(keys[next]);
+
+            if(((next - home) & mask) >= ((next - gap) & mask)){
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+
+        keys[gap] = EMPTY_KEY;
+        values[gap] = 0;
+        size--;
+    }
+
+    /**
+     * Remove every key, keeping the table at its current capacity.
+     */
+    void clear(){
+        Arrays.fill(keys, EMPTY_KEY);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    /**
+     * Get the number of keys in the map.
+     * @return Number of keys.
+     */
+    int size(){
+        return size;
+    }
+
+    /**
+     * Copy the map, so either can be changed without changing the other.
+     * @return Copy of the map.
+     */
+    LongIntHashMap copy(){
+        return new LongIntHashMap(this);
+    }
+
+    private int slot(long key){
+        return (int) ((key * HASH_MULTIPLIER) >>> shift);
+    }
+
+    private void allocate(int capacity){
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        Arrays.fill(keys, EMPTY_KEY);
+    }
+
+    private void grow(){
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        allocate(oldKeys.length * 2);
+        size = 0;
+
+        for(int slot = 0; slot < oldKeys.length; slot++)
+            if(oldKeys[slot] != EMPTY_KEY) put(oldKeys[slot], oldValues[slot]);
+    }
+}
@@ -0,0 +1,253 @@
+package com.callumgeorge.onesidedbattleships.boards;
+
+import com.callumgeorge.onesidedbattleships.metrics.GameMetrics;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+
+import java.util.Arrays;
+
+/**
+ * Chooses random positions for ships so that they stay on the board and do not overlap.
+ * Every legal (root, direction) placement for a ship is equally likely to be chosen.
+ */
+class ShipPlacer {
+
+    // Random placements to try before counting every legal placement.
+    private static final int MAX_RANDOM_ATTEMPTS = 64;
+
+    private static final Board.Direction[] DIRECTIONS = Board.Direction.values();
+
+    // Boards with more squares than this track the occupied squares in a hash map rather than a bitset (8 MB).
+    private static final long MAX_BITSET_CELLS = 1L << 26;
+
+    private final int width;
+    private final int height;
+    private RandomSource random;
+
+    // Bitset of the squares that already hold a ship, one bit per square in row order. Null on a sparse board.
+    private final long[] occupied;
+
+    // Cells of the squares that already hold a ship, on a board too large for the bitset. Else null.
+    private final LongIntHashMap sparseOccupied;
+
+    private int placedX;
+    private int placedY;
+    private Board.Direction placedDirection;
+
+    /**
+     * @param width Width of the board.
+     * @param height Height of the board.
+     * @param random Source of the random placements.
+     */
+    ShipPlacer(int width, int height, RandomSource random){
+        this.width = width;
+        this.height = height;
+        this.random = random;
+
+        if((long) width * height > MAX_BITSET_CELLS){
+            this.occupied = null;
+            this.sparseOccupied = new LongIntHashMap(0);
+        } else {
+            this.occupied = new long[(width * height + 63) >>> 6];
+            this.sparseOccupied = null;
+        }
+    }
+
+    /**
+     * Set the source of the random placements.
+     * @param random Source of the random placements.
+     */
+    void setRandomSource(RandomSource random){
+        this.random = random;
+    }
+
+    /**
+     * Mark every square as free, so the ships can be placed again.
+     */
+    void clear(){
+        if(occupied != null)
+            Arrays.fill(occupied, 0);
+        else sparseOccupied.clear();
+    }
+
+    /**
+     * Choose a position for a ship and mark its squares as occupied.
+     * The position can then be read through getPlacedX, getPlacedY and getPlacedDirection.
+     * @param length Length of the ship.
+     * @throws IllegalStateException If there is no room left on the board for the ship.
+     */
+    void place(int length){
+        // On most boards a random placement is legal, so try a few of those first.
+        // Rejecting illegal placements still leaves every legal placement equally likely.
+        for(int attempt = 0; attempt < MAX_RANDOM_ATTEMPTS; attempt++){
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            Board.Direction direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+
+            if(isPlacementLegal(x, y, direction, length)){
+                if(GameMetrics.ENABLED && attempt > 0)
+                    GameMetrics.recordPlacementRetries(attempt);
+
+                occupy(x, y, direction, length);
+                return;
+            }
+        }
+
+        if(GameMetrics.ENABLED)
+            GameMetrics.recordPlacementRetries(MAX_RANDOM_ATTEMPTS);
+
+        // The board is crowded, so count the legal placements and pick one of them.
+        int horizontal = countRuns(length, true, -1);
+        int vertical = countRuns(length, false, -1);
+
+        if(horizontal + vertical == 0)
+            throw new IllegalStateException(String.format(
+                    "There is no room left to place a ship of length %d on the %dx%d board", length, width, height));
+
+        int choice = random.nextInt(horizontal + vertical);
+        if(choice < horizontal)
+            countRuns(length, true, choice);
+        else countRuns(length, false, choice - horizontal);
+
+        // The squares can be covered from either end, so pick which end the root is at.
+        if(random.nextInt(2) == 0){
+            placedX += placedDirection.dx * (length - 1);
+            placedY += placedDirection.dy * (length - 1);
+            placedDirection = DIRECTIONS[(placedDirection.ordinal() + 2) % DIRECTIONS.length];
+        }
+
+        occupy(placedX, placedY, placedDirection, length);
+    }
+
+    /**
+     * Place a ship at a chosen position and mark its squares as occupied.
+     * @param x X position of the root.
+     * @param y Y position of the root.
+     * @param direction The direction the ship is to point.
+     * @param length Length of the ship.
+     * @throws IllegalStateException If the ship would go off the board or overlap another ship.
+     */
+    void placeAt(int x, int y, Board.Direction direction, int length){
+        if(x < 0 || x >= width || y < 0 || y >= height || !isPlacementLegal(x, y, direction, length))
+            throw new IllegalStateException(String.format(
+                    "A ship of length %d can't be placed at (%d, %d) pointing %s on the %dx%d board",
+                    length, x, y, direction, width, height));
+
+        occupy(x, y, direction, length);
+    }
+
+    /**
+     * Get the X position of the root of the last placed ship.
+     * @return X position of the root.
+     */
+    int getPlacedX(){
+        return placedX;
+    }
+
+    /**
+     * Get the Y position of the root of the last placed ship.
+     * @return Y position of the root.
+     */
+    int getPlacedY(){
+        return placedY;
+    }
+
+    /**
+     * Get the direction of the last placed ship.
+     * @return Direction the ship points from its root.
+     */
+    Board.Direction getPlacedDirection(){
+        return placedDirection;
+    }
+
+    /**
+     * Check if a ship can be placed without going off the board or overlapping another ship.
+     * @param x X position of the root.
+     * @param y Y position of the root.
+     * @param direction The direction the ship is to point.
+     * @param length Length of the ship.
+     * @return True if the placement is legal, else false.
+     */
+    private boolean isPlacementLegal(int x, int y, Board.Direction direction, int length){
+        int endX = x + direction.dx * (length - 1);
+        int endY = y + direction.dy * (length - 1);
+
+        if(endX < 0 || endX >= width || endY < 0 || endY >= height)
+            return false;
+
+        for(int i = 0; i < length; i++)
+            if(isSquarePopulated(x + direction.dx * i, y + direction.dy * i)) return false;
+
+        return true;
+    }
+
+    /**
+     * Count the runs of free squares long enough for the ship, either along the rows or the columns.
+     * If a target is given, the placement at that index is recorded as the placed position instead.
+     * @param length Length of the ship.
+     * @param horizontal True to count along the rows, false to count along the columns.
+     * @param target Index of the placement to record, or -1 to only count.
+     * @return Number of legal placements counted.
+     */
+    private int countRuns(int length, boolean horizontal, int target){
+        int lines = horizontal ? height : width;
+        int lineLength = horizontal ? width : height;
+        int count = 0;
+
+        for(int line = 0; line < lines; line++){
+            int run = 0;
+
+            for(int i = 0; i < lineLength; i++){
+                boolean populated = horizontal ? isSquarePopulated(i, line) : isSquarePopulated(line, i);
+                run = populated ? 0 : run + 1;
+
+                if(run < length)
+                    continue;
+
+                if(count == target){
+                    // The run ends at i, so the placement starts length - 1 squares before it.
+                    placedX = horizontal ? i - (length - 1) : line;
+                    placedY = horizontal ? line : i - (length - 1);
+                    placedDirection = horizontal ? Board.Direction.EAST : Board.Direction.NORTH;
+                    return count;
+                }
+
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Mark the squares under a ship as occupied.
+     */
+    private void occupy(int x, int y, Board.Direction direction, int length){
+        for(int i = 0; i < length; i++){
+            if(occupied == null){
+                sparseOccupied.put((long) (y + direction.dy * i) * width + x + direction.dx * i, 1);
+                continue;
+            }
+
+            int cell = (y + direction.dy * i) * width + x + direction.dx * i;
+            occupied[cell >>> 6] |= 1L << cell;
+        }
+
+        placedX = x;
+        placedY = y;
+        placedDirection = direction;
+    }
+
+    /**
+     * Determine if a square on the board has a ship.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     * @return True if populated, else false.
+     */
+    private boolean isSquarePopulated(int x, int y){
+        if(occupied == null)
+            return sparseOccupied.get((long) y * width + x) != 0;
+
+        int cell = y * width + x;
+        return (occupied[cell >>> 6] & (1L << cell)) != 0;
+    }
+}
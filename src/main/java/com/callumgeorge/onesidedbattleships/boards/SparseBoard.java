@@ -0,0 +1,186 @@
+package com.callumgeorge.onesidedbattleships.boards;
+
+import com.callumgeorge.onesidedbattleships.ships.Ship;
+
+/**
+ * Board for huge boards that are mostly empty, e.g. 100000x100000 with a few hundred ships.
+ * Only the squares that hold a ship or have been fired at are stored, in a hash map from the cell to the square,
+ * so memory grows with the ships and shots rather than with the size of the board. The cells are longs,
+ * as a huge board has more squares than an int can count.
+ */
+class SparseBoard extends Board {
+
+    // The low bits of a square hold its state, the rest hold the index of the ship on it plus one.
+    private static final int STATE_MASK = 0b11;
+    private static final int STATE_HIT = 1;
+    private static final int STATE_MISS = 2;
+    private static final int SHIP_SHIFT = 2;
+
+    // Shared by every square that has no ship and hasn't been fired at, in the rows returned by getRow.
+    private static final BoardSquare EMPTY_SQUARE = new BoardSquare();
+
+    private final LongIntHashMap squares;
+
+    SparseBoard(BoardBuilder builder){
+        super(builder);
+
+        int shipSquares = 0;
+        for(Ship ship : ships)
+            shipSquares += ship.getLength();
+
+        this.squares = new LongIntHashMap(shipSquares);
+
+        placeShips();
+    }
+
+    private SparseBoard(SparseBoard board){
+        super(board);
+
+        this.squares = board.squares.copy();
+    }
+
+    @Override
+    public Board fork(){
+        return new SparseBoard(this);
+    }
+
+    @Override
+    protected void resetSquares(){
+        squares.clear();
+
+        placeShips();
+    }
+
+    /**
+     * Store the squares of each of the ships.
+     */
+    private void placeShips(){
+        for(int shipIndex = 0; shipIndex < ships.length; shipIndex++){
+            Direction direction = shipDirections[shipIndex];
+
+            for(int i = 0; i < ships[shipIndex].getLength(); i++){
+                long cell = (long) (shipRootsY[shipIndex] + direction.dy * i) * width + shipRootsX[shipIndex] + direction.dx * i;
+                this.squares.put(cell, (shipIndex + 1) << SHIP_SHIFT);
+            }
+        }
+    }
+
+    @Override
+    protected int fire(int x, int y){
+        checkBounds(x, y);
+        long cell = (long) y * width + x;
+        int square = squares.get(cell);
+
+        // Check if this square has already been fired at. If it has then return the previous result.
+        int state = square & STATE_MASK;
+        if(state == STATE_HIT)
+            return RESULT_HIT;
+        if(state == STATE_MISS)
+            return RESULT_MISS;
+
+        markRowChanged(y);
+        recordFired(cell);
+
+        int shipId = square >>> SHIP_SHIFT;
+        if(shipId == 0){
+            squares.put(cell, STATE_MISS);
+            return RESULT_MISS | FIRST_SHOT;
+        }
+
+        // The square has a ship so destroy the node under it.
+        squares.put(cell, square | STATE_HIT);
+
+        boolean destroyed = ships[shipId - 1].getShipNode(getShipNodePosition(shipId - 1, x, y)).destroyNode();
+        updateDamage(shipId - 1);
+
+        if(destroyed)
+            return RESULT_DESTROYED | FIRST_SHOT | (--this.shipsAlive == 0 ? LAST_SHIP : 0);
+
+        return RESULT_HIT | FIRST_SHOT;
+    }
+
+    @Override
+    protected void unfire(int x, int y){
+        long cell = (long) y * width + x;
+        int square = squares.get(cell);
+        int shipId = square >>> SHIP_SHIFT;
+
+        // A miss is forgotten altogether, a hit goes back to just holding the ship.
+        if(shipId == 0){
+            squares.remove(cell);
+            return;
+        }
+
+        squares.put(cell, square & ~STATE_MASK);
+
+        if((square & STATE_MASK) != STATE_HIT)
+            return;
+
+        if(ships[shipId - 1].getShipNode(getShipNodePosition(shipId - 1, x, y)).repairNode())
+            this.shipsAlive++;
+
+        updateDamage(shipId - 1);
+    }
+
+    @Override
+    public Ship getShip(int x, int y){
+        checkBounds(x, y);
+        int shipId = squares.get((long) y * width + x) >>> SHIP_SHIFT;
+
+        return shipId == 0 ? null : ships[shipId - 1];
+    }
+
+    /**
+     * Get the Record at the specific index.
+     * Only the squares that hold a ship or have been fired at are built, every other square of the row is one shared
+     * empty square. The squares are a snapshot and will not track later shots.
+     * @param index Index for the Row.
+     * @return Array of BoardSquares for that row.
+     */
+    @Override
+    public BoardSquare[] getRow(int index){
+        BoardSquare[] row = new BoardSquare[this.width];
+        long rowStart = (long) index * width;
+
+        for(int x = 0; x < this.width; x++){
+            int square = squares.get(rowStart + x);
+            if(square == 0){
+                row[x] = EMPTY_SQUARE;
+                continue;
+            }
+
+            BoardSquare boardSquare = new BoardSquare();
+            boardSquare.setState(getSquareState(square));
+
+            int shipId = square >>> SHIP_SHIFT;
+            if(shipId != 0)
+                boardSquare.setShipNode(ships[shipId - 1].getShipNode(getShipNodePosition(shipId - 1, x, index)));
+
+            row[x] = boardSquare;
+        }
+
+        return row;
+    }
+
+    @Override
+    public BoardSquare.BoardSquareState getSquareState(int x, int y){
+        checkBounds(x, y);
+        return getSquareState(squares.get((long) y * width + x));
+    }
+
+    @Override
+    public Engine getEngine(){
+        return Engine.SPARSE;
+    }
+
+    private static BoardSquare.BoardSquareState getSquareState(int square){
+        switch (square & STATE_MASK){
+            case STATE_HIT:
+                return BoardSquare.BoardSquareState.HIT;
+            case STATE_MISS:
+                return BoardSquare.BoardSquareState.MISS;
+            default:
+                return BoardSquare.BoardSquareState.NOTHING;
+        }
+    }
+}
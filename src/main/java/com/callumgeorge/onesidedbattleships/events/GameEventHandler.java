@@ -0,0 +1,54 @@
+package com.callumgeorge.onesidedbattleships.events;
+
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+
+/**
+ * Receives the events read from a {@link GameEventStream}, on the thread polling the subscription.
+ * Every method does nothing by default, so a handler only needs to override the events it wants.
+ * <p>
+ * Each shot gives a shot fired event, then a ship hit event if it was the first shot at a square with a ship,
+ * then a ship sunk event if it destroyed the ship. The shot that destroys the last ship is followed by game over.
+ */
+public interface GameEventHandler {
+
+    /**
+     * A shot was fired at the board.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     * @param repeated True if the square had already been fired at, so the shot changed nothing.
+     */
+    default void onShotFired(int x, int y, boolean repeated){
+    }
+
+    /**
+     * A shot hit a ship, for the first time at this square.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     */
+    default void onShipHit(int x, int y){
+    }
+
+    /**
+     * A shot destroyed a ship.
+     * @param x X position of the square that destroyed the ship.
+     * @param y Y position of the square that destroyed the ship.
+     * @param shipType Type of the destroyed ship.
+     */
+    default void onShipSunk(int x, int y, ShipType shipType){
+    }
+
+    /**
+     * Every ship on the board has been destroyed.
+     * @param turnCount Number of shots fired since the board was last reset, or since the stream was attached.
+     */
+    default void onGameOver(int turnCount){
+    }
+
+    /**
+     * The subscription fell so far behind that events were overwritten before it read them.
+     * Only happens to subscriptions with the {@link GameEventStream.OverflowPolicy#DROP} policy.
+     * @param shots Number of shots and game overs that were missed.
+     */
+    default void onEventsDropped(long shots){
+    }
+}
@@ -0,0 +1,341 @@
+package com.callumgeorge.onesidedbattleships.events;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stream of the shots fired at a board, for spectators watching the game live from other threads.
+ * <p>
+ * The board publishes each shot into a ring buffer, packed into a single long, without taking a lock or allocating.
+ * Subscribers don't get called by the board, each one polls the ring from its own thread and keeps its own place in it,
+ * so publishing costs the same with one spectator as with thousands, and a slow spectator can't stall the shots.
+ * When a subscriber falls a whole ring behind, its {@link OverflowPolicy} decides what happens:
+ * DROP skips it past the overwritten shots and tells it how many it missed, BLOCK holds the board until it catches up.
+ * <p>
+ * Only one thread may publish at a time, a board attached with {@link Board#setEventStream(GameEventStream)} does this.
+ * Each slot of the ring holds its sequence next to the packed shot, and a slot is marked as being written before
+ * the shot changes, so a reader that is overtaken part way through a read sees it and never gets a torn shot.
+ */
+public final class GameEventStream {
+
+    /**
+     * What happens to a subscriber that falls a whole ring of shots behind.
+     * DROP loses the oldest shots it hasn't read, BLOCK makes the board wait for it.
+     */
+    public enum OverflowPolicy {DROP, BLOCK}
+
+    /**
+     * Largest width and height of a board that can publish to a stream.
+     */
+    public static final int MAX_BOARD_SIZE = 1 << 24;
+
+    /**
+     * Number of ship types that can be published, a ship type's id must be below this.
+     */
+    public static final int MAX_SHIP_TYPES = 1 << 12;
+
+    // A shot is packed as game over (1 bit), repeated (1 bit), result (2 bits), ship type id (12 bits), x (24 bits), y (24 bits).
+    // A game over is the game over bit and the turn count.
+    private static final long GAME_OVER = 1L << 63;
+    private static final long REPEATED = 1L << 62;
+    private static final int RESULT_SHIFT = 60;
+    private static final int SHIP_TYPE_SHIFT = 48;
+    private static final int X_SHIFT = 24;
+    private static final long COORDINATE_MASK = MAX_BOARD_SIZE - 1;
+
+    private static final int RESULT_HIT = Board.ShotResult.HIT.ordinal();
+    private static final int RESULT_DESTROYED = Board.ShotResult.DESTROYED.ordinal();
+
+    // Sequence of a slot that is being written, which is below every sequence a reader can be waiting for.
+    private static final long WRITING = -1;
+
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    private final int mask;
+    private final AtomicLongArray events;
+    private final AtomicLongArray sequences;
+
+    // Sequence of the last slot published, read by the subscribers.
+    private final AtomicLong published = new AtomicLong(-1);
+
+    // Only touched by the publishing thread.
+    private long nextSequence;
+    private long gatingSequence;
+    private int turnCount;
+
+    // Subscriptions that hold the board back, copied whenever one is added or cancelled under their own lock,
+    // so a subscriber can cancel while a publisher holding a lock on the stream waits for it.
+    private volatile Subscription[] blocking = NO_SUBSCRIPTIONS;
+    private final Object subscriptionLock = new Object();
+
+    /**
+     * @param capacity Number of shots the ring holds, rounded up to a power of two.
+     * @throws IllegalArgumentException If the capacity isn't positive or is too large for an array.
+     */
+    public GameEventStream(int capacity){
+        if(capacity <= 0 || capacity > 1 << 30)
+            throw new IllegalArgumentException("The capacity of a game event stream must be from 1 to 2^30, not " + capacity);
+
+        int size = Integer.highestOneBit(capacity);
+        if(size < capacity)
+            size <<= 1;
+
+        this.mask = size - 1;
+        this.events = new AtomicLongArray(size);
+        this.sequences = new AtomicLongArray(size);
+
+        for(int i = 0; i < size; i++)
+            sequences.set(i, WRITING);
+    }
+
+    /**
+     * Get the number of shots the ring holds.
+     * @return Capacity of the ring.
+     */
+    public int getCapacity(){
+        return mask + 1;
+    }
+
+    /**
+     * Get the number of shots and game overs published so far.
+     * @return Number of events published.
+     */
+    public long getPublishedCount(){
+        return published.get() + 1;
+    }
+
+    /**
+     * Subscribe to the shots published from now on.
+     * @param policy What happens if the subscriber falls a whole ring behind.
+     * @return Subscription to poll for the shots.
+     */
+    public Subscription subscribe(OverflowPolicy policy){
+        Subscription subscription = new Subscription(policy, published.get() + 1);
+
+        if(policy == OverflowPolicy.BLOCK){
+            synchronized (subscriptionLock){
+                Subscription[] subscriptions = Arrays.copyOf(blocking, blocking.length + 1);
+                subscriptions[subscriptions.length - 1] = subscription;
+                blocking = subscriptions;
+            }
+        }
+
+        return subscription;
+    }
+
+    /**
+     * Start counting the turns of a new game, called by the board when it is reset.
+     */
+    public void startGame(){
+        turnCount = 0;
+    }
+
+    /**
+     * Publish a shot fired at the board. Only one thread may publish at a time.
+     * @param x X position of the square.
+     * @param y Y position of the square.
+     * @param result Result of the shot.
+     * @param shipType Type of the ship that was hit, or null for a miss.
+     * @param repeated True if the square had already been fired at.
+     * @param gameOver True if the shot destroyed the last ship, which publishes a game over after the shot.
+     */
+    public void publishShot(int x, int y, Board.ShotResult result, ShipType shipType, boolean repeated, boolean gameOver){
+        long event = (long) result.ordinal() << RESULT_SHIFT
+                | (long) x << X_SHIFT
+                | y;
+
+        if(shipType != null)
+            event |= (long) shipType.getId() << SHIP_TYPE_SHIFT;
+        if(repeated)
+            event |= REPEATED;
+
+        publish(event);
+        turnCount++;
+
+        if(gameOver){
+            publish(GAME_OVER | turnCount);
+            turnCount = 0;
+        }
+    }
+
+    /**
+     * Write the event into the next slot, first waiting for room if there are blocking subscribers.
+     */
+    private void publish(long event){
+        long sequence = nextSequence++;
+
+        if(sequence - gatingSequence > mask)
+            awaitCapacity(sequence);
+
+        // The slot is marked before the event changes, so a reader part way through the old event sees it was overtaken.
+        // Each ordered write is seen after the writes before it, and costs no more than a plain write on x86.
+        int index = (int) sequence & mask;
+        sequences.lazySet(index, WRITING);
+        events.lazySet(index, event);
+        sequences.lazySet(index, sequence);
+        published.lazySet(sequence);
+    }
+
+    /**
+     * Wait until every blocking subscriber has read the event the slot for the sequence holds.
+     * Only scans the subscribers when the cached position of the slowest one is a whole ring behind.
+     */
+    private void awaitCapacity(long sequence){
+        while(true){
+            long slowest = sequence;
+            for(Subscription subscription : blocking)
+                slowest = Math.min(slowest, subscription.nextSequence.get());
+
+            gatingSequence = slowest;
+            if(sequence - slowest <= mask)
+                return;
+
+            Thread.yield();
+        }
+    }
+
+    private void cancel(Subscription subscription){
+        synchronized (subscriptionLock){
+            Subscription[] subscriptions = blocking;
+
+            for(int i = 0; i < subscriptions.length; i++){
+                if(subscriptions[i] != subscription)
+                    continue;
+
+                Subscription[] remaining = Arrays.copyOf(subscriptions, subscriptions.length - 1);
+                System.arraycopy(subscriptions, i + 1, remaining, i, subscriptions.length - i - 1);
+                blocking = remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Place of a subscriber in the stream, which is polled from the subscriber's thread.
+     * A subscription must only be polled by one thread at a time.
+     */
+    public final class Subscription {
+
+        private final OverflowPolicy policy;
+
+        // Sequence of the next event to read, read by the publisher when this subscription blocks it.
+        private final AtomicLong nextSequence;
+        private long dropped;
+        private volatile boolean cancelled;
+
+        private Subscription(OverflowPolicy policy, long nextSequence){
+            this.policy = policy;
+            this.nextSequence = new AtomicLong(nextSequence);
+        }
+
+        /**
+         * Get the policy for when this subscription falls a whole ring behind.
+         * @return Overflow policy of the subscription.
+         */
+        public OverflowPolicy getPolicy(){
+            return policy;
+        }
+
+        /**
+         * Get the number of shots and game overs that were overwritten before this subscription read them.
+         * @return Number of events dropped.
+         */
+        public long getDroppedCount(){
+            return dropped;
+        }
+
+        /**
+         * Get the number of shots and game overs published that this subscription hasn't read.
+         * @return Number of events behind, including any that have been overwritten.
+         */
+        public long getLag(){
+            return published.get() + 1 - nextSequence.get();
+        }
+
+        /**
+         * Read the events published since the last poll, and hand them to the handler.
+         * Returns without waiting if nothing has been published.
+         * @param handler Receives the events.
+         * @param maxEvents Most shots and game overs to read.
+         * @return Number of shots and game overs read.
+         * @throws IllegalStateException If the subscription has been cancelled.
+         */
+        public int poll(GameEventHandler handler, int maxEvents){
+            if(cancelled)
+                throw new IllegalStateException("The subscription has been cancelled");
+
+            long sequence = nextSequence.get();
+            int read = 0;
+
+            while(read < maxEvents){
+                int index = (int) sequence & mask;
+                long slotSequence = sequences.get(index);
+
+                // Not published yet, or being written over.
+                if(slotSequence < sequence)
+                    break;
+
+                // Overwritten, skip to the oldest event still in the ring.
+                if(slotSequence > sequence){
+                    long oldest = Math.max(sequence, published.get() - mask);
+                    dropped += oldest - sequence;
+                    handler.onEventsDropped(oldest - sequence);
+                    sequence = oldest;
+                    continue;
+                }
+
+                long event = events.get(index);
+
+                // Overwritten while it was being read, the next pass skips it.
+                if(sequences.get(index) != sequence)
+                    continue;
+
+                sequence++;
+                read++;
+                dispatch(event, handler);
+            }
+
+            // Let a blocked publisher see the progress once the batch is read.
+            nextSequence.lazySet(sequence);
+            return read;
+        }
+
+        /**
+         * Stop the subscription, so it no longer holds the board back.
+         */
+        public void cancel(){
+            cancelled = true;
+
+            if(policy == OverflowPolicy.BLOCK)
+                GameEventStream.this.cancel(this);
+        }
+    }
+
+    /**
+     * Unpack an event and call the handler for each thing it records.
+     */
+    private static void dispatch(long event, GameEventHandler handler){
+        if((event & GAME_OVER) != 0){
+            handler.onGameOver((int) (event & ~GAME_OVER));
+            return;
+        }
+
+        int x = (int) (event >>> X_SHIFT & COORDINATE_MASK);
+        int y = (int) (event & COORDINATE_MASK);
+        boolean repeated = (event & REPEATED) != 0;
+        handler.onShotFired(x, y, repeated);
+
+        int result = (int) (event >>> RESULT_SHIFT) & 0b11;
+        if(repeated || (result != RESULT_HIT && result != RESULT_DESTROYED))
+            return;
+
+        handler.onShipHit(x, y);
+
+        if(result == RESULT_DESTROYED)
+            handler.onShipSunk(x, y, ShipType.forId((int) (event >>> SHIP_TYPE_SHIFT) & (MAX_SHIP_TYPES - 1)));
+    }
+}
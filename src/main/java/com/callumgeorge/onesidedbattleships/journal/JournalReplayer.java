@@ -0,0 +1,165 @@
+package com.callumgeorge.onesidedbattleships.journal;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rebuilds the games in a {@link MoveJournal}, by building each board from its seed and firing the recorded shots again.
+ * The boards must have been built by {@link #buildBoard(long)} from a replayer with the same size and fleet,
+ * so that the same seed gives the same layout.
+ */
+public class JournalReplayer {
+
+    private final int width;
+    private final int height;
+    private final ShipType[] fleet;
+
+    private Board.Engine engine;
+
+    /**
+     * @param width Width of the boards the games were played on.
+     * @param height Height of the boards the games were played on.
+     * @param fleet Ships that were added to each board.
+     */
+    public JournalReplayer(int width, int height, ShipType[] fleet){
+        this.width = width;
+        this.height = height;
+        this.fleet = fleet.clone();
+        this.engine = Board.Engine.BITBOARD;
+    }
+
+    /**
+     * Set the engine the boards will be built with. Defaults to BITBOARD.
+     * @param engine Engine to store the board state with.
+     */
+    public JournalReplayer setEngine(Board.Engine engine){
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * Build the board for a game, the seed should be recorded with {@link MoveJournal#startGame(long)}.
+     * @param seed Seed for the ship placements.
+     * @return Board with the fleet placed on it.
+     */
+    public Board buildBoard(long seed){
+        Board.BoardBuilder builder = new Board.BoardBuilder(width, height)
+                .setEngine(engine)
+                .setSeed(seed);
+
+        for(ShipType shipType : fleet)
+            builder.addShip(shipType);
+
+        return builder.build();
+    }
+
+    /**
+     * Rebuild every game in the journal.
+     * @param journal Journal to replay.
+     * @return Rebuilt games by id, in the order they were started.
+     * @throws IllegalStateException If a recorded shot doesn't land the same way on the rebuilt board.
+     */
+    public Map<Integer, ReplayedGame> replay(MoveJournal journal){
+        Map<Integer, ReplayedGame> games = new LinkedHashMap<>();
+
+        journal.read(new MoveJournal.RecordVisitor() {
+            @Override
+            public void gameStarted(int gameId, long seed){
+                games.put(gameId, new ReplayedGame(gameId, seed, buildBoard(seed)));
+            }
+
+            @Override
+            public void shotFired(int gameId, int cell, Board.ShotResult result){
+                ReplayedGame game = games.get(gameId);
+                if(game == null)
+                    throw new IllegalStateException("The journal has a shot for game " + gameId + " before it was started");
+
+                game.replayShot(cell, result);
+            }
+        });
+
+        return games;
+    }
+
+    /**
+     * Rebuild the games in the journal that had not been won, e.g. to carry on with them after a crash.
+     * @param journal Journal to replay.
+     * @return Unfinished games by id, in the order they were started.
+     * @throws IllegalStateException If a recorded shot doesn't land the same way on the rebuilt board.
+     */
+    public Map<Integer, ReplayedGame> replayUnfinished(MoveJournal journal){
+        Map<Integer, ReplayedGame> games = replay(journal);
+        games.values().removeIf(ReplayedGame::isFinished);
+
+        return games;
+    }
+
+    /**
+     * Game rebuilt from the journal.
+     */
+    public static class ReplayedGame {
+
+        private final int gameId;
+        private final long seed;
+        private final Board board;
+        private int turnCount;
+
+        ReplayedGame(int gameId, long seed, Board board){
+            this.gameId = gameId;
+            this.seed = seed;
+            this.board = board;
+        }
+
+        /**
+         * Get the id of the game in the journal.
+         * @return Id of the game.
+         */
+        public int getGameId(){
+            return gameId;
+        }
+
+        /**
+         * Get the seed the board was built from.
+         * @return Seed for the ship placements.
+         */
+        public long getSeed(){
+            return seed;
+        }
+
+        /**
+         * Get the board with every recorded shot fired at it.
+         * @return Rebuilt board.
+         */
+        public Board getBoard(){
+            return board;
+        }
+
+        /**
+         * Get the number of shots recorded for the game.
+         * @return Number of turns taken.
+         */
+        public int getTurnCount(){
+            return turnCount;
+        }
+
+        /**
+         * Determine if the game was won.
+         * @return True if every ship has been destroyed, else false.
+         */
+        public boolean isFinished(){
+            return board.allShipsDestroyed();
+        }
+
+        private void replayShot(int cell, Board.ShotResult result){
+            Board.ShotResult replayed = board.fireAtCell(cell);
+            if(replayed != result)
+                throw new IllegalStateException(String.format(
+                        "Shot %d of game %d was a %s but is a %s on the rebuilt board", turnCount + 1, gameId, result, replayed));
+
+            turnCount++;
+        }
+    }
+}
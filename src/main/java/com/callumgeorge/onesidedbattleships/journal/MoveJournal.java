@@ -0,0 +1,357 @@
+package com.callumgeorge.onesidedbattleships.journal;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append only journal of the moves made in each game, written through a memory mapped file so the moves
+ * survive the process dying. Together with the seed each board was built from, the journal is enough for
+ * {@link JournalReplayer} to rebuild every game.
+ * <p>
+ * Each record takes a fixed {@link #RECORD_LENGTH} bytes:
+ * <pre>
+ *   byte  record type (0 marks the end of the journal)
+ *   byte  shot result
+ *   short unused
+ *   int   game id
+ *   long  seed of the board for a game start, or int square (y * width + x) for a shot
+ * </pre>
+ * The type is written last, so a record that was cut off part way through by the process dying is never read back.
+ * This only holds for the file: the writes go straight into the mapping with nothing ordering them between threads,
+ * so the journal must not be read while other threads are appending to it.
+ * <p>
+ * Appending a record claims its slot with a single atomic add and writes straight into the mapped file,
+ * so any number of threads can append at once without locking, and without waiting for the disk.
+ * A record is only known to be on disk once {@link #commit()} returns. Forcing the file is expensive,
+ * so threads that commit at the same time share a force rather than each making their own.
+ * A background thread also forces the file every so often, so records that are never committed
+ * reach the disk at most that long after they are appended.
+ */
+public class MoveJournal implements Closeable {
+
+    public static final int RECORD_LENGTH = 16;
+
+    // Records written before the process died can only be trusted up to the first gap.
+    private static final byte TYPE_END = 0;
+    private static final byte TYPE_HEADER = 1;
+    private static final byte TYPE_GAME_START = 2;
+    private static final byte TYPE_SHOT = 3;
+
+    // Most appends that can be part way through at once, so the most empty slots that can be left between two records.
+    private static final int MAX_PENDING_RECORDS = 4096;
+
+    private static final int MAGIC = 0x4F53424A;
+    private static final int VERSION = 1;
+
+    private static final Board.ShotResult[] SHOT_RESULTS = Board.ShotResult.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer records;
+    private final long capacity;
+
+    // Offset of the next record to claim.
+    private final AtomicLong appendPosition;
+
+    // Number of forces started and finished, a commit waits for a force that started after it was called.
+    private final Object commitLock = new Object();
+    private boolean forcing;
+    private long forcesStarted;
+    private long forcesFinished;
+
+    private final AtomicInteger nextGameId;
+    private final Thread flushThread;
+
+    /**
+     * Open the journal, recovering the records already in it. Records that aren't committed are forced to disk every 10 ms.
+     * @param path File holding the journal, created if it doesn't exist.
+     * @param capacity Most records the journal can hold.
+     * @throws IOException If the file can't be opened or mapped.
+     */
+    public MoveJournal(Path path, int capacity) throws IOException {
+        this(path, capacity, 10);
+    }
+
+    /**
+     * Open the journal, recovering the records already in it.
+     * @param path File holding the journal, created if it doesn't exist.
+     * @param capacity Most records the journal can hold.
+     * @param flushIntervalMillis Time between the records being forced to disk, or 0 to only force them on {@link #commit()}.
+     * @throws IOException If the file can't be opened or mapped.
+     * @throws IllegalArgumentException If the capacity is too large to map.
+     * @throws IllegalStateException If the file isn't a journal.
+     */
+    public MoveJournal(Path path, int capacity, long flushIntervalMillis) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // A journal written with a larger capacity is mapped in full, so none of its records are lost.
+        long fileSize = channel.size() - channel.size() % RECORD_LENGTH;
+        long length = Math.max((long) capacity * RECORD_LENGTH, fileSize);
+        if(length > Integer.MAX_VALUE - RECORD_LENGTH){
+            channel.close();
+            throw new IllegalArgumentException("A journal can hold at most " + Integer.MAX_VALUE / RECORD_LENGTH + " records");
+        }
+
+        this.records = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        this.capacity = length;
+
+        long end;
+        try {
+            end = recover(fileSize);
+        } catch (IllegalStateException e){
+            channel.close();
+            throw e;
+        }
+
+        this.appendPosition = new AtomicLong(end);
+        this.nextGameId = new AtomicInteger(findLastGameId(end) + 1);
+
+        if(flushIntervalMillis > 0){
+            flushThread = new Thread(() -> flushEvery(flushIntervalMillis), "move-journal-flush");
+            flushThread.setDaemon(true);
+            flushThread.start();
+        } else flushThread = null;
+    }
+
+    /**
+     * Record the start of a game.
+     * @param seed Seed the board for the game was built from.
+     * @return Id of the game, to pass to {@link #recordShot}.
+     * @throws IllegalStateException If the journal is full.
+     */
+    public int startGame(long seed){
+        int gameId = nextGameId.getAndIncrement();
+        int offset = claimRecord();
+
+        records.putInt(offset + 4, gameId);
+        records.putLong(offset + 8, seed);
+        records.put(offset, TYPE_GAME_START);
+
+        return gameId;
+    }
+
+    /**
+     * Record a shot made in a game.
+     * @param gameId Id of the game the shot was made in.
+     * @param cell Square that was fired at (y * width + x).
+     * @param result Result of the shot.
+     * @throws IllegalStateException If the journal is full.
+     */
+    public void recordShot(int gameId, int cell, Board.ShotResult result){
+        int offset = claimRecord();
+
+        records.put(offset + 1, (byte) result.ordinal());
+        records.putInt(offset + 4, gameId);
+        records.putInt(offset + 8, cell);
+        records.put(offset, TYPE_SHOT);
+    }
+
+    /**
+     * Get the number of games and shots recorded.
+     * @return Number of records, not counting the header.
+     */
+    public long getRecordCount(){
+        return Math.min(appendPosition.get(), capacity) / RECORD_LENGTH - 1;
+    }
+
+    /**
+     * Read every record in the order it was appended, e.g. to replay the games once the journal has been opened.
+     * Nothing orders another thread's writes to a record against these reads, so this must only be called once
+     * any other threads appending to the journal have finished, such as after they have been joined.
+     * @param visitor Receives each record.
+     */
+    public void read(RecordVisitor visitor){
+        long end = Math.min(appendPosition.get(), capacity);
+
+        for(int offset = RECORD_LENGTH; offset < end && isValidRecord(offset); offset += RECORD_LENGTH){
+            int gameId = records.getInt(offset + 4);
+
+            if(records.get(offset) == TYPE_GAME_START)
+                visitor.gameStarted(gameId, records.getLong(offset + 8));
+            else visitor.shotFired(gameId, records.getInt(offset + 8), SHOT_RESULTS[records.get(offset + 1)]);
+        }
+    }
+
+    /**
+     * Wait until every record appended before the call is on disk.
+     * If another thread is already forcing the file then this waits for it to finish, and the next force
+     * is made by one of the waiting threads for all of them, so a group of commits costs a force or two.
+     */
+    public void commit(){
+        boolean interrupted = false;
+
+        synchronized (commitLock){
+            // A force that is already under way may have started before this thread's records were written.
+            long needed = forcesStarted + 1;
+
+            while(forcing){
+                try {
+                    commitLock.wait();
+                } catch (InterruptedException e){
+                    interrupted = true;
+                }
+            }
+
+            if(forcesFinished >= needed){
+                if(interrupted)
+                    Thread.currentThread().interrupt();
+                return;
+            }
+
+            forcing = true;
+            forcesStarted++;
+        }
+
+        try {
+            records.force();
+        } finally {
+            synchronized (commitLock){
+                forcing = false;
+                forcesFinished = forcesStarted;
+                commitLock.notifyAll();
+            }
+
+            if(interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Commit the remaining records and close the journal.
+     * @throws IOException If the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if(flushThread != null){
+            flushThread.interrupt();
+
+            try {
+                flushThread.join();
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        commit();
+        channel.close();
+    }
+
+    /**
+     * Claim the slot for the next record.
+     * @return Offset of the slot.
+     */
+    private int claimRecord(){
+        long offset = appendPosition.getAndAdd(RECORD_LENGTH);
+
+        if(offset + RECORD_LENGTH > capacity)
+            throw new IllegalStateException("The journal is full, it can hold " + capacity / RECORD_LENGTH + " records");
+
+        return (int) offset;
+    }
+
+    /**
+     * Find the end of the records that were fully written, and clear anything after it.
+     * @param fileSize Length of the file before it was mapped, the file is zeroed past this.
+     * @return Offset the next record should be appended at.
+     */
+    private long recover(long fileSize){
+        // A new journal starts with a header, so a file that was never a journal isn't written over.
+        if(records.get(0) == TYPE_END){
+            records.putInt(4, MAGIC);
+            records.putInt(8, VERSION);
+            records.put(0, TYPE_HEADER);
+        } else if(records.get(0) != TYPE_HEADER || records.getInt(4) != MAGIC || records.getInt(8) != VERSION)
+            throw new IllegalStateException("The file is not a move journal");
+
+        // A record that was damaged on disk ends the journal in the same way as a gap.
+        int end = RECORD_LENGTH;
+        while(end < capacity && isValidRecord(end))
+            end += RECORD_LENGTH;
+
+        // Threads that were part way through appending can leave records after the gap.
+        // They would be read back once the gap is filled, so clear them, along with any damaged record.
+        // Mapping grows the file with zeros, so only the part that was already written needs to be walked,
+        // and every record after the gap was claimed while the gap was being written, so the walk stops at a long run of empty slots.
+        int emptyRun = 0;
+        for(int offset = end; offset < fileSize && emptyRun < MAX_PENDING_RECORDS; offset += RECORD_LENGTH){
+            if(records.get(offset) == TYPE_END){
+                emptyRun++;
+            } else {
+                records.put(offset, TYPE_END);
+                emptyRun = 0;
+            }
+        }
+
+        return end;
+    }
+
+    /**
+     * Check the record holds a game start, or a shot with a result that exists.
+     */
+    private boolean isValidRecord(int offset){
+        byte type = records.get(offset);
+        if(type == TYPE_GAME_START)
+            return true;
+
+        int result = records.get(offset + 1);
+        return type == TYPE_SHOT && result >= 0 && result < SHOT_RESULTS.length;
+    }
+
+    private int findLastGameId(long end){
+        int lastGameId = 0;
+
+        for(int offset = RECORD_LENGTH; offset < end; offset += RECORD_LENGTH)
+            if(records.get(offset) == TYPE_GAME_START) lastGameId = Math.max(lastGameId, records.getInt(offset + 4));
+
+        return lastGameId;
+    }
+
+    private void flushEvery(long intervalMillis){
+        long lastPosition = appendPosition.get();
+        boolean appended = false;
+
+        try {
+            while(!Thread.currentThread().isInterrupted()){
+                Thread.sleep(intervalMillis);
+
+                // Force once more after the appends stop, for any records that were still being written during the last force.
+                long position = appendPosition.get();
+                if(position != lastPosition || appended)
+                    commit();
+
+                appended = position != lastPosition;
+                lastPosition = position;
+            }
+        } catch (InterruptedException e){
+            // The journal has been closed.
+        }
+    }
+
+    /**
+     * Receives the records read from a journal.
+     */
+    public interface RecordVisitor {
+
+        /**
+         * A game was started.
+         * @param gameId Id of the game.
+         * @param seed Seed the board for the game was built from.
+         */
+        void gameStarted(int gameId, long seed);
+
+        /**
+         * A shot was made in a game.
+         * @param gameId Id of the game.
+         * @param cell Square that was fired at (y * width + x).
+         * @param result Result of the shot.
+         */
+        void shotFired(int gameId, int cell, Board.ShotResult result);
+    }
+}
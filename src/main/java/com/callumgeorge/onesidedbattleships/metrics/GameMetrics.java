@@ -0,0 +1,365 @@
+package com.callumgeorge.onesidedbattleships.metrics;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.utils.LatencyHistogram;
+import com.callumgeorge.onesidedbattleships.utils.SingleWriterHistogram;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what the game engine is doing: the results of the shots, the retries needed to place ships,
+ * and how long boards take to lay out and render.
+ * <p>
+ * Metrics are off unless the JVM is started with {@code -Dbattleships.metrics=true}. The flag is a constant,
+ * so when it is off the JIT removes every {@code if(GameMetrics.ENABLED)} check and the metrics cost nothing.
+ * When it is on, counters are striped {@link LongAdder}s and each thread records the timings into its own
+ * histograms without a lock, so threads never contend on a metric. The timings of a thread that has ended
+ * are folded into a shared total, so threads coming and going don't leave histograms behind.
+ * <p>
+ * The metrics are exported over JMX as {@value #OBJECT_NAME}, and {@link #dump()} gives them as plain text.
+ */
+public final class GameMetrics {
+
+    /**
+     * True if the metrics are being recorded.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("battleships.metrics");
+
+    /**
+     * Name the metrics are registered under with the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "com.callumgeorge.onesidedbattleships:type=GameMetrics";
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder DESTROYED = new LongAdder();
+    private static final LongAdder GAMES_WON = new LongAdder();
+    private static final LongAdder PLACEMENT_RETRIES = new LongAdder();
+
+    // The timings of the live threads, and the total of those of the threads that have ended, guarded by LIVE_TIMINGS.
+    private static final List<Timings> LIVE_TIMINGS = new ArrayList<>();
+    private static final LatencyHistogram RETIRED_LAYOUT = new LatencyHistogram();
+    private static final LatencyHistogram RETIRED_RENDER = new LatencyHistogram();
+    private static final ThreadLocal<Timings> TIMINGS = ThreadLocal.withInitial(() -> {
+        Timings timings = new Timings(Thread.currentThread());
+        synchronized (LIVE_TIMINGS){
+            retireEndedThreads();
+            LIVE_TIMINGS.add(timings);
+        }
+        return timings;
+    });
+
+    // Bumped by a reset, each thread clears its own timings when it next records, so only the owner ever writes them.
+    private static volatile int generation;
+
+    private static volatile long startTime = System.nanoTime();
+
+    static {
+        if(ENABLED)
+            register();
+    }
+
+    private GameMetrics(){
+    }
+
+    /**
+     * Record the result of a shot.
+     * @param result Result of the shot.
+     * @param gameWon True if the shot destroyed the last ship on the board.
+     */
+    public static void recordShot(Board.ShotResult result, boolean gameWon){
+        switch (result){
+            case HIT:
+                HITS.increment();
+                break;
+            case MISS:
+                MISSES.increment();
+                break;
+            default:
+                DESTROYED.increment();
+                if(gameWon) GAMES_WON.increment();
+        }
+    }
+
+    /**
+     * Record the results of a volley of shots.
+     * @param hits Number of shots that hit a ship without destroying it.
+     * @param misses Number of shots that missed.
+     * @param destroyed Number of shots that destroyed a ship.
+     * @param gameWon True if the volley destroyed the last ship on the board.
+     */
+    public static void recordShots(int hits, int misses, int destroyed, boolean gameWon){
+        HITS.add(hits);
+        MISSES.add(misses);
+        DESTROYED.add(destroyed);
+        if(gameWon) GAMES_WON.increment();
+    }
+
+    /**
+     * Record random placements of a ship that were rejected before one was legal.
+     * @param retries Number of rejected placements.
+     */
+    public static void recordPlacementRetries(int retries){
+        PLACEMENT_RETRIES.add(retries);
+    }
+
+    /**
+     * Record the time taken to lay out a board, by building it or resetting it.
+     * @param nanos Time taken in nanoseconds.
+     */
+    public static void recordLayout(long nanos){
+        getTimings().layout.record(nanos);
+    }
+
+    /**
+     * Record the time taken to render a board.
+     * @param nanos Time taken in nanoseconds.
+     */
+    public static void recordRender(long nanos){
+        getTimings().render.record(nanos);
+    }
+
+    /**
+     * Get the calling thread's timings, clearing them first if the metrics have been reset since they were last used.
+     */
+    private static Timings getTimings(){
+        Timings timings = TIMINGS.get();
+
+        int current = generation;
+        if(timings.generation != current){
+            timings.layout.clear();
+            timings.render.clear();
+            timings.generation = current;
+        }
+
+        return timings;
+    }
+
+    /**
+     * Get the management bean that reads the metrics.
+     * @return Management bean for the metrics.
+     */
+    public static GameMetricsMXBean getMXBean(){
+        return MXBean.INSTANCE;
+    }
+
+    /**
+     * Write every metric as plain text, one per line.
+     * @return Text dump of the metrics.
+     */
+    public static String dump(){
+        LatencyHistogram layout = mergeLayoutTimings();
+        LatencyHistogram render = mergeRenderTimings();
+        MXBean metrics = MXBean.INSTANCE;
+
+        return String.format("shots %d%n", metrics.getShots())
+                + String.format("shots.per_second %.1f%n", metrics.getShotsPerSecond())
+                + String.format("shots.hit %d%n", metrics.getHits())
+                + String.format("shots.miss %d%n", metrics.getMisses())
+                + String.format("shots.destroyed %d%n", metrics.getDestroyed())
+                + String.format("shots.hit_ratio %.4f%n", metrics.getHitRatio())
+                + String.format("games.won %d%n", metrics.getGamesWon())
+                + String.format("placement.retries %d%n", metrics.getPlacementRetries())
+                + formatTimings("layout", layout)
+                + formatTimings("render", render);
+    }
+
+    private static String formatTimings(String name, LatencyHistogram histogram){
+        return String.format("%s.count %d%n", name, histogram.getCount())
+                + String.format("%s.mean_ns %.0f%n", name, histogram.getMean())
+                + String.format("%s.p50_ns %d%n", name, histogram.getPercentile(50))
+                + String.format("%s.p99_ns %d%n", name, histogram.getPercentile(99))
+                + String.format("%s.max_ns %d%n", name, histogram.getMax());
+    }
+
+    /**
+     * Register the metrics with the platform MBean server, if they are not already.
+     */
+    private static void register(){
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(!ManagementFactory.getPlatformMBeanServer().isRegistered(name))
+                ManagementFactory.getPlatformMBeanServer().registerMBean(MXBean.INSTANCE, name);
+        } catch (JMException e){
+            throw new IllegalStateException("Failed to register the game metrics", e);
+        }
+    }
+
+    private static LatencyHistogram mergeLayoutTimings(){
+        synchronized (LIVE_TIMINGS){
+            retireEndedThreads();
+
+            LatencyHistogram merged = new LatencyHistogram();
+            merged.add(RETIRED_LAYOUT);
+            for(Timings timings : LIVE_TIMINGS)
+                if(timings.generation == generation) timings.layout.addTo(merged);
+
+            return merged;
+        }
+    }
+
+    private static LatencyHistogram mergeRenderTimings(){
+        synchronized (LIVE_TIMINGS){
+            retireEndedThreads();
+
+            LatencyHistogram merged = new LatencyHistogram();
+            merged.add(RETIRED_RENDER);
+            for(Timings timings : LIVE_TIMINGS)
+                if(timings.generation == generation) timings.render.addTo(merged);
+
+            return merged;
+        }
+    }
+
+    /**
+     * Fold the timings of the threads that have ended into the retired totals. Must hold the lock on LIVE_TIMINGS.
+     * Seeing that a thread has ended also makes everything it recorded visible.
+     */
+    private static void retireEndedThreads(){
+        for(Iterator<Timings> iterator = LIVE_TIMINGS.iterator(); iterator.hasNext(); ){
+            Timings timings = iterator.next();
+            Thread owner = timings.owner.get();
+            if(owner != null && owner.isAlive())
+                continue;
+
+            if(timings.generation == generation){
+                timings.layout.addTo(RETIRED_LAYOUT);
+                timings.render.addTo(RETIRED_RENDER);
+            }
+
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Timings recorded by one thread. Only that thread writes to them, other threads only read them.
+     */
+    private static final class Timings {
+        private final WeakReference<Thread> owner;
+        private final SingleWriterHistogram layout = new SingleWriterHistogram();
+        private final SingleWriterHistogram render = new SingleWriterHistogram();
+
+        // Generation of the metrics the timings were recorded in.
+        private volatile int generation;
+
+        private Timings(Thread owner){
+            this.owner = new WeakReference<>(owner);
+            this.generation = GameMetrics.generation;
+        }
+    }
+
+    /**
+     * Reads the metrics for JMX.
+     */
+    private static final class MXBean implements GameMetricsMXBean {
+
+        private static final MXBean INSTANCE = new MXBean();
+
+        @Override
+        public long getShots(){
+            return HITS.sum() + MISSES.sum() + DESTROYED.sum();
+        }
+
+        @Override
+        public long getHits(){
+            return HITS.sum();
+        }
+
+        @Override
+        public long getMisses(){
+            return MISSES.sum();
+        }
+
+        @Override
+        public long getDestroyed(){
+            return DESTROYED.sum();
+        }
+
+        @Override
+        public long getGamesWon(){
+            return GAMES_WON.sum();
+        }
+
+        @Override
+        public double getHitRatio(){
+            long shots = getShots();
+            return shots == 0 ? 0 : (double) (HITS.sum() + DESTROYED.sum()) / shots;
+        }
+
+        @Override
+        public double getShotsPerSecond(){
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            return seconds <= 0 ? 0 : getShots() / seconds;
+        }
+
+        @Override
+        public long getPlacementRetries(){
+            return PLACEMENT_RETRIES.sum();
+        }
+
+        @Override
+        public long getBoardsLaidOut(){
+            return mergeLayoutTimings().getCount();
+        }
+
+        @Override
+        public double getLayoutMeanNanos(){
+            return mergeLayoutTimings().getMean();
+        }
+
+        @Override
+        public long getLayoutP99Nanos(){
+            return mergeLayoutTimings().getPercentile(99);
+        }
+
+        @Override
+        public long getLayoutMaxNanos(){
+            return mergeLayoutTimings().getMax();
+        }
+
+        @Override
+        public long getRenders(){
+            return mergeRenderTimings().getCount();
+        }
+
+        @Override
+        public double getRenderMeanNanos(){
+            return mergeRenderTimings().getMean();
+        }
+
+        @Override
+        public long getRenderP99Nanos(){
+            return mergeRenderTimings().getPercentile(99);
+        }
+
+        @Override
+        public long getRenderMaxNanos(){
+            return mergeRenderTimings().getMax();
+        }
+
+        @Override
+        public void reset(){
+            HITS.reset();
+            MISSES.reset();
+            DESTROYED.reset();
+            GAMES_WON.reset();
+            PLACEMENT_RETRIES.reset();
+
+            // Live threads clear their own timings the next time they record, until then they aren't read.
+            synchronized (LIVE_TIMINGS){
+                RETIRED_LAYOUT.reset();
+                RETIRED_RENDER.reset();
+                generation++;
+            }
+
+            startTime = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.callumgeorge.onesidedbattleships.metrics;
+
+/**
+ * Management interface the game metrics are exported through over JMX, see {@link GameMetrics}.
+ * Times are in nanoseconds.
+ */
+public interface GameMetricsMXBean {
+
+    long getShots();
+
+    long getHits();
+
+    long getMisses();
+
+    long getDestroyed();
+
+    long getGamesWon();
+
+    double getHitRatio();
+
+    double getShotsPerSecond();
+
+    long getPlacementRetries();
+
+    long getBoardsLaidOut();
+
+    double getLayoutMeanNanos();
+
+    long getLayoutP99Nanos();
+
+    long getLayoutMaxNanos();
+
+    long getRenders();
+
+    double getRenderMeanNanos();
+
+    long getRenderP99Nanos();
+
+    long getRenderMaxNanos();
+
+    /**
+     * Clear every metric and start measuring the shots per second again.
+     */
+    void reset();
+}
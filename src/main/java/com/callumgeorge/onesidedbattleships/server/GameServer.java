@@ -0,0 +1,260 @@
+package com.callumgeorge.onesidedbattleships.server;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hosts one-sided games over TCP, with a board per connection.
+ * <p>
+ * The protocol is one line per message. The client sends coordinates e.g. {@code A5}, and the server replies
+ * {@code HIT}, {@code MISS} or {@code SUNK <ship type>}. Once every ship is sunk the server also sends
+ * {@code WIN <turns>} and starts a new game on the same connection. Coordinates that aren't on the board
+ * are answered with {@code ERR}.
+ * <p>
+ * Connections are shared between a selector loop per core, so thousands of games can be played at once
+ * without a thread per game.
+ */
+public class GameServer implements Closeable {
+
+    private final int width;
+    private final int height;
+    private final ShipType[] fleet;
+
+    // SUNK line for each ship type in the fleet by its id, encoded once for every session.
+    private final byte[][] sunkLines;
+    private final int longestSunkLine;
+
+    private Board.Engine engine;
+    private int loopCount;
+
+    private ServerSocketChannel serverChannel;
+    private SessionLoop[] loops;
+    private Thread acceptThread;
+
+    /**
+     * @param width Width of the boards to play on.
+     * @param height Height of the boards to play on.
+     * @param fleet Ships to add to each board.
+     */
+    public GameServer(int width, int height, ShipType[] fleet){
+        this.width = width;
+        this.height = height;
+        this.fleet = fleet.clone();
+        this.engine = Board.Engine.BITBOARD;
+
+        int maxId = -1;
+        for(ShipType shipType : fleet)
+            maxId = Math.max(maxId, shipType.getId());
+
+        this.sunkLines = new byte[maxId + 1][];
+        int longest = 0;
+        for(ShipType shipType : fleet){
+            byte[] line = ("SUNK " + shipType.name() + "\n").getBytes(StandardCharsets.UTF_8);
+            sunkLines[shipType.getId()] = line;
+            longest = Math.max(longest, line.length);
+        }
+        this.longestSunkLine = longest;
+        this.loopCount = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Set the engine the boards will be built with. Defaults to BITBOARD.
+     * @param engine Engine to store the board state with.
+     */
+    public GameServer setEngine(Board.Engine engine){
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * Set the number of selector loops the connections are shared between. Defaults to the number of cores.
+     * @param loopCount Number of selector loops.
+     */
+    public GameServer setLoopCount(int loopCount){
+        this.loopCount = loopCount;
+        return this;
+    }
+
+    /**
+     * Start accepting connections on the port.
+     * @param port Port to listen on, or 0 to use any free port.
+     * @throws IOException If the port can't be bound.
+     */
+    public void start(int port) throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+
+        loops = new SessionLoop[loopCount];
+        for(int i = 0; i < loopCount; i++){
+            loops[i] = new SessionLoop(Selector.open());
+
+            Thread loopThread = new Thread(loops[i], "game-server-loop-" + i);
+            loopThread.setDaemon(true);
+            loopThread.start();
+        }
+
+        acceptThread = new Thread(this::acceptConnections, "game-server-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Get the port the server is listening on.
+     * @return Port number.
+     */
+    public int getPort(){
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Wait until the server has been closed.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void awaitClose() throws InterruptedException {
+        acceptThread.join();
+    }
+
+    /**
+     * Stop accepting connections and close every game.
+     */
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+
+        for(SessionLoop loop : loops)
+            loop.close();
+    }
+
+    /**
+     * Accept connections until the server is closed, handing them out to the loops in turn.
+     */
+    private void acceptConnections(){
+        int next = 0;
+
+        try {
+            while(true){
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+
+                loops[next].addConnection(channel);
+                next = (next + 1) % loops.length;
+            }
+        } catch (ClosedChannelException e){
+            // The server has been closed.
+        } catch (IOException e){
+            throw new IllegalStateException("Failed to accept a connection", e);
+        }
+    }
+
+    /**
+     * Get the encoded line announcing that a ship of the type was sunk.
+     * @param shipType Type of a ship in the fleet.
+     * @return SUNK line, ending with a line break.
+     */
+    byte[] getSunkLine(ShipType shipType){
+        return sunkLines[shipType.getId()];
+    }
+
+    /**
+     * Get the length of the longest encoded SUNK line of the fleet.
+     * @return Length in bytes.
+     */
+    int getLongestSunkLine(){
+        return longestSunkLine;
+    }
+
+    /**
+     * Build a new board for a game.
+     * @return Board with the fleet placed on it.
+     */
+    Board buildBoard(){
+        Board.BoardBuilder builder = new Board.BoardBuilder(width, height).setEngine(engine);
+
+        for(ShipType shipType : fleet)
+            builder.addShip(shipType);
+
+        return builder.build();
+    }
+
+    /**
+     * Selector loop that reads moves and writes results for its share of the connections.
+     */
+    private class SessionLoop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<SocketChannel> newConnections = new ConcurrentLinkedQueue<>();
+        private volatile boolean closed;
+
+        SessionLoop(Selector selector){
+            this.selector = selector;
+        }
+
+        void addConnection(SocketChannel channel){
+            newConnections.add(channel);
+            selector.wakeup();
+        }
+
+        void close() throws IOException {
+            closed = true;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run(){
+            try {
+                while(!closed){
+                    selector.select();
+                    registerNewConnections();
+
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while(keys.hasNext()){
+                        SelectionKey key = keys.next();
+                        keys.remove();
+
+                        GameSession session = (GameSession) key.attachment();
+                        try {
+                            if(key.isReadable() || key.isWritable())
+                                session.handle();
+                        } catch (IOException e){
+                            // The client has gone, so end its game.
+                            session.close();
+                        }
+                    }
+                }
+            } catch (IOException e){
+                throw new IllegalStateException("Game server loop failed", e);
+            } finally {
+                for(SelectionKey key : selector.keys())
+                    ((GameSession) key.attachment()).close();
+
+                try {
+                    selector.close();
+                } catch (IOException e){
+                    // Already shutting down.
+                }
+            }
+        }
+
+        private void registerNewConnections() throws IOException {
+            SocketChannel channel;
+            while((channel = newConnections.poll()) != null){
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new GameSession(GameServer.this, channel, key));
+            }
+        }
+    }
+}
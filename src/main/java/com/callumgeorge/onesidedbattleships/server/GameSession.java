@@ -0,0 +1,210 @@
+package com.callumgeorge.onesidedbattleships.server;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.utils.CoordinateUtils;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Game played over a single connection to the {@link GameServer}.
+ * Reading moves and writing results go through buffers owned by the session, so a move allocates nothing.
+ */
+class GameSession {
+
+    private static final byte[] HIT = "HIT\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MISS = "MISS\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WIN = "WIN ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERR = "ERR\n".getBytes(StandardCharsets.US_ASCII);
+
+    // Most moves parsed from a line at once, and the longest WIN line, for a turn count of up to ten digits.
+    private static final int MAX_MOVES_PER_LINE = 16;
+    private static final int MAX_WIN_LENGTH = WIN.length + 10 + 1;
+
+    private final GameServer server;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+
+    private final ByteBuffer input = ByteBuffer.allocate(1024);
+    private final ByteBuffer output;
+    private final int[] cells = new int[MAX_MOVES_PER_LINE];
+
+    // Most output a single move can produce, a SUNK line followed by a WIN line.
+    private final int maxResponseLength;
+
+    private Board board;
+    private int turnCount;
+
+    // True while the rest of a line that was too long is skipped, up to and including its end.
+    private boolean discarding;
+
+    GameSession(GameServer server, SocketChannel channel, SelectionKey key){
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+        this.board = server.buildBoard();
+        this.maxResponseLength = server.getLongestSunkLine() + MAX_WIN_LENGTH;
+        this.output = ByteBuffer.allocate(Math.max(8192, MAX_MOVES_PER_LINE * maxResponseLength));
+    }
+
+    /**
+     * Read any moves that have arrived, play them and write back the results.
+     * @throws IOException If the connection fails.
+     */
+    void handle() throws IOException {
+        if(key.isReadable() && channel.read(input) < 0){
+            close();
+            return;
+        }
+
+        // If the output filled up, carry on with the remaining moves once it has been written.
+        boolean blocked;
+        do {
+            blocked = playMoves();
+            flush();
+        } while(blocked && output.position() == 0);
+    }
+
+    /**
+     * End the game and close the connection.
+     */
+    void close(){
+        key.cancel();
+
+        try {
+            channel.close();
+        } catch (IOException e){
+            // The connection is already gone.
+        }
+    }
+
+    /**
+     * Play each complete line of moves in the input.
+     * @return True if moves are left unplayed because the output is full.
+     */
+    private boolean playMoves(){
+        input.flip();
+        boolean blocked = false;
+
+        while(input.hasRemaining()){
+            if(output.remaining() < MAX_MOVES_PER_LINE * maxResponseLength){
+                blocked = true;
+                break;
+            }
+
+            int lineEnd = findLineEnd();
+
+            // The end of a line that was dropped mustn't be played as moves of its own.
+            if(discarding){
+                if(lineEnd < 0){
+                    input.position(input.limit());
+                    break;
+                }
+
+                input.position(lineEnd + 1);
+                discarding = false;
+                continue;
+            }
+
+            if(lineEnd < 0){
+                // A line that fills the whole buffer can't be a move, so drop it along with the rest of it still to come.
+                if(input.remaining() == input.capacity()){
+                    output.put(ERR);
+                    input.position(input.limit());
+                    discarding = true;
+                }
+
+                break;
+            }
+
+            // Parse the moves up to the end of the line, and skip past it once every move on it has been parsed.
+            // A line with more moves than fit in cells is played a batch at a time.
+            int limit = input.limit();
+            input.limit(lineEnd);
+            int moveCount = CoordinateUtils.parseMoves(input, board.getWidth(), board.getHeight(), cells);
+            input.limit(limit);
+
+            if(input.position() == lineEnd)
+                input.position(lineEnd + 1);
+
+            for(int i = 0; i < moveCount; i++)
+                playMove(cells[i]);
+        }
+
+        input.compact();
+        return blocked;
+    }
+
+    /**
+     * Fire at the cell and write the result.
+     * @param cell Cell to fire at, or -1 if the move was invalid.
+     */
+    private void playMove(int cell){
+        if(cell < 0){
+            output.put(ERR);
+            return;
+        }
+
+        turnCount++;
+
+        switch (board.fireAtCell(cell)){
+            case HIT:
+                output.put(HIT);
+                break;
+            case MISS:
+                output.put(MISS);
+                break;
+            case DESTROYED:
+                output.put(server.getSunkLine(board.getShipAtCell(cell).getShipType()));
+                break;
+        }
+
+        if(board.allShipsDestroyed()){
+            output.put(WIN);
+            writeNumber(turnCount);
+            output.put((byte) '\n');
+
+            // Lay the same board out again rather than building a new one.
+            board.reset(RandomSource.threadLocal());
+            turnCount = 0;
+        }
+    }
+
+    private void writeNumber(int number){
+        int digits = 1;
+        for(int remaining = number / 10; remaining > 0; remaining /= 10)
+            digits++;
+
+        int end = output.position() + digits;
+        for(int i = end - 1; i >= output.position(); i--, number /= 10)
+            output.put(i, (byte) ('0' + number % 10));
+
+        output.position(end);
+    }
+
+    /**
+     * Find the end of the next line in the input.
+     * @return Position of the line break, or -1 if the line is incomplete.
+     */
+    private int findLineEnd(){
+        for(int i = input.position(); i < input.limit(); i++)
+            if(input.get(i) == '\n') return i;
+
+        return -1;
+    }
+
+    /**
+     * Write as much of the output as the connection will take, and wait for it to be writable if any is left.
+     */
+    private void flush() throws IOException {
+        output.flip();
+        channel.write(output);
+        output.compact();
+
+        key.interestOps(output.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+}
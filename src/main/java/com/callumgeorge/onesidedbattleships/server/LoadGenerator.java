@@ -0,0 +1,197 @@
+package com.callumgeorge.onesidedbattleships.server;
+
+import com.callumgeorge.onesidedbattleships.utils.CoordinateUtils;
+import com.callumgeorge.onesidedbattleships.utils.LatencyHistogram;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Plays games against a {@link GameServer} from many connections at once and measures how long each move takes.
+ * Every client keeps one move in flight, firing at the squares in a random order and starting again
+ * whenever the server reports a win.
+ */
+public class LoadGenerator {
+
+    // Give up if the server doesn't answer any client for this long.
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final InetSocketAddress address;
+    private final int width;
+    private final int height;
+
+    // Text of the move for each cell, shared by every client.
+    private final ByteBuffer[] moves;
+
+    /**
+     * @param address Address of the server.
+     * @param width Width of the boards the server plays on.
+     * @param height Height of the boards the server plays on.
+     */
+    public LoadGenerator(InetSocketAddress address, int width, int height){
+        this.address = address;
+        this.width = width;
+        this.height = height;
+        this.moves = new ByteBuffer[width * height];
+
+        for(int cell = 0; cell < moves.length; cell++){
+            String move = CoordinateUtils.getColumnLabel(cell % width) + (cell / width + 1) + "\n";
+            moves[cell] = ByteBuffer.wrap(move.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Connect the clients and play moves until each client has made its share.
+     * @param clients Number of connections to play from.
+     * @param movesPerClient Number of moves each connection makes.
+     * @param seed Seed for the order the squares are fired at.
+     * @return Time taken by each move in nanoseconds, from sending it to reading the result.
+     * @throws IOException If a connection fails.
+     */
+    public LatencyHistogram run(int clients, int movesPerClient, long seed) throws IOException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        RandomSource random = RandomSource.seeded(seed);
+
+        try(Selector selector = Selector.open()){
+            for(int i = 0; i < clients; i++){
+                SocketChannel channel = SocketChannel.open(address);
+                channel.socket().setTcpNoDelay(true);
+                channel.configureBlocking(false);
+
+                Client client = new Client(channel, movesPerClient, random);
+                channel.register(selector, SelectionKey.OP_READ, client);
+                client.sendMove();
+            }
+
+            int finishedClients = 0;
+            while(finishedClients < clients){
+                if(selector.select(TIMEOUT_MILLIS) == 0)
+                    throw new IllegalStateException("Timed out waiting for the server");
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while(keys.hasNext()){
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    Client client = (Client) key.attachment();
+                    if(client.readResults(histogram))
+                        finishedClients++;
+                }
+            }
+
+            for(SelectionKey key : selector.keys())
+                key.channel().close();
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Connection playing games with one move in flight.
+     */
+    private class Client {
+
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(256);
+        private final RandomSource random;
+
+        // Order the squares are fired at in the current game.
+        private final int[] order = new int[width * height];
+        private int nextMove;
+
+        private int movesLeft;
+        private long sentTime;
+
+        Client(SocketChannel channel, int moves, RandomSource random){
+            this.channel = channel;
+            this.movesLeft = moves;
+            this.random = random;
+
+            for(int i = 0; i < order.length; i++)
+                order[i] = i;
+
+            newGame();
+        }
+
+        /**
+         * Read the results that have arrived, and send the next move once the last one has been answered.
+         * @return True if the client has just made its last move.
+         */
+        boolean readResults(LatencyHistogram histogram) throws IOException {
+            if(channel.read(input) < 0)
+                throw new IllegalStateException("Server closed the connection");
+
+            input.flip();
+            boolean answered = false;
+
+            for(int lineEnd = findLineEnd(); lineEnd >= 0; lineEnd = findLineEnd()){
+                switch (input.get(input.position())){
+                    case 'W':
+                        // The server has started a new game, this isn't the result of a move.
+                        newGame();
+                        break;
+                    case 'E':
+                        throw new IllegalStateException("Server rejected a move");
+                    default:
+                        histogram.record(System.nanoTime() - sentTime);
+                        movesLeft--;
+                        answered = true;
+                }
+
+                input.position(lineEnd + 1);
+            }
+
+            input.compact();
+
+            if(!answered)
+                return false;
+
+            if(movesLeft == 0)
+                return true;
+
+            sendMove();
+            return false;
+        }
+
+        /**
+         * Send the next square in the order.
+         */
+        void sendMove() throws IOException {
+            // A game always ends by the last square, so only a win still in flight could wrap the order around.
+            ByteBuffer move = moves[order[nextMove++ % order.length]];
+            move.rewind();
+
+            sentTime = System.nanoTime();
+            while(move.hasRemaining())
+                channel.write(move);
+        }
+
+        /**
+         * Shuffle the order the squares are fired at.
+         */
+        private void newGame(){
+            for(int i = order.length - 1; i > 0; i--){
+                int swap = random.nextInt(i + 1);
+                int cell = order[i];
+                order[i] = order[swap];
+                order[swap] = cell;
+            }
+
+            nextMove = 0;
+        }
+
+        private int findLineEnd(){
+            for(int i = input.position(); i < input.limit(); i++)
+                if(input.get(i) == '\n') return i;
+
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.callumgeorge.onesidedbattleships.ships;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads a fleet from a config with a line per type of ship, giving its name, length and how many to add e.g.
+ * <pre>
+ *   # name      length  count
+ *   CARRIER     6       1
+ *   BATTLESHIP  5       2
+ *   SUBMARINE   3       4
+ * </pre>
+ * The values can be separated by spaces, tabs or commas. Blank lines and lines starting with # are skipped.
+ * Any ship types that aren't already registered are registered as they are loaded.
+ */
+public final class FleetConfig {
+
+    private FleetConfig(){
+    }
+
+    /**
+     * Load a fleet from a config file.
+     * @param path Config file to load.
+     * @return Ships to add to the board, in the order they are listed.
+     * @throws IOException If the file can't be read.
+     * @throws IllegalArgumentException If a line of the config is invalid.
+     */
+    public static ShipType[] load(Path path) throws IOException {
+        try(Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)){
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Load a fleet from a config held in a String.
+     * @param config Config to load.
+     * @return Ships to add to the board, in the order they are listed.
+     * @throws IllegalArgumentException If a line of the config is invalid.
+     */
+    public static ShipType[] parse(String config){
+        try {
+            return parse(new StringReader(config));
+        } catch (IOException e){
+            throw new IllegalStateException("Reading a String can't fail", e);
+        }
+    }
+
+    /**
+     * Load a fleet from a config.
+     * @param reader Reader for the config.
+     * @return Ships to add to the board, in the order they are listed.
+     * @throws IOException If the reader fails.
+     * @throws IllegalArgumentException If a line of the config is invalid.
+     */
+    public static ShipType[] parse(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        List<ShipType> fleet = new ArrayList<>();
+
+        String line;
+        for(int lineNumber = 1; (line = lines.readLine()) != null; lineNumber++){
+            line = line.trim();
+            if(line.isEmpty() || line.startsWith("#"))
+                continue;
+
+            String[] values = line.split("[\\s,]+");
+            if(values.length != 3)
+                throw new IllegalArgumentException(String.format(
+                        "Line %d of the fleet config should be a name, length and count: %s", lineNumber, line));
+
+            ShipType shipType;
+            int count;
+            try {
+                shipType = ShipType.register(values[0], Integer.parseInt(values[1]));
+                count = Integer.parseInt(values[2]);
+            } catch (IllegalArgumentException | IllegalStateException e){
+                throw new IllegalArgumentException(String.format(
+                        "Line %d of the fleet config is invalid: %s", lineNumber, e.getMessage()), e);
+            }
+
+            if(count < 0)
+                throw new IllegalArgumentException(String.format(
+                        "Line %d of the fleet config has a negative count: %s", lineNumber, line));
+
+            for(int i = 0; i < count; i++)
+                fleet.add(shipType);
+        }
+
+        return fleet.toArray(new ShipType[0]);
+    }
+}
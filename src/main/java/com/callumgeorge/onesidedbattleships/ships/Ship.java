@@ -10,9 +10,26 @@ public class Ship {
     private ShipType shipType;
     private ShipNode[] shipNodes;
 
+    // Number of nodes that have not been destroyed yet.
+    private int health;
+
     public Ship(ShipType shipType){
         this.shipType = shipType;
         this.shipNodes = generateShipNodes(shipType.getLength());
+        this.health = shipType.getLength();
+    }
+
+    /**
+     * Copy a ship, including which of its nodes have been destroyed.
+     * @param ship Ship to copy.
+     */
+    public Ship(Ship ship){
+        this(ship.shipType);
+
+        for(int i = 0; i < shipNodes.length; i++)
+            shipNodes[i].isDestroyed = ship.shipNodes[i].isDestroyed;
+
+        this.health = ship.health;
     }
 
     /**
@@ -48,8 +65,25 @@ public class Ship {
      * @return is the ship destroyed.
      */
     public boolean isShipDestroyed(){
-        return Arrays.stream(shipNodes)
-                .allMatch(i -> i.isDestroyed);
+        return this.health == 0;
+    }
+
+    /**
+     * Get the number of nodes on the ship that have not been destroyed.
+     * @return Remaining health of the ship, 0 once it has been destroyed.
+     */
+    public int getRemainingHealth(){
+        return this.health;
+    }
+
+    /**
+     * Repair every node of the ship, so it can be placed again for a new game.
+     */
+    public void reset(){
+        for(ShipNode shipNode : shipNodes)
+            shipNode.isDestroyed = false;
+
+        this.health = shipNodes.length;
     }
 
     /**
@@ -75,9 +109,33 @@ public class Ship {
         public boolean destroyNode(){
             if (!isDestroyed) {
                 this.isDestroyed = true;
-                return isShipDestroyed();
+                health--;
+            }
 
-            } else return isShipDestroyed();
+            return isShipDestroyed();
+        }
+
+        /**
+         * Repair this node, undoing {@link #destroyNode()}.
+         * @return True if the parent ship was destroyed before the repair, else false.
+         */
+        public boolean repairNode(){
+            if (!isDestroyed)
+                return false;
+
+            boolean wasShipDestroyed = isShipDestroyed();
+            this.isDestroyed = false;
+            health++;
+
+            return wasShipDestroyed;
+        }
+
+        /**
+         * Determine if this node has been destroyed.
+         * @return True if the node has been destroyed, else false.
+         */
+        public boolean isDestroyed(){
+            return this.isDestroyed;
         }
 
         /**
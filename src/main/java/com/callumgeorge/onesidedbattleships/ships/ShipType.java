@@ -1,16 +1,117 @@
 package com.callumgeorge.onesidedbattleships.ships;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Represents the type of the ship.
+ * BATTLESHIP and DESTROYER are always available, and further types can be registered e.g. from a fleet config.
+ * Each type has a name, a length and an id, which is its position in the registry.
  */
-public enum ShipType {
-    BATTLESHIP (5),
-    DESTROYER  (4);
+public final class ShipType {
+
+    private static final Map<String, ShipType> TYPES_BY_NAME = new HashMap<>();
+    private static volatile ShipType[] types = new ShipType[0];
+
+    public static final ShipType BATTLESHIP = register("BATTLESHIP", 5);
+    public static final ShipType DESTROYER = register("DESTROYER", 4);
 
+    private final String name;
     private final int length;
+    private final int id;
 
-    ShipType(int length){
+    private ShipType(String name, int length, int id){
+        this.name = name;
         this.length = length;
+        this.id = id;
+    }
+
+    /**
+     * Register a type of ship. Registering a name that already exists with the same length returns the existing type.
+     * @param name Name of the ship type e.g. SUBMARINE.
+     * @param length Length of the ship type.
+     * @return Registered ship type.
+     * @throws IllegalArgumentException If the name is blank or the length isn't positive.
+     * @throws IllegalStateException If the name is already registered with a different length.
+     */
+    public static synchronized ShipType register(String name, int length){
+        if(name == null || name.trim().isEmpty())
+            throw new IllegalArgumentException("A ship type needs a name");
+        if(length <= 0)
+            throw new IllegalArgumentException("The length of " + name + " must be positive, not " + length);
+
+        ShipType existing = TYPES_BY_NAME.get(name);
+        if(existing != null){
+            if(existing.length != length)
+                throw new IllegalStateException(String.format(
+                        "%s is already registered with length %d, not %d", name, existing.length, length));
+
+            return existing;
+        }
+
+        ShipType shipType = new ShipType(name, length, types.length);
+        TYPES_BY_NAME.put(name, shipType);
+
+        ShipType[] registered = Arrays.copyOf(types, types.length + 1);
+        registered[shipType.id] = shipType;
+        types = registered;
+
+        return shipType;
+    }
+
+    /**
+     * Remove the type registered last, so a type registered for a single use, e.g. by a test, doesn't stay registered.
+     * Only the last type can be removed, so the ids of the other types still give their positions in the registry.
+     * @param shipType Ship type to remove.
+     * @throws IllegalStateException If the type isn't the last one registered.
+     */
+    static synchronized void unregister(ShipType shipType){
+        if(types.length == 0 || types[types.length - 1] != shipType)
+            throw new IllegalStateException(shipType + " is not the last ship type registered");
+
+        TYPES_BY_NAME.remove(shipType.name);
+        types = Arrays.copyOf(types, types.length - 1);
+    }
+
+    /**
+     * Get the ship type registered with a name.
+     * @param name Name of the ship type.
+     * @return Registered ship type.
+     * @throws IllegalArgumentException If no ship type has the name.
+     */
+    public static synchronized ShipType valueOf(String name){
+        ShipType shipType = TYPES_BY_NAME.get(name);
+        if(shipType == null)
+            throw new IllegalArgumentException("No ship type is registered as " + name);
+
+        return shipType;
+    }
+
+    /**
+     * Get the ship type with an id.
+     * @param id Id of the ship type.
+     * @return Ship type with the id.
+     * @throws IndexOutOfBoundsException If no ship type has the id.
+     */
+    public static ShipType forId(int id){
+        return types[id];
+    }
+
+    /**
+     * Get every registered ship type, in the order they were registered.
+     * @return Registered ship types.
+     */
+    public static ShipType[] values(){
+        return types.clone();
+    }
+
+    /**
+     * Get the name of this ship type.
+     * @return Name of the ship type.
+     */
+    public String name(){
+        return this.name;
     }
 
     /**
@@ -20,4 +121,18 @@ public enum ShipType {
     public int getLength(){
         return this.length;
     }
+
+    /**
+     * Get the id of this ship type, which is its position in the registry.
+     * Ids depend on the order types are registered in, so only BATTLESHIP (0) and DESTROYER (1) are fixed.
+     * @return Id of the ship type.
+     */
+    public int getId(){
+        return this.id;
+    }
+
+    @Override
+    public String toString(){
+        return this.name;
+    }
 }
@@ -0,0 +1,390 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts every distinct layout of a fleet on a board, and how many of those layouts cover each square.
+ * <p>
+ * A layout is the set of squares each ship covers, so ships of the same type are interchangeable
+ * and a ship covering the same squares from either end is one layout.
+ * Dividing the layouts covering a square by the total gives the exact chance of a ship being there,
+ * when every layout is equally likely.
+ * <p>
+ * Ships are placed one at a time with the occupied squares held as a bitmask per row, so checking a placement
+ * and counting the placements left for the last ship are a few bitwise operations. The number of ways to finish
+ * from an occupancy is remembered, as placing the same ships in a different order reaches the same occupancy.
+ * The placements of the first ship are counted in parallel on the common fork-join pool.
+ */
+public class LayoutEnumerator {
+
+    private final int width;
+    private final int height;
+    private final long fullRow;
+
+    // Distinct ship types, longest first, and how many of each are in the fleet.
+    private final ShipType[] shipTypes;
+    private final int[] shipCounts;
+    private final int shipTotal;
+
+    // Placements of each ship type, as the rows they cover and the bits they cover in each of those rows.
+    private final int[][] placementFirstRows;
+    private final int[][] placementRowCounts;
+    private final long[][] placementBits;
+
+    private final Map<Occupancy, Long> memo = new ConcurrentHashMap<>();
+
+    /**
+     * @param width Width of the board, at most 64.
+     * @param height Height of the board.
+     * @param fleet Ships to lay out on the board.
+     * @throws IllegalArgumentException If the board is wider than 64 squares.
+     */
+    public LayoutEnumerator(int width, int height, ShipType[] fleet){
+        if(width <= 0 || width > Long.SIZE || height <= 0)
+            throw new IllegalArgumentException("Layouts can only be counted on boards 1 to 64 squares wide, not " + width + "x" + height);
+
+        this.width = width;
+        this.height = height;
+        this.fullRow = width == Long.SIZE ? -1L : (1L << width) - 1;
+
+        // Longer ships have fewer placements, so placing them first keeps the search narrow.
+        ShipType[] distinct = Arrays.stream(fleet).distinct()
+                .sorted(Comparator.comparingInt(ShipType::getLength).reversed())
+                .toArray(ShipType[]::new);
+
+        this.shipTypes = distinct;
+        this.shipCounts = new int[distinct.length];
+        for(ShipType shipType : fleet)
+            shipCounts[Arrays.asList(distinct).indexOf(shipType)]++;
+        this.shipTotal = fleet.length;
+
+        this.placementFirstRows = new int[distinct.length][];
+        this.placementRowCounts = new int[distinct.length][];
+        this.placementBits = new long[distinct.length][];
+        for(int t = 0; t < distinct.length; t++)
+            listPlacements(t, distinct[t].getLength());
+    }
+
+    /**
+     * Count the layouts of the fleet and the layouts covering each square.
+     * @return Layout counts for the board.
+     * @throws ArithmeticException If there are too many layouts to count in a long.
+     */
+    public LayoutCount count(){
+        long[] covering = new long[width * height];
+        long layouts = 0;
+
+        if(shipTotal == 0)
+            return new LayoutCount(width, height, 1, covering);
+
+        // Fixing one ship of a type at a placement, the layouts of the rest of the fleet are the layouts
+        // that have a ship of that type there. Only the counts for the first type are needed for the total.
+        List<PlacementCount> placementCounts = new ArrayList<>();
+        for(int t = 0; t < shipTypes.length; t++)
+            for(int p = 0; p < placementBits[t].length; p++)
+                placementCounts.add(new PlacementCount(t, p));
+
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute(){
+                ForkJoinTask.invokeAll(placementCounts);
+            }
+        });
+
+        for(PlacementCount placementCount : placementCounts){
+            int t = placementCount.shipType;
+            int p = placementCount.placement;
+            long count = placementCount.join();
+
+            if(t == 0)
+                layouts = Math.addExact(layouts, count);
+
+            for(int row = 0; row < placementRowCounts[t][p]; row++){
+                int y = placementFirstRows[t][p] + row;
+                for(long bits = placementBits[t][p]; bits != 0; bits &= bits - 1){
+                    int cell = y * width + Long.numberOfTrailingZeros(bits);
+                    covering[cell] = Math.addExact(covering[cell], count);
+                }
+            }
+        }
+
+        // Each layout was counted once for every ship of the first type it could have placed first.
+        return new LayoutCount(width, height, layouts / shipCounts[0], covering);
+    }
+
+    /**
+     * Count the layouts of the remaining ships on the squares that are not occupied.
+     * @param rows Occupied squares of each row, restored before returning.
+     * @param remaining Number of each ship type left to place, restored before returning.
+     * @param remainingTotal Number of ships left to place.
+     * @return Number of layouts.
+     */
+    private long countLayouts(long[] rows, int[] remaining, int remainingTotal){
+        if(remainingTotal == 0)
+            return 1;
+
+        int t = 0;
+        while(remaining[t] == 0)
+            t++;
+
+        if(remainingTotal == 1)
+            return countPlacements(rows, shipTypes[t].getLength());
+
+        // Two ships rarely reach the same occupancy, so they aren't worth remembering.
+        if(remainingTotal == 2)
+            return placeNextShip(rows, remaining, t, remainingTotal);
+
+        Occupancy occupancy = new Occupancy(rows.clone(), remaining.clone());
+        Long memoised = memo.get(occupancy);
+        if(memoised != null)
+            return memoised;
+
+        long count = placeNextShip(rows, remaining, t, remainingTotal);
+        memo.put(occupancy, count);
+        return count;
+    }
+
+    /**
+     * Count the layouts of the remaining ships by placing one ship of a type at each of its free placements.
+     * @param rows Occupied squares of each row, restored before returning.
+     * @param remaining Number of each ship type left to place, restored before returning.
+     * @param t Type of the ship to place.
+     * @param remainingTotal Number of ships left to place.
+     * @return Number of layouts.
+     */
+    private long placeNextShip(long[] rows, int[] remaining, int t, int remainingTotal){
+        long count = 0;
+        int[] firstRows = placementFirstRows[t];
+        int[] rowCounts = placementRowCounts[t];
+        long[] bits = placementBits[t];
+
+        remaining[t]--;
+        for(int p = 0; p < bits.length; p++){
+            if(!isFree(rows, firstRows[p], rowCounts[p], bits[p]))
+                continue;
+
+            setRows(rows, firstRows[p], rowCounts[p], bits[p]);
+            count = Math.addExact(count, countLayouts(rows, remaining, remainingTotal - 1));
+            clearRows(rows, firstRows[p], rowCounts[p], bits[p]);
+        }
+        remaining[t]++;
+
+        // Any of the ships of this type could have been the one placed, so each layout was counted that many times.
+        return count / remaining[t];
+    }
+
+    /**
+     * Count the placements of a ship that don't overlap the occupied squares.
+     * @param rows Occupied squares of each row.
+     * @param length Length of the ship.
+     * @return Number of placements.
+     */
+    private long countPlacements(long[] rows, int length){
+        long count = 0;
+
+        // A placement starts wherever the following length squares of the row are all free.
+        for(int y = 0; y < height; y++){
+            long free = ~rows[y] & fullRow;
+            long starts = free;
+            for(int i = 1; i < length && starts != 0; i++)
+                starts &= free >>> i;
+
+            count += Long.bitCount(starts);
+        }
+
+        // A ship of length 1 covers the same square in either direction, so it was already counted.
+        if(length == 1)
+            return count;
+
+        for(int y = 0; y + length <= height; y++){
+            long starts = fullRow;
+            for(int i = 0; i < length && starts != 0; i++)
+                starts &= ~rows[y + i];
+
+            count += Long.bitCount(starts);
+        }
+
+        return count;
+    }
+
+    /**
+     * Record every placement of a ship type that stays on the board.
+     */
+    private void listPlacements(int t, int length){
+        List<int[]> rows = new ArrayList<>();
+        List<Long> bits = new ArrayList<>();
+        long shipBits = length == Long.SIZE ? -1L : (1L << length) - 1;
+
+        for(int y = 0; y < height; y++){
+            for(int x = 0; x + length <= width; x++){
+                rows.add(new int[]{y, 1});
+                bits.add(shipBits << x);
+            }
+        }
+
+        if(length > 1){
+            for(int y = 0; y + length <= height; y++){
+                for(int x = 0; x < width; x++){
+                    rows.add(new int[]{y, length});
+                    bits.add(1L << x);
+                }
+            }
+        }
+
+        placementFirstRows[t] = new int[rows.size()];
+        placementRowCounts[t] = new int[rows.size()];
+        placementBits[t] = new long[rows.size()];
+
+        for(int p = 0; p < rows.size(); p++){
+            placementFirstRows[t][p] = rows.get(p)[0];
+            placementRowCounts[t][p] = rows.get(p)[1];
+            placementBits[t][p] = bits.get(p);
+        }
+    }
+
+    private static boolean isFree(long[] rows, int firstRow, int rowCount, long bits){
+        for(int y = firstRow; y < firstRow + rowCount; y++)
+            if((rows[y] & bits) != 0) return false;
+
+        return true;
+    }
+
+    private static void setRows(long[] rows, int firstRow, int rowCount, long bits){
+        for(int y = firstRow; y < firstRow + rowCount; y++)
+            rows[y] |= bits;
+    }
+
+    private static void clearRows(long[] rows, int firstRow, int rowCount, long bits){
+        for(int y = firstRow; y < firstRow + rowCount; y++)
+            rows[y] &= ~bits;
+    }
+
+    /**
+     * Counts the layouts with one ship of a type fixed at one of its placements.
+     */
+    private class PlacementCount extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int shipType;
+        private final int placement;
+
+        PlacementCount(int shipType, int placement){
+            this.shipType = shipType;
+            this.placement = placement;
+        }
+
+        @Override
+        protected Long compute(){
+            long[] rows = new long[height];
+            setRows(rows, placementFirstRows[shipType][placement], placementRowCounts[shipType][placement],
+                    placementBits[shipType][placement]);
+
+            int[] remaining = shipCounts.clone();
+            remaining[shipType]--;
+
+            return countLayouts(rows, remaining, shipTotal - 1);
+        }
+    }
+
+    /**
+     * Occupied squares and the ships left to place, used as the key of the memo.
+     */
+    private static final class Occupancy {
+
+        private final long[] rows;
+        private final int[] remaining;
+        private final int hash;
+
+        Occupancy(long[] rows, int[] remaining){
+            this.rows = rows;
+            this.remaining = remaining;
+            this.hash = 31 * Arrays.hashCode(rows) + Arrays.hashCode(remaining);
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if(this == o) return true;
+            if(!(o instanceof Occupancy)) return false;
+
+            Occupancy other = (Occupancy) o;
+            return hash == other.hash && Arrays.equals(rows, other.rows) && Arrays.equals(remaining, other.remaining);
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+    }
+
+    /**
+     * Number of layouts of a fleet on a board, in total and covering each square.
+     */
+    public static class LayoutCount {
+
+        private final int width;
+        private final int height;
+        private final long layouts;
+        private final long[] covering;
+
+        LayoutCount(int width, int height, long layouts, long[] covering){
+            this.width = width;
+            this.height = height;
+            this.layouts = layouts;
+            this.covering = covering;
+        }
+
+        /**
+         * Get the number of distinct layouts of the fleet.
+         * @return Number of layouts, 0 if the fleet doesn't fit on the board.
+         */
+        public long getLayoutCount(){
+            return layouts;
+        }
+
+        /**
+         * Get the number of layouts that have a ship on a square.
+         * @param cell Cell of the square.
+         * @return Number of layouts covering the square.
+         */
+        public long getCoveringCount(int cell){
+            return covering[cell];
+        }
+
+        /**
+         * Get the chance of a ship being on a square, when every layout is equally likely.
+         * @param cell Cell of the square.
+         * @return Fraction of the layouts covering the square.
+         */
+        public double getOccupancyProbability(int cell){
+            return layouts == 0 ? 0 : (double) covering[cell] / layouts;
+        }
+
+        @Override
+        public String toString(){
+            StringBuilder builder = new StringBuilder()
+                    .append(String.format("Layouts: %d%n", layouts))
+                    .append(String.format("Chance of a ship on each square (%%):%n"));
+
+            for(int y = 0; y < height; y++){
+                for(int x = 0; x < width; x++)
+                    builder.append(String.format("%6.2f", 100 * getOccupancyProbability(y * width + x)));
+
+                builder.append(System.lineSeparator());
+            }
+
+            return builder.toString();
+        }
+    }
+}
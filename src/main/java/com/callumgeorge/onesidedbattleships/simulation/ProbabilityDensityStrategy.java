@@ -0,0 +1,401 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+
+import java.util.Arrays;
+
+/**
+ * Fires at the square that the most of the remaining ships could still be placed over.
+ * <p>
+ * A density map holds, for every square, how many placements of the remaining ships cover it without
+ * covering a MISS or a destroyed ship. Rather than being recalculated, the map is updated after each shot
+ * by removing only the placements that covered the square that was fired at.
+ * <p>
+ * After a HIT the strategy hunts around the damaged ship, scoring the neighbouring squares by how many
+ * placements cover both them and the hit squares, until the ship is destroyed.
+ */
+public class ProbabilityDensityStrategy implements TargetingStrategy {
+
+    // States of the squares as seen by the strategy.
+    private static final byte UNKNOWN = 0;
+    private static final byte MISS = 1;
+    private static final byte HIT = 2;
+    private static final byte SUNK = 3;
+
+    private int width;
+    private int height;
+    private RandomSource random;
+
+    private byte[] states = new byte[0];
+
+    // Number of placements of the remaining ships that cover each square.
+    private int[] density = new int[0];
+
+    // Distinct ship lengths in the fleet, how many of each are left, and the placements of one ship of each length.
+    private int[] lengths;
+    private int[] remaining;
+    private int[][] coverage;
+
+    // Scratch space for counting the fleet.
+    private int[] fleetLengths = new int[0];
+    private int[] fleetCounts = new int[0];
+
+    // Squares that have been hit, but whose ship has not been destroyed yet.
+    private int[] openHits = new int[0];
+    private int openHitCount;
+
+    // Scores used when hunting around the open hits, and the squares that have been scored.
+    private int[] scores = new int[0];
+    private int[] scoredCells = new int[0];
+
+    @Override
+    public void newGame(int width, int height, ShipType[] fleet, RandomSource random){
+        int cellCount = width * height;
+
+        this.width = width;
+        this.height = height;
+        this.random = random;
+
+        if(states.length != cellCount){
+            states = new byte[cellCount];
+            density = new int[cellCount];
+            openHits = new int[cellCount];
+            scores = new int[cellCount];
+            scoredCells = new int[cellCount];
+        } else {
+            Arrays.fill(states, UNKNOWN);
+            Arrays.fill(density, 0);
+        }
+
+        openHitCount = 0;
+        countFleet(fleet);
+
+        // Count every placement of each length on the empty board.
+        for(int li = 0; li < lengths.length; li++){
+            int length = lengths[li];
+            int[] lengthCoverage = coverage[li];
+
+            for(int y = 0; y < height; y++){
+                for(int x = 0; x < width; x++){
+                    int placements = countStarts(x, width, length) + countStarts(y, height, length);
+                    lengthCoverage[y * width + x] = placements;
+                    density[y * width + x] += remaining[li] * placements;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int nextTarget(){
+        if(openHitCount > 0){
+            int target = huntAroundHits();
+            if(target >= 0) return target;
+        }
+
+        // Choose the unknown square with the highest density, breaking ties at random.
+        int best = -1;
+        int bestDensity = -1;
+        int ties = 0;
+
+        for(int cell = 0; cell < states.length; cell++){
+            if(states[cell] != UNKNOWN)
+                continue;
+
+            if(density[cell] > bestDensity){
+                best = cell;
+                bestDensity = density[cell];
+                ties = 1;
+            } else if(density[cell] == bestDensity && random.nextInt(++ties) == 0){
+                best = cell;
+            }
+        }
+
+        return best;
+    }
+
+    @Override
+    public void recordResult(int cell, Board.ShotResult result, ShipType sunkShipType){
+        if(states[cell] != UNKNOWN)
+            return;
+
+        switch (result){
+            case MISS:
+                states[cell] = MISS;
+                block(cell);
+                break;
+            case HIT:
+                states[cell] = HIT;
+                openHits[openHitCount++] = cell;
+                break;
+            case DESTROYED:
+                states[cell] = HIT;
+                openHits[openHitCount++] = cell;
+                sink(cell, sunkShipType.getLength());
+                break;
+        }
+    }
+
+    /**
+     * Get the number of placements of the remaining ships that cover a square.
+     * @param cell Cell of the square.
+     * @return Density of the square.
+     */
+    int getDensity(int cell){
+        return density[cell];
+    }
+
+    /**
+     * Record the distinct ship lengths in the fleet and how many ships there are of each length.
+     * @param fleet Ships that have been placed on the board.
+     */
+    private void countFleet(ShipType[] fleet){
+        if(fleetLengths.length < fleet.length){
+            fleetLengths = new int[fleet.length];
+            fleetCounts = new int[fleet.length];
+        }
+
+        Arrays.fill(fleetCounts, 0);
+        int distinct = 0;
+
+        for(ShipType shipType : fleet){
+            int li = 0;
+            while(li < distinct && fleetLengths[li] != shipType.getLength())
+                li++;
+
+            if(li == distinct)
+                fleetLengths[distinct++] = shipType.getLength();
+
+            fleetCounts[li]++;
+        }
+
+        // Keep the arrays from the last game if it had the same fleet and board size, so a new game allocates nothing.
+        if(!isSameFleet(distinct)){
+            lengths = Arrays.copyOf(fleetLengths, distinct);
+            remaining = new int[distinct];
+            coverage = new int[distinct][width * height];
+        }
+
+        System.arraycopy(fleetCounts, 0, remaining, 0, distinct);
+    }
+
+    /**
+     * Determine if the fleet just counted has the same ship lengths as the last game, on the same size of board.
+     * @param distinct Number of distinct ship lengths that were counted.
+     */
+    private boolean isSameFleet(int distinct){
+        if(lengths == null || lengths.length != distinct || (distinct > 0 && coverage[0].length != width * height))
+            return false;
+
+        for(int li = 0; li < distinct; li++)
+            if(lengths[li] != fleetLengths[li]) return false;
+
+        return true;
+    }
+
+    /**
+     * Count the placements of a ship that cover a position along a line.
+     * @param position Position along the line.
+     * @param lineLength Length of the line.
+     * @param length Length of the ship.
+     * @return Number of starting positions for the ship that cover the position.
+     */
+    private static int countStarts(int position, int lineLength, int length){
+        int first = Math.max(0, position - length + 1);
+        int last = Math.min(position, lineLength - length);
+
+        return Math.max(0, last - first + 1);
+    }
+
+    /**
+     * Remove every placement covering a square that can no longer hold a ship.
+     * Only the placements covering that square change, so only they are visited.
+     * @param cell Cell that has been blocked.
+     */
+    private void block(int cell){
+        int x = cell % width;
+        int y = cell / width;
+
+        for(int li = 0; li < lengths.length; li++){
+            int length = lengths[li];
+
+            for(int start = Math.max(0, x - length + 1); start <= Math.min(x, width - length); start++)
+                removePlacement(li, y * width + start, 1, length, cell);
+
+            for(int start = Math.max(0, y - length + 1); start <= Math.min(y, height - length); start++)
+                removePlacement(li, start * width + x, width, length, cell);
+        }
+    }
+
+    /**
+     * Remove a placement from the density map, if it was still possible before the square was blocked.
+     * @param li Index of the ship length.
+     * @param startCell First cell of the placement.
+     * @param step Distance between the cells of the placement.
+     * @param length Length of the placement.
+     * @param blockedCell Cell that has just been blocked.
+     */
+    private void removePlacement(int li, int startCell, int step, int length, int blockedCell){
+        for(int i = 0, cell = startCell; i < length; i++, cell += step)
+            if(cell != blockedCell && isBlocked(cell)) return;
+
+        int[] lengthCoverage = coverage[li];
+        for(int i = 0, cell = startCell; i < length; i++, cell += step){
+            lengthCoverage[cell]--;
+            density[cell] -= remaining[li];
+        }
+    }
+
+    /**
+     * Record a ship of the given length as destroyed by the shot at the cell.
+     * The hit squares in a line through the cell that must have been the ship can no longer hold another ship.
+     * @param cell Cell of the shot that destroyed the ship.
+     * @param length Length of the destroyed ship.
+     */
+    private void sink(int cell, int length){
+        int li = 0;
+        while(lengths[li] != length)
+            li++;
+
+        // One fewer ship of this length can be placed.
+        int[] lengthCoverage = coverage[li];
+        for(int i = 0; i < density.length; i++)
+            density[i] -= lengthCoverage[i];
+        remaining[li]--;
+
+        // Find the lines of open hits through the cell that the ship could have been.
+        int x = cell % width;
+        int y = cell / width;
+        int firstRowStart = -1;
+        int lastRowStart = -1;
+        int firstColumnStart = -1;
+        int lastColumnStart = -1;
+
+        for(int start = Math.max(0, x - length + 1); start <= Math.min(x, width - length); start++){
+            if(isOpenHitLine(y * width + start, 1, length)){
+                if(firstRowStart < 0) firstRowStart = start;
+                lastRowStart = start;
+            }
+        }
+
+        for(int start = Math.max(0, y - length + 1); start <= Math.min(y, height - length); start++){
+            if(isOpenHitLine(start * width + x, width, length)){
+                if(firstColumnStart < 0) firstColumnStart = start;
+                lastColumnStart = start;
+            }
+        }
+
+        // Only the squares shared by every possible line are known to be the ship, the rest are left as open hits.
+        // If the ship could lie along either axis, only the final shot is known.
+        int shipStart = cell;
+        int shipLength = 1;
+        int step = 1;
+
+        if(firstRowStart >= 0 && firstColumnStart < 0){
+            shipStart = y * width + lastRowStart;
+            shipLength = firstRowStart + length - lastRowStart;
+        } else if(firstColumnStart >= 0 && firstRowStart < 0){
+            shipStart = lastColumnStart * width + x;
+            shipLength = firstColumnStart + length - lastColumnStart;
+            step = width;
+        }
+
+        for(int i = 0, shipCell = shipStart; i < shipLength; i++, shipCell += step){
+            states[shipCell] = SUNK;
+            removeOpenHit(shipCell);
+            block(shipCell);
+        }
+    }
+
+    /**
+     * Determine if every square in a line is an open hit.
+     */
+    private boolean isOpenHitLine(int startCell, int step, int length){
+        for(int i = 0, cell = startCell; i < length; i++, cell += step)
+            if(states[cell] != HIT) return false;
+
+        return true;
+    }
+
+    /**
+     * Remove a cell from the open hits.
+     */
+    private void removeOpenHit(int cell){
+        for(int i = 0; i < openHitCount; i++){
+            if(openHits[i] == cell){
+                openHits[i] = openHits[--openHitCount];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Score the unknown squares by the placements that cover them and an open hit, and choose the highest.
+     * @return Cell to fire at, or -1 if no placement covers an open hit.
+     */
+    private int huntAroundHits(){
+        int scoredCount = 0;
+
+        for(int h = 0; h < openHitCount; h++){
+            int hit = openHits[h];
+            int x = hit % width;
+            int y = hit / width;
+
+            for(int li = 0; li < lengths.length; li++){
+                int length = lengths[li];
+                if(remaining[li] == 0) continue;
+
+                for(int start = Math.max(0, x - length + 1); start <= Math.min(x, width - length); start++)
+                    scoredCount = scorePlacement(li, y * width + start, 1, length, scoredCount);
+
+                for(int start = Math.max(0, y - length + 1); start <= Math.min(y, height - length); start++)
+                    scoredCount = scorePlacement(li, start * width + x, width, length, scoredCount);
+            }
+        }
+
+        int best = -1;
+        int bestScore = 0;
+
+        for(int i = 0; i < scoredCount; i++){
+            int cell = scoredCells[i];
+
+            // Break ties by the density, so the hunt still favours the likelier squares.
+            if(scores[cell] > bestScore || (scores[cell] == bestScore && density[cell] > density[best])){
+                best = cell;
+                bestScore = scores[cell];
+            }
+
+            scores[cell] = 0;
+        }
+
+        return best;
+    }
+
+    /**
+     * Add a placement to the scores of its unknown squares, if none of its squares are blocked.
+     * @return Number of squares that have now been scored.
+     */
+    private int scorePlacement(int li, int startCell, int step, int length, int scoredCount){
+        for(int i = 0, cell = startCell; i < length; i++, cell += step)
+            if(isBlocked(cell)) return scoredCount;
+
+        for(int i = 0, cell = startCell; i < length; i++, cell += step){
+            if(states[cell] != UNKNOWN) continue;
+
+            if(scores[cell] == 0)
+                scoredCells[scoredCount++] = cell;
+
+            scores[cell] += remaining[li];
+        }
+
+        return scoredCount;
+    }
+
+    /**
+     * Determine if a square can no longer hold a ship that is still afloat.
+     */
+    private boolean isBlocked(int cell){
+        return states[cell] == MISS || states[cell] == SUNK;
+    }
+}
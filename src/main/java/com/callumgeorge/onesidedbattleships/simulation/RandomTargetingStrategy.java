@@ -0,0 +1,48 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+
+/**
+ * Fires at the squares in a random order, never firing at the same square twice.
+ */
+public class RandomTargetingStrategy implements TargetingStrategy {
+
+    // Cells that have not been fired at are kept at the front of the array.
+    private int[] cells = new int[0];
+    private int remaining;
+    private RandomSource random;
+
+    @Override
+    public void newGame(int width, int height, ShipType[] fleet, RandomSource random){
+        int cellCount = width * height;
+
+        if(cells.length != cellCount)
+            cells = new int[cellCount];
+
+        for(int i = 0; i < cellCount; i++)
+            cells[i] = i;
+
+        this.remaining = cellCount;
+        this.random = random;
+    }
+
+    @Override
+    public int nextTarget(){
+        // Swap a random remaining cell to the end of the remaining cells, so it won't be chosen again.
+        int index = random.nextInt(remaining);
+        int cell = cells[index];
+
+        remaining--;
+        cells[index] = cells[remaining];
+        cells[remaining] = cell;
+
+        return cell;
+    }
+
+    @Override
+    public void recordResult(int cell, Board.ShotResult result, ShipType sunkShipType){
+        // The order is already decided, so the results make no difference.
+    }
+}
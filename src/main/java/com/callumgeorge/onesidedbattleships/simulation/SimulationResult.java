@@ -0,0 +1,127 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+/**
+ * Distribution of the number of turns taken to win the simulated games.
+ */
+public class SimulationResult {
+
+    // Standard normal quantile for a two sided 95% confidence interval.
+    static final double Z_95 = 1.959964;
+
+    // Number of games that took each number of turns, indexed by the turn count.
+    private final long[] turnCounts;
+    private final long games;
+
+    SimulationResult(long[] turnCounts){
+        this.turnCounts = turnCounts;
+
+        long games = 0;
+        for(long count : turnCounts)
+            games += count;
+
+        this.games = games;
+    }
+
+    /**
+     * Get the number of games that were played.
+     * @return Number of games.
+     */
+    public long getGames(){
+        return games;
+    }
+
+    /**
+     * Get the number of games that took exactly the given number of turns.
+     * @param turns Number of turns.
+     * @return Number of games.
+     */
+    public long getGamesWithTurns(int turns){
+        return turns >= 0 && turns < turnCounts.length ? turnCounts[turns] : 0;
+    }
+
+    /**
+     * Get the fewest turns any game took.
+     * @return Minimum number of turns, or 0 if no games were played.
+     */
+    public int getMinTurns(){
+        for(int turns = 0; turns < turnCounts.length; turns++)
+            if(turnCounts[turns] != 0) return turns;
+
+        return 0;
+    }
+
+    /**
+     * Get the most turns any game took.
+     * @return Maximum number of turns, or 0 if no games were played.
+     */
+    public int getMaxTurns(){
+        for(int turns = turnCounts.length - 1; turns >= 0; turns--)
+            if(turnCounts[turns] != 0) return turns;
+
+        return 0;
+    }
+
+    /**
+     * Get the mean number of turns the games took.
+     * @return Mean number of turns, or 0 if no games were played.
+     */
+    public double getMeanTurns(){
+        if(games == 0)
+            return 0;
+
+        double totalTurns = 0;
+        for(int turns = 0; turns < turnCounts.length; turns++)
+            totalTurns += (double) turns * turnCounts[turns];
+
+        return totalTurns / games;
+    }
+
+    /**
+     * Get the sample standard deviation of the number of turns the games took.
+     * @return Standard deviation of the turns, or 0 if fewer than two games were played.
+     */
+    public double getStandardDeviation(){
+        if(games < 2)
+            return 0;
+
+        double mean = getMeanTurns();
+        double sumOfSquares = 0;
+        for(int turns = 0; turns < turnCounts.length; turns++)
+            sumOfSquares += (turns - mean) * (turns - mean) * turnCounts[turns];
+
+        return Math.sqrt(sumOfSquares / (games - 1));
+    }
+
+    /**
+     * Get the half width of the 95% confidence interval for the mean number of turns,
+     * i.e. the true mean lies within the mean plus or minus this, 95% of the time.
+     * Uses the normal approximation, which is close enough once more than a few dozen games have been played.
+     * @return Half width of the confidence interval, or 0 if fewer than two games were played.
+     */
+    public double getMeanConfidenceInterval(){
+        return games < 2 ? 0 : Z_95 * getStandardDeviation() / Math.sqrt(games);
+    }
+
+    /**
+     * Get the number of turns that the given percentage of games finished within.
+     * @param percentile Percentage of games, between 0 and 100.
+     * @return Number of turns, or 0 if no games were played.
+     */
+    public int getPercentileTurns(double percentile){
+        long target = (long) Math.ceil(games * percentile / 100.0);
+        long seen = 0;
+
+        for(int turns = 0; turns < turnCounts.length; turns++){
+            seen += turnCounts[turns];
+            if(seen >= target && seen != 0) return turns;
+        }
+
+        return 0;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("games=%d min=%d p50=%d mean=%.2f+/-%.2f p99=%d max=%d", games, getMinTurns(),
+                getPercentileTurns(50), getMeanTurns(), getMeanConfidenceInterval(), getPercentileTurns(99), getMaxTurns());
+    }
+}
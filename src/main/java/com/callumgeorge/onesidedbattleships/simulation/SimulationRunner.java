@@ -0,0 +1,169 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardPool;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+import com.callumgeorge.onesidedbattleships.utils.SeededRandomSource;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games without a human across all of the available cores, and collects how many turns each game took.
+ * Each game is laid out from its own seed, so a simulation run with the same seed always gives the same result.
+ * The boards come from a {@link BoardPool}, so the steady state of a run allocates nothing per game.
+ */
+public class SimulationRunner {
+
+    // Games played by a task before it is split no further.
+    private static final int GAMES_PER_TASK = 64;
+
+    // Mixes the seed of a game into a separate seed for the strategy's random choices.
+    private static final long STRATEGY_SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final int width;
+    private final int height;
+    private final ShipType[] fleet;
+    private final Supplier<? extends TargetingStrategy> strategyFactory;
+
+    private Board.Engine engine;
+    private ForkJoinPool pool;
+
+    /**
+     * @param width Width of the boards to play on.
+     * @param height Height of the boards to play on.
+     * @param fleet Ships to add to each board.
+     * @param strategyFactory Creates the strategies that play the games, each strategy is used by one thread.
+     */
+    public SimulationRunner(int width, int height, ShipType[] fleet, Supplier<? extends TargetingStrategy> strategyFactory){
+        this.width = width;
+        this.height = height;
+        this.fleet = fleet.clone();
+        this.strategyFactory = strategyFactory;
+        this.engine = Board.Engine.BITBOARD;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Set the engine the boards will be built with. Defaults to BITBOARD.
+     * @param engine Engine to store the board state with.
+     */
+    public SimulationRunner setEngine(Board.Engine engine){
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * Set the pool the games are played on. Defaults to the common fork-join pool.
+     * @param pool Pool to play the games on.
+     */
+    public SimulationRunner setPool(ForkJoinPool pool){
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Play the games and collect the results.
+     * @param games Number of games to play.
+     * @param seed Seed for the first game, each following game uses the next seed.
+     * @return Turn counts of the games.
+     */
+    public SimulationResult run(int games, long seed){
+        AtomicLongArray turnCounts = new AtomicLongArray(width * height + 1);
+        pool.invoke(new GamesTask(turnCounts, seed, 0, games));
+
+        long[] histogram = new long[turnCounts.length()];
+        for(int i = 0; i < histogram.length; i++)
+            histogram[i] = turnCounts.get(i);
+
+        return new SimulationResult(histogram);
+    }
+
+    /**
+     * Play a single game until every ship has been destroyed.
+     * @param board Board to play on.
+     * @param fleet Ships that have been added to the board.
+     * @param strategy Strategy choosing the squares to fire at.
+     * @param random Source of the strategy's random choices.
+     * @return Number of turns taken to destroy every ship.
+     * @throws IllegalStateException If the strategy takes more turns than there are squares on the board.
+     */
+    public static int playGame(Board board, ShipType[] fleet, TargetingStrategy strategy, RandomSource random){
+        int boardWidth = board.getWidth();
+        int maxTurns = boardWidth * board.getHeight();
+        int turnCount = 0;
+
+        strategy.newGame(boardWidth, board.getHeight(), fleet, random);
+
+        while(!board.allShipsDestroyed()){
+            if(turnCount == maxTurns)
+                throw new IllegalStateException(strategy.getClass().getSimpleName()
+                        + " did not destroy every ship within " + maxTurns + " turns");
+
+            turnCount++;
+
+            int cell = strategy.nextTarget();
+
+            Board.ShotResult shotResult = board.fireAtCell(cell);
+            ShipType sunkShipType = shotResult == Board.ShotResult.DESTROYED ? board.getShipAtCell(cell).getShipType() : null;
+
+            strategy.recordResult(cell, shotResult, sunkShipType);
+        }
+
+        return turnCount;
+    }
+
+    /**
+     * Plays a range of games, splitting the range between other tasks while it is large.
+     */
+    private class GamesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final AtomicLongArray turnCounts;
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        GamesTask(AtomicLongArray turnCounts, long seed, int from, int to){
+            this.turnCounts = turnCounts;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from > GAMES_PER_TASK){
+                int middle = (from + to) >>> 1;
+                invokeAll(new GamesTask(turnCounts, seed, from, middle),
+                        new GamesTask(turnCounts, seed, middle, to));
+                return;
+            }
+
+            // Count locally, then add the counts to the shared histogram once the games are done.
+            long[] localCounts = new long[turnCounts.length()];
+            TargetingStrategy strategy = strategyFactory.get();
+
+            // Boards and random sources are reused between games, so a game allocates nothing once the thread is warm.
+            BoardPool boards = BoardPool.of(width, height, engine, fleet);
+            SeededRandomSource placementRandom = new SeededRandomSource(seed);
+            SeededRandomSource strategyRandom = new SeededRandomSource(seed);
+
+            for(int game = from; game < to; game++){
+                long gameSeed = seed + game;
+
+                Board board = boards.acquire(placementRandom.setSeed(gameSeed));
+                localCounts[playGame(board, fleet, strategy, strategyRandom.setSeed(gameSeed * STRATEGY_SEED_MULTIPLIER))]++;
+                boards.release(board);
+            }
+
+            for(int turns = 0; turns < localCounts.length; turns++)
+                if(localCounts[turns] != 0)
+                    turnCounts.addAndGet(turns, localCounts[turns]);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+
+/**
+ * Decides which squares to fire at when a game is played without a human.
+ * Squares are addressed as cells, where cell = y * width + x.
+ * A strategy plays one game at a time, and is reused for the next game once newGame is called.
+ */
+public interface TargetingStrategy {
+
+    /**
+     * Start a new game, clearing anything recorded from the previous game.
+     * @param width Width of the board.
+     * @param height Height of the board.
+     * @param fleet Types of the ships that have been placed on the board.
+     * @param random Source of any random choices the strategy makes.
+     */
+    void newGame(int width, int height, ShipType[] fleet, RandomSource random);
+
+    /**
+     * Choose the next square to fire at. This should not be a square that has already been fired at.
+     * @return Cell to fire at.
+     */
+    int nextTarget();
+
+    /**
+     * Record the result of firing at a square.
+     * @param cell Cell that was fired at.
+     * @param result Result of the shot.
+     * @param sunkShipType Type of the ship that was destroyed if the result is DESTROYED, else null.
+     */
+    void recordResult(int cell, Board.ShotResult result, ShipType sunkShipType);
+}
@@ -0,0 +1,207 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardPool;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.SeededRandomSource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Plays targeting strategies head to head, with every strategy playing the same corpus of boards.
+ * The corpus is laid out once, from a seed per game in the same way as {@link SimulationRunner}, and each strategy
+ * plays a pooled board reset to the layout of each game, so the layouts are built once however many strategies there are.
+ * Every strategy plays on all of the available cores at the same time, and the strategies are given the same random
+ * choices for each game too, so any difference in turns is down to the strategies.
+ * The corpus is held in memory for the whole tournament, which takes around 1 KB per game on a 10x10 board.
+ */
+public class Tournament {
+
+    // Games played or laid out by a task before it is split no further.
+    private static final int GAMES_PER_TASK = 64;
+
+    // Mixes the seed of a game into a separate seed for the strategy's random choices, as SimulationRunner does.
+    private static final long STRATEGY_SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final int width;
+    private final int height;
+    private final ShipType[] fleet;
+    private final Map<String, Supplier<? extends TargetingStrategy>> strategyFactories;
+
+    private Board.Engine engine;
+    private ForkJoinPool pool;
+
+    /**
+     * @param width Width of the boards to play on.
+     * @param height Height of the boards to play on.
+     * @param fleet Ships to add to each board.
+     */
+    public Tournament(int width, int height, ShipType[] fleet){
+        this.width = width;
+        this.height = height;
+        this.fleet = fleet.clone();
+        this.strategyFactories = new LinkedHashMap<>();
+        this.engine = Board.Engine.BITBOARD;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Enter a strategy into the tournament.
+     * @param name Name to report the strategy's results under.
+     * @param strategyFactory Creates the strategies that play the games, each strategy is used by one thread.
+     * @throws IllegalArgumentException If a strategy has already been entered with the name.
+     */
+    public Tournament addStrategy(String name, Supplier<? extends TargetingStrategy> strategyFactory){
+        if(strategyFactories.containsKey(name))
+            throw new IllegalArgumentException("A strategy has already been entered as " + name);
+
+        strategyFactories.put(name, strategyFactory);
+        return this;
+    }
+
+    /**
+     * Set the engine the boards will be played on. Defaults to BITBOARD.
+     * @param engine Engine to store the board state with.
+     */
+    public Tournament setEngine(Board.Engine engine){
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * Set the pool the games are played on. Defaults to the common fork-join pool.
+     * @param pool Pool to play the games on.
+     */
+    public Tournament setPool(ForkJoinPool pool){
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Lay out the corpus and play every strategy over it.
+     * @param games Number of games each strategy plays.
+     * @param seed Seed for the first game, each following game uses the next seed.
+     * @return Turns each strategy took on each game.
+     * @throws IllegalStateException If no strategies have been entered.
+     */
+    public TournamentResult run(int games, long seed){
+        if(strategyFactories.isEmpty())
+            throw new IllegalStateException("No strategies have been entered into the tournament");
+
+        Board[] corpus = new Board[games];
+        pool.invoke(new CorpusTask(corpus, seed, 0, games));
+
+        List<String> names = new ArrayList<>(strategyFactories.keySet());
+        int[][] turns = new int[names.size()][games];
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute(){
+                List<GamesTask> tasks = new ArrayList<>();
+                for(int i = 0; i < names.size(); i++)
+                    tasks.add(new GamesTask(strategyFactories.get(names.get(i)), corpus, turns[i], seed, 0, games));
+
+                ForkJoinTask.invokeAll(tasks);
+            }
+        });
+
+        return new TournamentResult(names, turns, width * height);
+    }
+
+    /**
+     * Lays out a range of the corpus, splitting the range between other tasks while it is large.
+     */
+    private class CorpusTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Board[] corpus;
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        CorpusTask(Board[] corpus, long seed, int from, int to){
+            this.corpus = corpus;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from > GAMES_PER_TASK){
+                int middle = (from + to) >>> 1;
+                invokeAll(new CorpusTask(corpus, seed, from, middle),
+                        new CorpusTask(corpus, seed, middle, to));
+                return;
+            }
+
+            // The layouts are only read from, so they are kept in the engine that is cheapest to build.
+            for(int game = from; game < to; game++){
+                Board.BoardBuilder builder = new Board.BoardBuilder(width, height)
+                        .setEngine(Board.Engine.BITBOARD)
+                        .setSeed(seed + game);
+
+                for(ShipType shipType : fleet)
+                    builder.addShip(shipType);
+
+                corpus[game] = builder.build();
+            }
+        }
+    }
+
+    /**
+     * Plays a range of the corpus with one strategy, splitting the range between other tasks while it is large.
+     */
+    private class GamesTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Supplier<? extends TargetingStrategy> strategyFactory;
+        private final Board[] corpus;
+        private final int[] turns;
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        GamesTask(Supplier<? extends TargetingStrategy> strategyFactory, Board[] corpus, int[] turns, long seed, int from, int to){
+            this.strategyFactory = strategyFactory;
+            this.corpus = corpus;
+            this.turns = turns;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from > GAMES_PER_TASK){
+                int middle = (from + to) >>> 1;
+                invokeAll(new GamesTask(strategyFactory, corpus, turns, seed, from, middle),
+                        new GamesTask(strategyFactory, corpus, turns, seed, middle, to));
+                return;
+            }
+
+            TargetingStrategy strategy = strategyFactory.get();
+
+            // Each game copies its layout onto a pooled board, so nothing is built or allocated per game.
+            BoardPool boards = BoardPool.of(width, height, engine, fleet);
+            SeededRandomSource strategyRandom = new SeededRandomSource(seed);
+            Board board = boards.acquire(strategyRandom);
+
+            for(int game = from; game < to; game++){
+                board.reset(corpus[game]);
+                turns[game] = SimulationRunner.playGame(board, fleet, strategy, strategyRandom.setSeed((seed + game) * STRATEGY_SEED_MULTIPLIER));
+            }
+
+            boards.release(board);
+        }
+    }
+}
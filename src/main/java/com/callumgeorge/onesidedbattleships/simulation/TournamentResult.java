@@ -0,0 +1,136 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Turns each strategy of a {@link Tournament} took on each game of the corpus.
+ * As every strategy played the same boards, strategies are compared game by game, which gives a much tighter
+ * confidence interval for the difference between them than comparing their separate means.
+ */
+public class TournamentResult {
+
+    private final List<String> names;
+
+    // Turns taken by each strategy on each game, indexed by the strategy then the game.
+    private final int[][] turns;
+    private final SimulationResult[] results;
+
+    TournamentResult(List<String> names, int[][] turns, int maxTurns){
+        this.names = Collections.unmodifiableList(names);
+        this.turns = turns;
+        this.results = new SimulationResult[names.size()];
+
+        for(int i = 0; i < results.length; i++){
+            long[] histogram = new long[maxTurns + 1];
+            for(int gameTurns : turns[i])
+                histogram[gameTurns]++;
+
+            results[i] = new SimulationResult(histogram);
+        }
+    }
+
+    /**
+     * Get the names of the strategies, in the order they were entered.
+     * @return Names of the strategies.
+     */
+    public List<String> getStrategyNames(){
+        return names;
+    }
+
+    /**
+     * Get the number of games each strategy played.
+     * @return Number of games in the corpus.
+     */
+    public int getGames(){
+        return turns[0].length;
+    }
+
+    /**
+     * Get the distribution of the turns a strategy took, for its mean, median, p99 and confidence interval.
+     * @param name Name of the strategy.
+     * @return Turns taken by the strategy.
+     * @throws IllegalArgumentException If no strategy has the name.
+     */
+    public SimulationResult getResult(String name){
+        return results[indexOf(name)];
+    }
+
+    /**
+     * Get the number of turns a strategy took on one game of the corpus.
+     * @param name Name of the strategy.
+     * @param game Index of the game in the corpus.
+     * @return Number of turns taken.
+     * @throws IllegalArgumentException If no strategy has the name.
+     */
+    public int getTurns(String name, int game){
+        return turns[indexOf(name)][game];
+    }
+
+    /**
+     * Get the mean number of turns one strategy took more than another, game by game.
+     * @param name Name of the strategy.
+     * @param otherName Name of the strategy to compare it with.
+     * @return Mean of the difference in turns, negative if the first strategy needed fewer turns.
+     * @throws IllegalArgumentException If no strategy has either name.
+     */
+    public double getMeanDifference(String name, String otherName){
+        int[] first = turns[indexOf(name)];
+        int[] second = turns[indexOf(otherName)];
+
+        long totalDifference = 0;
+        for(int game = 0; game < first.length; game++)
+            totalDifference += first[game] - second[game];
+
+        return first.length == 0 ? 0 : (double) totalDifference / first.length;
+    }
+
+    /**
+     * Get the half width of the 95% confidence interval for the mean difference between two strategies.
+     * If it's smaller than the magnitude of the mean difference, the strategies really do differ.
+     * @param name Name of the strategy.
+     * @param otherName Name of the strategy to compare it with.
+     * @return Half width of the confidence interval, or 0 if fewer than two games were played.
+     * @throws IllegalArgumentException If no strategy has either name.
+     */
+    public double getMeanDifferenceConfidenceInterval(String name, String otherName){
+        int[] first = turns[indexOf(name)];
+        int[] second = turns[indexOf(otherName)];
+        if(first.length < 2)
+            return 0;
+
+        double mean = getMeanDifference(name, otherName);
+        double sumOfSquares = 0;
+        for(int game = 0; game < first.length; game++){
+            double deviation = first[game] - second[game] - mean;
+            sumOfSquares += deviation * deviation;
+        }
+
+        return SimulationResult.Z_95 * Math.sqrt(sumOfSquares / (first.length - 1) / first.length);
+    }
+
+    private int indexOf(String name){
+        int index = names.indexOf(name);
+        if(index < 0)
+            throw new IllegalArgumentException("No strategy was entered as " + name);
+
+        return index;
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder builder = new StringBuilder();
+
+        for(String name : names)
+            builder.append(name).append(": ").append(getResult(name)).append('\n');
+
+        for(int i = 0; i < names.size(); i++){
+            for(int j = i + 1; j < names.size(); j++){
+                builder.append(String.format("%s - %s: %.2f+/-%.2f turns per game%n", names.get(i), names.get(j),
+                        getMeanDifference(names.get(i), names.get(j)), getMeanDifferenceConfidenceInterval(names.get(i), names.get(j))));
+            }
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,196 @@
+package com.callumgeorge.onesidedbattleships.utils;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardSquare;
+import com.callumgeorge.onesidedbattleships.metrics.GameMetrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Draws a board in the same Ascii format as {@link BoardUtils#generateAsciiBoard(Board)}, but keeps the drawing
+ * between frames. Each frame only redraws the rows that have changed since the last frame, and is written
+ * straight to the output without building any intermediate Strings.
+ * <p>
+ * The boundaries, header and row labels never change, so the blank drawing for each board size is built once
+ * and shared by every renderer of that size.
+ */
+public class AsciiBoardRenderer {
+
+    // Blank drawings larger than this aren't kept once their renderers are done with them.
+    private static final int MAX_CACHED_TEMPLATE_LENGTH = 1 << 20;
+
+    private static final ConcurrentHashMap<Long, Template> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final Board board;
+    private final Template template;
+    private final char[] frame;
+    private final CharBuffer frameView;
+
+    // Version of each row when it was last drawn.
+    private final int[] drawnVersions;
+
+    /**
+     * @param board Board to draw.
+     */
+    public AsciiBoardRenderer(Board board){
+        this.board = board;
+        this.template = getTemplate(board.getWidth(), board.getHeight());
+        this.frame = template.frame.clone();
+        this.frameView = CharBuffer.wrap(frame);
+        this.drawnVersions = new int[board.getHeight()];
+
+        // The blank drawing matches rows that have never changed, any others are drawn by the first frame.
+        for(int y = 0; y < drawnVersions.length; y++){
+            int version = board.getRowVersion(y);
+            drawnVersions[y] = version == 0 ? 0 : version - 1;
+        }
+    }
+
+    /**
+     * Get the number of characters in a frame.
+     * @return Length of the frame.
+     */
+    public int getLength(){
+        return frame.length;
+    }
+
+    /**
+     * Redraw the rows that have changed since the last frame.
+     * @return Number of rows that were redrawn.
+     */
+    public int update(){
+        int width = board.getWidth();
+        int redrawn = 0;
+
+        for(int y = 0; y < drawnVersions.length; y++){
+            int version = board.getRowVersion(y);
+            if(version == drawnVersions[y])
+                continue;
+
+            for(int x = 0, position = template.rowStarts[y]; x < width; x++, position += template.cellStride)
+                frame[position] = getSquareSymbol(board.getSquareState(x, y));
+
+            drawnVersions[y] = version;
+            redrawn++;
+        }
+
+        return redrawn;
+    }
+
+    /**
+     * Bring the frame up to date and append it to the builder.
+     * @param builder Builder to append the frame to.
+     */
+    public void render(StringBuilder builder){
+        long startTime = GameMetrics.ENABLED ? System.nanoTime() : 0;
+
+        update();
+        builder.append(frame);
+
+        if(GameMetrics.ENABLED)
+            GameMetrics.recordRender(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Bring the frame up to date and write it to the writer.
+     * @param writer Writer to write the frame to.
+     * @throws IOException If the writer fails.
+     */
+    public void render(Writer writer) throws IOException {
+        long startTime = GameMetrics.ENABLED ? System.nanoTime() : 0;
+
+        update();
+        writer.write(frame);
+
+        if(GameMetrics.ENABLED)
+            GameMetrics.recordRender(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Bring the frame up to date and append it to the output.
+     * @param output Output to append the frame to.
+     * @throws IOException If the output fails.
+     */
+    public void render(Appendable output) throws IOException {
+        long startTime = GameMetrics.ENABLED ? System.nanoTime() : 0;
+
+        update();
+        frameView.clear();
+        output.append(frameView);
+
+        if(GameMetrics.ENABLED)
+            GameMetrics.recordRender(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Get the symbol drawn for the state of a square.
+     * @param state State of the square.
+     * @return Symbol for the square.
+     */
+    private static char getSquareSymbol(BoardSquare.BoardSquareState state){
+        switch (state){
+            case HIT:
+                return 'X';
+            case MISS:
+                return '~';
+            default:
+                return ' ';
+        }
+    }
+
+    /**
+     * Get the blank drawing for a board size, building it if no renderer has used that size yet.
+     */
+    private static Template getTemplate(int width, int height){
+        Long key = ((long) width << 32) | height;
+        Template template = TEMPLATES.get(key);
+
+        if(template == null){
+            template = new Template(width, height);
+
+            if(template.frame.length <= MAX_CACHED_TEMPLATE_LENGTH)
+                TEMPLATES.putIfAbsent(key, template);
+        }
+
+        return template;
+    }
+
+    /**
+     * Drawing of a board with none of its squares fired at, and where each square is drawn.
+     */
+    private static class Template {
+
+        private final char[] frame;
+
+        // Position of the first square of each row, and the distance between the squares along a row.
+        private final int[] rowStarts;
+        private final int cellStride;
+
+        Template(int width, int height){
+            String boundary = BoardUtils.getAsciiHorizontalBoundary(width, height);
+            int padding = BoardUtils.getCellPadding(width, ' ').length();
+            StringBuilder builder = new StringBuilder();
+
+            builder.append(boundary).append('\n');
+            builder.append(BoardUtils.getAsciiHeader(width, height)).append('\n');
+            builder.append(boundary).append('\n');
+
+            this.rowStarts = new int[height];
+            this.cellStride = padding * 2 + 2;
+
+            for(int y = 0; y < height; y++){
+                String headerCell = BoardUtils.getHeaderCell(Integer.toString(y + 1), BoardUtils.getRowLabelWidth(height));
+                rowStarts[y] = builder.length() + headerCell.length() + padding;
+
+                builder.append(BoardUtils.getBlankAsciiRow(y, width, height)).append('\n');
+                builder.append(boundary).append('\n');
+            }
+
+            this.frame = new char[builder.length()];
+            builder.getChars(0, builder.length(), frame, 0);
+        }
+    }
+}
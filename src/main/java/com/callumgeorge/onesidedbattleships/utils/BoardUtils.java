@@ -1,7 +1,8 @@
 package com.callumgeorge.onesidedbattleships.utils;
 
 import com.callumgeorge.onesidedbattleships.boards.Board;
-import com.callumgeorge.onesidedbattleships.boards.BoardSquare;
+
+import java.util.Arrays;
 
 /**
  * Utilities to provide addition functionality to the board.
@@ -10,54 +11,40 @@ public class BoardUtils {
 
     /**
      * Generate an Ascii board to represent the Board Game. Will only show the state of squares that have been fired at.
+     * To redraw the same board each turn, an {@link AsciiBoardRenderer} avoids rebuilding the whole board.
      * @param board Board to generate an Ascii board from.
      * @return Generated board.
      */
     public static String generateAsciiBoard(Board board){
-        StringBuilder textBoard = new StringBuilder();
-
-        int boardWidth = board.getWidth();
-
-        // Add the first horizontal boundary.
-        textBoard.append(getAsciiHorizontalBoundary(boardWidth));
-        textBoard.append("\n");
-
-        // Add the header.
-        textBoard.append(getAsciiHeader(boardWidth));
-        textBoard.append("\n");
-
-        // Add a horizontal boundary under the header.
-        textBoard.append(getAsciiHorizontalBoundary(boardWidth));
-        textBoard.append("\n");
-
-        // Add each board row.
-        for(int i = 0; i < board.getHeight(); i++){
-            BoardSquare[] row = board.getRow(i);
-            textBoard.append(getAsciiRow( i, row));
-            textBoard.append("\n");
-
-            // Add  horizontal boundary below the row.
-            textBoard.append(getAsciiHorizontalBoundary(boardWidth));
-            textBoard.append("\n");
-        }
+        AsciiBoardRenderer renderer = new AsciiBoardRenderer(board);
+        StringBuilder textBoard = new StringBuilder(renderer.getLength());
 
+        renderer.render(textBoard);
         return textBoard.toString();
     }
 
     /**
      * Generate a horizontal boundary that can be added between the rows.
      * @param width Width of the board.
+     * @param height Height of the board.
      * @return Generated horizontal boundary.
      */
-    private static String getAsciiHorizontalBoundary(int width){
-        String cellSpacing = getCellPadding(width, " ");
-        StringBuilder builder = new StringBuilder();
-
-        for (int i = 0; i <= width; i++) {
-            builder.append("+");
-            builder.append(getCellPadding(width, "-"));
-            builder.append("-");
-            builder.append(getCellPadding(width, "-"));
+    static String getAsciiHorizontalBoundary(int width, int height){
+        String cellBoundary = "+" + getCellPadding(width, '-') + "-" + getCellPadding(width, '-');
+        StringBuilder builder = new StringBuilder(cellBoundary.length() * (width + 1) + getRowLabelWidth(height) + 4);
+
+        // The first boundary sits over the row labels. Boards narrower than 10 columns have always drawn it
+        // at the width of the other cells, which is kept so their output doesn't change.
+        if(width < 10)
+            builder.append(cellBoundary);
+        else {
+            builder.append("+---");
+            for(int i = 0; i < getRowLabelWidth(height); i++)
+                builder.append('-');
+        }
+
+        for (int i = 0; i < width; i++) {
+            builder.append(cellBoundary);
         }
 
         builder.append("+");
@@ -65,24 +52,25 @@ public class BoardUtils {
     }
 
     /**
-     * Get the Header for the table e.g. 1, 2, 3, 4, 5
+     * Get the Header for the table e.g. A, B, C, ... Z, AA, AB
      * @param width Width of the board.
+     * @param height Height of the board.
      * @return Header for the table.
      */
-    private static String getAsciiHeader(int width){
-        String cellSpacing = getCellPadding(width, " ");
+    static String getAsciiHeader(int width, int height){
+        String cellSpacing = getCellPadding(width, ' ');
         StringBuilder headerBuilder = new StringBuilder();
 
         // Add the first cell.
-        headerBuilder.append(getHeaderCell(" "));
+        headerBuilder.append(getHeaderCell(" ", getRowLabelWidth(height)));
 
-        // Add all the letters.
+        // Add all the column labels.
         for(int i = 0; i < width; i++){
-            // 65 is the Ascii position for "A".
-            // Max supported length is currently 25, after that we'll run out of alpha numeric values.
-            // When Characters getting into double digits and beyond we need to remove one space.
-            headerBuilder.append(cellSpacing);
-            headerBuilder.append((char)(65 + i));
+            // Labels longer than one letter take their extra letters out of the spacing before them,
+            // the padding always has room as the labels grow more slowly than the width's digits.
+            String label = CoordinateUtils.getColumnLabel(i);
+            headerBuilder.append(cellSpacing, label.length() - 1, cellSpacing.length());
+            headerBuilder.append(label);
             headerBuilder.append(cellSpacing);
             headerBuilder.append("|");
         }
@@ -91,35 +79,24 @@ public class BoardUtils {
     }
 
     /**
-     * Get the row in an ascii format.
+     * Get a row in an ascii format, with none of the squares fired at.
      * @param rowIndex Index of the row on the grid.
-     * @param boardRow All the boardSquares on that row.
+     * @param width Width of the board.
+     * @param height Height of the board.
      * @return The row in an ascii format.
      */
-    private static String getAsciiRow(int rowIndex, BoardSquare[] boardRow){
-        int rowWidth = boardRow.length;
-        String cellSpacing = getCellPadding(rowWidth, " ");
+    static String getBlankAsciiRow(int rowIndex, int width, int height){
+        String cellSpacing = getCellPadding(width, ' ');
 
         StringBuilder rowBuilder = new StringBuilder();
 
         //Add the header cell.
-        rowBuilder.append(getHeaderCell(Integer.toString(rowIndex + 1)));
+        rowBuilder.append(getHeaderCell(Integer.toString(rowIndex + 1), getRowLabelWidth(height)));
 
         // Add each of the records.
-        for(BoardSquare boardSquare : boardRow){
+        for(int i = 0; i < width; i++){
             rowBuilder.append(cellSpacing);
-            switch (boardSquare.getState()) {
-                case NOTHING:
-                    rowBuilder.append(" ");
-                    break;
-                case HIT:
-                    rowBuilder.append("X");
-                    break;
-                case MISS:
-                    rowBuilder.append("~");
-                    break;
-            }
-
+            rowBuilder.append(" ");
             rowBuilder.append(cellSpacing);
             rowBuilder.append("|");
         }
@@ -133,36 +110,49 @@ public class BoardUtils {
      * @return The Header Cell Ascii formatted.
      */
     public static String getHeaderCell(String cellValue){
+        return getHeaderCell(cellValue, 2);
+    }
+
+    /**
+     * Get the Header cell for the row, wide enough for the longest row label on the board.
+     * @param cellValue The value to put in the cell.
+     * @param labelWidth Length of the longest row label.
+     * @return The Header Cell Ascii formatted.
+     */
+    static String getHeaderCell(String cellValue, int labelWidth){
         StringBuilder headerCellBuilder = new StringBuilder();
 
         headerCellBuilder.append("|  ");
         headerCellBuilder.append(cellValue);
 
-        // Add the last spacing, adjust this if the cell value length is greater than 1,
-        // else it will push all subsequent cells across.
-        if(cellValue.length() > 1)
+        // Pad shorter values out to the longest label, else they will pull all subsequent cells across.
+        for(int i = cellValue.length(); i < labelWidth; i++)
             headerCellBuilder.append(" ");
-        else headerCellBuilder.append("  ");
 
-        headerCellBuilder.append("|");
+        headerCellBuilder.append(" |");
 
         return headerCellBuilder.toString();
     }
 
+    /**
+     * Get the length of the longest row label, which is never less than 2 so small boards keep their layout.
+     * @param height Height of the board.
+     * @return Length of the longest row label.
+     */
+    static int getRowLabelWidth(int height){
+        return Math.max(2, Integer.toString(height).length());
+    }
+
     /**
      * Gets the padding to add in the cells.
      * This is to ensure that the cell width is in line with the width of the header cells.
      * @param width Width of the board.
      * @return Cell padding.
      */
-    private static String getCellPadding(int width, String spacingCharacters){
-        String cellSpacing = "";
-        int repeatAmount = String.valueOf(width).length();
-
-        for(int i = 0; i < repeatAmount; i++){
-            cellSpacing = cellSpacing + spacingCharacters;
-        }
+    static String getCellPadding(int width, char spacingCharacter){
+        char[] cellSpacing = new char[String.valueOf(width).length()];
+        Arrays.fill(cellSpacing, spacingCharacter);
 
-        return cellSpacing;
+        return new String(cellSpacing);
     }
 }
@@ -1,30 +1,35 @@
 package com.callumgeorge.onesidedbattleships.utils;
 
 import java.awt.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.nio.ByteBuffer;
 
 /**
  * Utilities for converting and validating Coordinates.
+ * Coordinates are a column label followed by a row number e.g. A1, J10 or AB120.
+ * Column labels run A to Z, then AA, AB and so on. Rows start at 1.
+ * Parsed coordinates are returned as a cell, where cell = y * width + x.
  */
 public class CoordinateUtils {
 
+    // Board size the String based methods validate against.
+    private static final int DEFAULT_WIDTH = 10;
+    private static final int DEFAULT_HEIGHT = 10;
+
+    private static final int LETTER_COUNT = 26;
+
     /**
      * Converts the coordinates in the format AN to a Point.
      * @param coordinates Coordinates to convert into a point.
      * @return Converted point. null if in an invalid format.
      */
     public static Point toPoint(String coordinates) {
+        int cell = parseCell(coordinates, DEFAULT_WIDTH, DEFAULT_HEIGHT);
+
         // If the coordinates aren't valid then return null.
-        if(!isValid(coordinates))
+        if(cell < 0)
             return null;
 
-        // Convert the letter into a number by subtracting the 'A' unicode character,
-        // this will give its position relative to A. e.g. A = 0, B = 1, C = 2
-        int xPosition = coordinates.charAt(0) - 'A';
-        int yPosition = Integer.parseInt(coordinates.substring(1)) - 1;
-
-        return new Point(xPosition, yPosition);
+        return new Point(cell % DEFAULT_WIDTH, cell / DEFAULT_WIDTH);
     }
 
     /**
@@ -33,11 +38,160 @@ public class CoordinateUtils {
      * @return True if coordinate is valid, else false
      */
     public static boolean isValid(String coordinates) {
-        // validate the format is correct
-        Pattern pattern = Pattern.compile("[A-J][0-9][0]?");
-        Matcher matcher = pattern.matcher(coordinates);
+        return parseCell(coordinates, DEFAULT_WIDTH, DEFAULT_HEIGHT) >= 0;
+    }
+
+    /**
+     * Parse coordinates into a cell on a board of the given size. Column letters may be upper or lower case.
+     * @param coordinates Coordinates to parse.
+     * @param width Width of the board.
+     * @param height Height of the board.
+     * @return Cell of the coordinates, or -1 if they are in an invalid format or off the board.
+     */
+    public static int parseCell(CharSequence coordinates, int width, int height) {
+        return parseCell(coordinates, 0, coordinates.length(), width, height);
+    }
+
+    /**
+     * Parse the coordinates found between two positions of a sequence into a cell on a board of the given size.
+     * @param sequence Sequence holding the coordinates.
+     * @param start Position of the first character of the coordinates.
+     * @param end Position after the last character of the coordinates.
+     * @param width Width of the board.
+     * @param height Height of the board.
+     * @return Cell of the coordinates, or -1 if they are in an invalid format or off the board.
+     */
+    public static int parseCell(CharSequence sequence, int start, int end, int width, int height) {
+        int position = start;
+
+        // Read the column label, where A = 1 and AA = 27, and stop as soon as it is off the board.
+        int column = 0;
+        while(position < end && isLetter(sequence.charAt(position))){
+            column = column * LETTER_COUNT + (Character.toUpperCase(sequence.charAt(position)) - 'A' + 1);
+            if(column > width) return -1;
+            position++;
+        }
+
+        // There must be a label followed by a row number, which can't start with a zero.
+        if(column == 0 || position == end || sequence.charAt(position) == '0')
+            return -1;
+
+        int row = 0;
+        while(position < end){
+            char character = sequence.charAt(position);
+            if(character < '0' || character > '9') return -1;
+
+            row = row * 10 + (character - '0');
+            if(row > height) return -1;
+            position++;
+        }
+
+        return (row - 1) * width + (column - 1);
+    }
+
+    /**
+     * Parse a list of moves separated by whitespace, commas or semicolons in one pass e.g. "A1 B2,C3".
+     * @param moves Moves to parse.
+     * @param width Width of the board.
+     * @param height Height of the board.
+     * @param cells Receives the cell of each move, or -1 for a move that is invalid. At most cells.length moves are parsed.
+     * @return Number of moves parsed.
+     */
+    public static int parseMoves(CharSequence moves, int width, int height, int[] cells) {
+        int count = 0;
+        int position = 0;
+        int length = moves.length();
+
+        while(count < cells.length){
+            while(position < length && isSeparator(moves.charAt(position)))
+                position++;
+
+            if(position == length)
+                break;
+
+            int start = position;
+            while(position < length && !isSeparator(moves.charAt(position)))
+                position++;
+
+            cells[count++] = parseCell(moves, start, position, width, height);
+        }
+
+        return count;
+    }
+
+    /**
+     * Parse a list of ASCII moves separated by whitespace, commas or semicolons from the buffer in one pass.
+     * The moves are read from the position of the buffer up to its limit, and the position is moved past them.
+     * If cells fills up, the position is left at the first move that has not been parsed.
+     * @param moves Buffer holding the moves.
+     * @param width Width of the board.
+     * @param height Height of the board.
+     * @param cells Receives the cell of each move, or -1 for a move that is invalid. At most cells.length moves are parsed.
+     * @return Number of moves parsed.
+     */
+    public static int parseMoves(ByteBuffer moves, int width, int height, int[] cells) {
+        int count = 0;
+        int position = moves.position();
+        int limit = moves.limit();
+
+        while(count < cells.length){
+            while(position < limit && isSeparator((char) moves.get(position)))
+                position++;
+
+            if(position == limit)
+                break;
+
+            // Read the label and the row in the same way as parseCell, without copying the move out of the buffer.
+            int column = 0;
+            int row = 0;
+            boolean valid = true;
+            boolean readingRow = false;
+
+            for(; position < limit; position++){
+                char character = (char) moves.get(position);
+                if(isSeparator(character)) break;
+
+                if(!readingRow && isLetter(character)){
+                    column = column * LETTER_COUNT + (Character.toUpperCase(character) - 'A' + 1);
+                    valid &= column <= width;
+                } else if(character >= '0' && character <= '9'){
+                    valid &= column != 0 && (readingRow || character != '0');
+                    readingRow = true;
+                    row = Math.min(row * 10 + (character - '0'), height + 1);
+                } else valid = false;
+
+                // Keep the label small once it is off the board, so it can't overflow.
+                column = Math.min(column, width + 1);
+            }
+
+            valid &= readingRow && row <= height;
+            cells[count++] = valid ? (row - 1) * width + (column - 1) : -1;
+        }
+
+        moves.position(position);
+        return count;
+    }
+
+    /**
+     * Get the label of a column e.g. 0 = A, 25 = Z, 26 = AA.
+     * @param column Index of the column (zero based).
+     * @return Label of the column.
+     */
+    public static String getColumnLabel(int column) {
+        char[] label = new char[8];
+        int start = label.length;
+
+        for(int value = column + 1; value > 0; value = (value - 1) / LETTER_COUNT)
+            label[--start] = (char) ('A' + (value - 1) % LETTER_COUNT);
+
+        return new String(label, start, label.length - start);
+    }
+
+    private static boolean isLetter(char character) {
+        return (character >= 'A' && character <= 'Z') || (character >= 'a' && character <= 'z');
+    }
 
-        // If the pattern does not match then return false, else true.
-        return matcher.matches();
+    private static boolean isSeparator(char character) {
+        return character == ' ' || character == ',' || character == ';' || character == '\n' || character == '\r' || character == '\t';
     }
 }
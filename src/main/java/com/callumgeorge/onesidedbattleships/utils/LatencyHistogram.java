@@ -0,0 +1,139 @@
+package com.callumgeorge.onesidedbattleships.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds, with buckets that grow with the value so every recorded value
+ * is kept to within 2% of its true value (in the style of HdrHistogram).
+ * Recording allocates nothing. The histogram is not thread safe, so each thread should record into its own
+ * histogram and the histograms can then be added together, or record into a {@link SingleWriterHistogram}
+ * that other threads can read while it is being recorded into.
+ */
+public class LatencyHistogram {
+
+    // Values below this are counted exactly, above it each power of two is split into HALF_BUCKETS buckets.
+    private static final int EXACT_BUCKETS = 128;
+    private static final int HALF_BUCKETS = EXACT_BUCKETS / 2;
+    static final int BUCKET_COUNT = EXACT_BUCKETS + 57 * HALF_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long maxValue;
+    private double totalValue;
+
+    /**
+     * Record a value.
+     * @param value Value to record, negative values are recorded as 0.
+     */
+    public void record(long value){
+        if(value < 0)
+            value = 0;
+
+        counts[getBucket(value)]++;
+        totalCount++;
+        totalValue += value;
+        maxValue = Math.max(maxValue, value);
+    }
+
+    /**
+     * Add all of the values recorded by another histogram to this histogram.
+     * @param other Histogram to add.
+     */
+    public void add(LatencyHistogram other){
+        for(int i = 0; i < BUCKET_COUNT; i++)
+            counts[i] += other.counts[i];
+
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    /**
+     * Add the counts read from a {@link SingleWriterHistogram} to this histogram.
+     */
+    void add(AtomicLongArray otherCounts, long count, double total, long max){
+        for(int i = 0; i < BUCKET_COUNT; i++)
+            counts[i] += otherCounts.get(i);
+
+        totalCount += count;
+        totalValue += total;
+        maxValue = Math.max(maxValue, max);
+    }
+
+    /**
+     * Clear every recorded value.
+     */
+    public void reset(){
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalValue = 0;
+        maxValue = 0;
+    }
+
+    /**
+     * Get the number of values recorded.
+     * @return Number of values.
+     */
+    public long getCount(){
+        return totalCount;
+    }
+
+    /**
+     * Get the largest value recorded.
+     * @return Largest value, or 0 if nothing has been recorded.
+     */
+    public long getMax(){
+        return maxValue;
+    }
+
+    /**
+     * Get the mean of the recorded values.
+     * @return Mean value, or 0 if nothing has been recorded.
+     */
+    public double getMean(){
+        return totalCount == 0 ? 0 : totalValue / totalCount;
+    }
+
+    /**
+     * Get the value that the given percentage of recorded values are at or below.
+     * @param percentile Percentage of values, between 0 and 100.
+     * @return Value at the percentile, or 0 if nothing has been recorded.
+     */
+    public long getPercentile(double percentile){
+        long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0));
+        long seen = 0;
+
+        for(int bucket = 0; bucket < BUCKET_COUNT; bucket++){
+            seen += counts[bucket];
+            if(seen >= target && counts[bucket] != 0)
+                return Math.min(getHighestValue(bucket), maxValue);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Get the bucket a value is counted in.
+     */
+    static int getBucket(long value){
+        if(value < EXACT_BUCKETS)
+            return (int) value;
+
+        // Shift the value down so it lands between HALF_BUCKETS and EXACT_BUCKETS.
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+        return EXACT_BUCKETS + (shift - 1) * HALF_BUCKETS + (int) ((value >>> shift) - HALF_BUCKETS);
+    }
+
+    /**
+     * Get the largest value counted in a bucket.
+     */
+    private static long getHighestValue(int bucket){
+        if(bucket < EXACT_BUCKETS)
+            return bucket;
+
+        int shift = (bucket - EXACT_BUCKETS) / HALF_BUCKETS + 1;
+        long subBucket = (bucket - EXACT_BUCKETS) % HALF_BUCKETS + HALF_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,37 @@
+package com.callumgeorge.onesidedbattleships.utils;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of the random numbers used to lay out a board.
+ */
+public interface RandomSource {
+
+    /**
+     * Get a random number between 0 (inclusive) and the bound (exclusive).
+     * @param bound Upper bound of the number, must be positive.
+     * @return Random number.
+     */
+    int nextInt(int bound);
+
+    /**
+     * Create a source that produces the same sequence every time it is created with the same seed.
+     * The source is not thread safe, so it should only be used by one thread at a time.
+     * @param seed Seed for the sequence.
+     * @return Seeded random source.
+     */
+    static RandomSource seeded(long seed){
+        SplittableRandom random = new SplittableRandom(seed);
+        return random::nextInt;
+    }
+
+    /**
+     * Get a source backed by the random number generator of whichever thread is calling it.
+     * This is unseeded and is safe to share between threads without contention.
+     * @return Thread local random source.
+     */
+    static RandomSource threadLocal(){
+        return bound -> ThreadLocalRandom.current().nextInt(bound);
+    }
+}
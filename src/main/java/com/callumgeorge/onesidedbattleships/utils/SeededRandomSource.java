@@ -0,0 +1,55 @@
+package com.callumgeorge.onesidedbattleships.utils;
+
+/**
+ * Seeded random source that can be given a new seed without allocating, e.g. to lay out a pooled board for each game.
+ * It produces the same sequence as {@link RandomSource#seeded(long)} for the same seed, so a board reset with it
+ * has the same layout as a board built with that seed.
+ * The source is not thread safe, so it should only be used by one thread at a time.
+ */
+public final class SeededRandomSource implements RandomSource {
+
+    // Increment of the SplitMix64 generator that backs java.util.SplittableRandom.
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long seed;
+
+    /**
+     * @param seed Seed for the sequence.
+     */
+    public SeededRandomSource(long seed){
+        this.seed = seed;
+    }
+
+    /**
+     * Start the sequence again from a new seed.
+     * @param seed Seed for the sequence.
+     * @return This source.
+     */
+    public SeededRandomSource setSeed(long seed){
+        this.seed = seed;
+        return this;
+    }
+
+    @Override
+    public int nextInt(int bound){
+        if(bound <= 0)
+            throw new IllegalArgumentException("The bound must be positive, not " + bound);
+
+        int r = nextInt();
+        int m = bound - 1;
+
+        // Powers of two can be masked, anything else rejects the values that would favour the low numbers.
+        if((bound & m) == 0)
+            return r & m;
+
+        for(int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1);
+
+        return r;
+    }
+
+    private int nextInt(){
+        long z = (seed += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 33)) * 0x62A9D9ED799705F5L;
+        return (int) (((z ^ (z >>> 28)) * 0xCB24D0A5C88C35B3L) >>> 32);
+    }
+}
@@ -0,0 +1,55 @@
+package com.callumgeorge.onesidedbattleships.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram, with the same buckets as {@link LatencyHistogram}, that one thread records into
+ * while other threads read it without taking a lock.
+ * Only the owning thread may record or clear, so each count is bumped with an ordered write rather than an atomic add.
+ * A read that overlaps a record may see the value in some of the totals and not yet in others.
+ */
+public class SingleWriterHistogram {
+
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Record a value, from the owning thread.
+     * @param value Value to record, negative values are recorded as 0.
+     */
+    public void record(long value){
+        if(value < 0)
+            value = 0;
+
+        int bucket = LatencyHistogram.getBucket(value);
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+        totalCount.lazySet(totalCount.get() + 1);
+        totalValue.lazySet(totalValue.get() + value);
+
+        if(value > maxValue.get())
+            maxValue.lazySet(value);
+    }
+
+    /**
+     * Clear every recorded value, from the owning thread.
+     */
+    public void clear(){
+        for(int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++)
+            counts.lazySet(i, 0);
+
+        totalCount.lazySet(0);
+        totalValue.lazySet(0);
+        maxValue.lazySet(0);
+    }
+
+    /**
+     * Add the values recorded so far to a histogram, from any thread.
+     * @param histogram Histogram to add to.
+     */
+    public void addTo(LatencyHistogram histogram){
+        histogram.add(counts, totalCount.get(), totalValue.get(), maxValue.get());
+    }
+}
@@ -0,0 +1,85 @@
+package com.callumgeorge.onesidedbattleships;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.CoordinateUtils;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class ConsoleInterfaceTest {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+
+    @Test
+    public void playScript_EveryCellTwiceInLowerCase_SameResultsAsFiringAtSeededBoard() throws IOException {
+        // Fire at every cell twice, one move per line on the first pass and a row per line on the second.
+        StringBuilder script = new StringBuilder("# every cell twice\n");
+        for(int cell = 0; cell < 100; cell++)
+            script.append(getMove(cell)).append('\n');
+        for(int cell = 0; cell < 100; cell++)
+            script.append(getMove(cell)).append(cell % 10 == 9 ? "\n" : ", ");
+        script.append("z99\n");
+
+        StringWriter output = new StringWriter();
+        int gamesWon = new ConsoleInterface(10, 10, FLEET)
+                .setQuiet(true)
+                .playScript(new StringReader(script.toString()), output, RandomSource.seeded(7));
+
+        // Play the same moves on a board laid out from the same seed.
+        Board board = new Board.BoardBuilder(10, 10)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+        RandomSource random = RandomSource.seeded(7);
+        board.reset(random);
+
+        StringBuilder expected = new StringBuilder();
+        int expectedGamesWon = 0;
+        int turnCount = 0;
+
+        for(int move = 0; move < 200; move++){
+            int cell = move % 100;
+            turnCount++;
+
+            Board.ShotResult result = board.fireAtCell(cell);
+            expected.append(result == Board.ShotResult.DESTROYED
+                    ? "SUNK " + board.getShipAtCell(cell).getShipType().name() : result.name()).append('\n');
+
+            if(board.allShipsDestroyed()){
+                expected.append("WIN ").append(turnCount).append('\n');
+                expectedGamesWon++;
+                board.reset(random);
+                turnCount = 0;
+            }
+        }
+        expected.append("ERR\n");
+
+        Assert.assertEquals(expected.toString(), output.toString());
+        Assert.assertEquals(expectedGamesWon, gamesWon);
+        Assert.assertTrue(gamesWon >= 2);
+    }
+
+    @Test
+    public void playScript_NotQuiet_BoardDrawnBeforeEachResult() throws IOException {
+        StringWriter output = new StringWriter();
+        new ConsoleInterface(10, 10, FLEET).playScript(new StringReader("A1\nB2\n"), output, RandomSource.seeded(1));
+
+        String[] lines = output.toString().split("\n");
+        int results = 0;
+        for(String line : lines)
+            if(line.equals("HIT") || line.equals("MISS")) results++;
+
+        Assert.assertEquals(2, results);
+        Assert.assertTrue(output.toString().contains("|  A  |"));
+    }
+
+    private static String getMove(int cell){
+        return CoordinateUtils.getColumnLabel(cell % 10).toLowerCase() + (cell / 10 + 1);
+    }
+}
@@ -0,0 +1,47 @@
+package com.callumgeorge.onesidedbattleships.board;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardPool;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.SeededRandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BoardPoolTest {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+
+    @Test
+    public void acquire_BoardReleased_SameBoardResetForTheNextGame(){
+        BoardPool pool = BoardPool.of(10, 10, Board.Engine.BITBOARD, FLEET);
+        Assert.assertSame(pool, BoardPool.of(10, 10, Board.Engine.BITBOARD, FLEET.clone()));
+
+        Board board = pool.acquire(new SeededRandomSource(1));
+        for(int cell = 0; cell < 100; cell++)
+            board.fireAtCell(cell);
+
+        pool.release(board);
+
+        Board next = pool.acquire(new SeededRandomSource(2));
+        Assert.assertSame(board, next);
+        Assert.assertFalse(next.allShipsDestroyed());
+
+        // A second board in use at the same time is a new one.
+        Assert.assertNotSame(next, pool.acquire(new SeededRandomSource(3)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void release_BoardFromAnotherPool_ExceptionThrown(){
+        Board board = BoardPool.of(8, 8, Board.Engine.GRID, FLEET).acquire(new SeededRandomSource(1));
+
+        BoardPool.of(10, 10, Board.Engine.GRID, FLEET).release(board);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void release_BoardWithAnotherFleetOfTheSameSize_ExceptionThrown(){
+        ShipType[] otherFleet = {ShipType.DESTROYER, ShipType.BATTLESHIP, ShipType.DESTROYER};
+        Board board = BoardPool.of(10, 10, Board.Engine.GRID, otherFleet).acquire(new SeededRandomSource(1));
+
+        BoardPool.of(10, 10, Board.Engine.GRID, FLEET).release(board);
+    }
+}
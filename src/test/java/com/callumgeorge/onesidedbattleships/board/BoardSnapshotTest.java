@@ -0,0 +1,146 @@
+package com.callumgeorge.onesidedbattleships.board;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardSnapshot;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class BoardSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void fromBytes_HalfPlayedGame_SameBoardRestored(){
+        for(Board.Engine engine : Board.Engine.values()){
+            Board board = buildHalfPlayedBoard(engine);
+
+            byte[] snapshot = BoardSnapshot.toBytes(board);
+            Board restored = BoardSnapshot.fromBytes(snapshot);
+
+            Assert.assertEquals(101, snapshot.length);
+            Assert.assertEquals(engine, restored.getEngine());
+            assertSameBoard(board, restored);
+        }
+    }
+
+    @Test
+    public void read_SnapshotWrittenToFile_SameBoardRestored() throws IOException {
+        Board board = buildHalfPlayedBoard(Board.Engine.BITBOARD);
+        File file = folder.newFile();
+
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)){
+            BoardSnapshot.write(board, channel);
+            BoardSnapshot.write(board, channel);
+        }
+
+        // Snapshots can be written one after another and read back in turn.
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            assertSameBoard(board, BoardSnapshot.read(channel));
+            assertSameBoard(board, BoardSnapshot.read(channel));
+            Assert.assertEquals(channel.size(), channel.position());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromBytes_NotASnapshot_ExceptionThrown(){
+        BoardSnapshot.fromBytes(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18});
+    }
+
+    @Test
+    public void fromBytes_HugeSizeInHeader_ExceptionThrownWithoutAllocating(){
+        byte[] snapshot = BoardSnapshot.toBytes(buildHalfPlayedBoard(Board.Engine.BITBOARD));
+
+        // 40000x40000 squares fit in an int, but the snapshot only holds the squares of a 10x10 board.
+        ByteBuffer.wrap(snapshot).putInt(10, 40_000).putInt(14, 40_000);
+        assertCorrupt(snapshot);
+
+        // 100000x100000 squares don't fit in an int.
+        ByteBuffer.wrap(snapshot).putInt(10, 100_000).putInt(14, 100_000);
+        assertCorrupt(snapshot);
+    }
+
+    @Test
+    public void fromBytes_CorruptSnapshotWithNewShipType_TypeNotRegistered(){
+        byte[] snapshot = BoardSnapshot.toBytes(buildHalfPlayedBoard(Board.Engine.BITBOARD));
+        int shipTypeCount = ShipType.values().length;
+
+        // Rename BATTLESHIP to a type that isn't registered, then fire at a square that is out of range.
+        int name = indexOf(snapshot, "BATTLESHIP".getBytes(StandardCharsets.US_ASCII));
+        snapshot[name + 9] = 'Q';
+        snapshot[snapshot.length - 1] = (byte) 0xFF;
+
+        assertCorrupt(snapshot);
+        Assert.assertEquals(shipTypeCount, ShipType.values().length);
+    }
+
+    @Test
+    public void fromBytes_ShipTypeWithDifferentLength_ExceptionThrown(){
+        byte[] snapshot = BoardSnapshot.toBytes(buildHalfPlayedBoard(Board.Engine.BITBOARD));
+
+        // BATTLESHIP is registered with length 5.
+        int name = indexOf(snapshot, "BATTLESHIP".getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer.wrap(snapshot).putInt(name + 10, 6);
+
+        assertCorrupt(snapshot);
+    }
+
+    private static void assertCorrupt(byte[] snapshot){
+        try {
+            BoardSnapshot.fromBytes(snapshot);
+            Assert.fail("The corrupt snapshot was restored");
+        } catch (IllegalArgumentException e){
+            // Expected.
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target){
+        for(int i = 0; i + target.length <= bytes.length; i++)
+            if(Arrays.equals(Arrays.copyOfRange(bytes, i, i + target.length), target)) return i;
+
+        throw new AssertionError("Not found");
+    }
+
+    private static Board buildHalfPlayedBoard(Board.Engine engine){
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(3)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        for(int cell = 0; cell < 100; cell += 2)
+            board.fireAtSquare(cell % 10, cell / 10);
+
+        return board;
+    }
+
+    private static void assertSameBoard(Board expected, Board actual){
+        Assert.assertEquals(expected.getShipCount(), actual.getShipCount());
+        Assert.assertEquals(expected.allShipsDestroyed(), actual.allShipsDestroyed());
+
+        for(int shipIndex = 0; shipIndex < expected.getShipCount(); shipIndex++)
+            Assert.assertArrayEquals(expected.getShipPoints(shipIndex), actual.getShipPoints(shipIndex));
+
+        for(int x = 0; x < 10; x++){
+            for(int y = 0; y < 10; y++){
+                Assert.assertEquals(expected.getSquareState(x, y), actual.getSquareState(x, y));
+
+                if(expected.getShip(x, y) != null)
+                    Assert.assertEquals(expected.getShip(x, y).getRemainingHealth(), actual.getShip(x, y).getRemainingHealth());
+            }
+        }
+    }
+}
@@ -1,18 +1,38 @@
 package com.callumgeorge.onesidedbattleships.board;
 
 import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardSquare;
+import com.callumgeorge.onesidedbattleships.ships.Ship;
 import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.SeededRandomSource;
 import org.junit.Assert;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
 
 import java.awt.*;
+import java.util.Arrays;
+import java.util.Collection;
 
+@RunWith(Parameterized.class)
 public class BoardTest {
 
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> engines(){
+        return Arrays.asList(new Object[][]{{Board.Engine.GRID}, {Board.Engine.BITBOARD}, {Board.Engine.CONCURRENT}, {Board.Engine.SPARSE}});
+    }
+
+    private final Board.Engine engine;
+
+    public BoardTest(Board.Engine engine){
+        this.engine = engine;
+    }
+
     @Test
     public void fireAtSquare_ShipAtSquare_HitResultReturned(){
         // Build the board and add a battleship.
         Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
                 .addShip(ShipType.BATTLESHIP)
                 .build();
 
@@ -22,10 +42,30 @@ public class BoardTest {
         Assert.assertEquals(Board.ShotResult.HIT, board.fireAtSquare(points[0]));
     }
 
+    @Test
+    public void build_MoreSquaresThanFitInAnInt_OnlySparseBuilt(){
+        Board.BoardBuilder builder = new Board.BoardBuilder(50_000, 50_000)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP);
+
+        if(engine == Board.Engine.SPARSE){
+            Assert.assertEquals(1, builder.build().getShipCount());
+            return;
+        }
+
+        try {
+            builder.build();
+            Assert.fail("A " + engine + " board with 2.5 billion squares was built");
+        } catch (IllegalArgumentException e){
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("SPARSE"));
+        }
+    }
+
     @Test
     public void fireAtSquare_NothingAtSquare_MissResultReturned(){
         // Build the board and add a battleship.
         Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
                 .addShip(ShipType.BATTLESHIP)
                 .build();
 
@@ -45,6 +85,7 @@ public class BoardTest {
     public void fireAtSquare_ShipDestroyed_DestroyedResultReturned(){
         // Build the board and add a battleship.
         Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
                 .addShip(ShipType.BATTLESHIP)
                 .build();
 
@@ -63,6 +104,7 @@ public class BoardTest {
     public void fireAtSquare_ShipHitAtSameSquareMultipleTimes_HitResultReturned(){
         // Build the board and add a battleship.
         Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
                 .addShip(ShipType.BATTLESHIP)
                 .build();
 
@@ -81,6 +123,7 @@ public class BoardTest {
     public void allShipsDestroyed_NoShipHaveBeenDestroyed_FalseReturned(){
         // Build the board and add a battleship and two destroyers.
         Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
                 .addShip(ShipType.BATTLESHIP)
                 .addShip(ShipType.DESTROYER)
                 .addShip(ShipType.DESTROYER)
@@ -93,6 +136,7 @@ public class BoardTest {
     public void allShipsDestroyed_OneShipHasBeenDestroyed_FalseReturned(){
         // Build the board and add a battleship and two destroyers.
         Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
                 .addShip(ShipType.BATTLESHIP)
                 .addShip(ShipType.DESTROYER)
                 .addShip(ShipType.DESTROYER)
@@ -116,6 +160,7 @@ public class BoardTest {
     public void allShipsDestroyed_AllShipsDestroyed_ReturnTrue(){
         // Build the board and add a battleship and two destroyers.
         Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
                 .addShip(ShipType.BATTLESHIP)
                 .addShip(ShipType.DESTROYER)
                 .addShip(ShipType.DESTROYER)
@@ -132,4 +177,437 @@ public class BoardTest {
         Assert.assertTrue(board.allShipsDestroyed());
     }
 
+    @Test
+    public void getRow_SquaresFiredAt_StatesReturned(){
+        // Build the board and add a battleship.
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP)
+                .build();
+
+        // Fire at every square on the first row.
+        for(int x = 0; x < 10; x++)
+            board.fireAtSquare(new Point(x, 0));
+
+        BoardSquare[] row = board.getRow(0);
+        for(int x = 0; x < 10; x++){
+            BoardSquare.BoardSquareState expected = board.getShip(new Point(x, 0)) == null
+                    ? BoardSquare.BoardSquareState.MISS
+                    : BoardSquare.BoardSquareState.HIT;
+
+            Assert.assertEquals(expected, row[x].getState());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void fireAtSquare_SquareOffTheBoard_ExceptionThrown(){
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP)
+                .build();
+
+        board.fireAtSquare(new Point(10, 0));
+    }
+
+    @Test
+    public void addShip_FleetExactlyFillsBoard_AllSquaresPopulated(){
+        // Destroyers can only lie along the rows of a 4x2 board, so the two of them fill it.
+        Board board = new Board.BoardBuilder(4, 2)
+                .setEngine(engine)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        for(int x = 0; x < 4; x++)
+            for(int y = 0; y < 2; y++)
+                Assert.assertNotNull(board.getShip(new Point(x, y)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addShip_NoRoomForShip_ExceptionThrown(){
+        new Board.BoardBuilder(4, 4)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP);
+    }
+
+    @Test
+    public void setSeed_SameSeed_SameLayoutBuilt(){
+        Board first = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(42)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        Board second = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(42)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        for(int shipIndex = 0; shipIndex < 3; shipIndex++)
+            Assert.assertArrayEquals(first.getShipPoints(shipIndex), second.getShipPoints(shipIndex));
+    }
+
+    @Test
+    public void getShipCells_AnyShip_CellsMatchPoints(){
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        int[] cells = new int[5];
+        for(int shipIndex = 0; shipIndex < 2; shipIndex++){
+            Point[] points = board.getShipPoints(shipIndex);
+
+            Assert.assertEquals(points.length, board.getShipCells(shipIndex, cells));
+            for(int i = 0; i < points.length; i++)
+                Assert.assertEquals(points[i].y * 10 + points[i].x, cells[i]);
+        }
+    }
+
+    @Test
+    public void fireAtCell_EveryCell_SameAsFiringAtSquare(){
+        Board byCell = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(5)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        Board bySquare = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(5)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        for(int cell = 0; cell < 100; cell++){
+            Assert.assertEquals(bySquare.fireAtSquare(cell % 10, cell / 10), byCell.fireAtCell(cell));
+            Assert.assertEquals(bySquare.getSquareState(cell % 10, cell / 10), byCell.getCellState(cell));
+            Assert.assertSame(byCell.getShip(cell % 10, cell / 10), byCell.getShipAtCell(cell));
+        }
+    }
+
+    @Test
+    public void fireAtSquare_MoreThan255Ships_EachShipDestroyed(){
+        ShipType buoy = ShipType.register("BUOY", 1);
+        Board.BoardBuilder builder = new Board.BoardBuilder(20, 20).setEngine(engine);
+
+        for(int i = 0; i < 300; i++)
+            builder.addShip(buoy);
+
+        Board board = builder.build();
+
+        int destroyed = 0;
+        for(int cell = 0; cell < 400; cell++)
+            if(board.fireAtCell(cell) == Board.ShotResult.DESTROYED) destroyed++;
+
+        Assert.assertEquals(300, destroyed);
+        Assert.assertTrue(board.allShipsDestroyed());
+    }
+
+    @Test
+    public void fireBatch_EveryCellTwice_SameAsFiringOneAtATime(){
+        Board.BoardBuilder bySquareBuilder = new Board.BoardBuilder(10, 10).setEngine(engine).setSeed(3);
+        Board.BoardBuilder byBatchBuilder = new Board.BoardBuilder(10, 10).setEngine(engine).setSeed(3);
+        for(ShipType shipType : new ShipType[]{ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER}){
+            bySquareBuilder.addShip(shipType);
+            byBatchBuilder.addShip(shipType);
+        }
+
+        Board bySquare = bySquareBuilder.build();
+        Board byBatch = byBatchBuilder.build();
+
+        int[] cells = new int[200];
+        for(int i = 0; i < cells.length; i++)
+            cells[i] = (i * 37) % 100;
+
+        byte[] results = new byte[cells.length];
+        int[] sunkCells = new int[byBatch.getShipCount()];
+        int sunk = byBatch.fireBatch(cells, cells.length, results, sunkCells);
+
+        // Each ship is reported once, in the order it was destroyed.
+        int expectedSunk = 0;
+        for(int i = 0; i < cells.length; i++){
+            Board.ShotResult expected = bySquare.fireAtCell(cells[i]);
+            Assert.assertEquals(expected.ordinal(), results[i]);
+
+            if(expected == Board.ShotResult.DESTROYED)
+                Assert.assertEquals(cells[i], sunkCells[expectedSunk++]);
+        }
+
+        Assert.assertEquals(3, sunk);
+        Assert.assertEquals(3, expectedSunk);
+        Assert.assertTrue(byBatch.allShipsDestroyed());
+    }
+
+    @Test
+    public void fireBatch_CellOffTheBoard_NothingFiredAt(){
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP)
+                .build();
+
+        try {
+            board.fireBatch(new int[]{0, 1, 100}, 3, new byte[3], new int[1]);
+            Assert.fail("Expected the volley to be rejected");
+        } catch (IndexOutOfBoundsException e){
+            Assert.assertEquals(BoardSquare.BoardSquareState.NOTHING, board.getCellState(0));
+            Assert.assertEquals(BoardSquare.BoardSquareState.NOTHING, board.getCellState(1));
+        }
+    }
+
+    @Test
+    public void reset_GameFinished_BoardMatchesNewBoardWithTheSameSeed(){
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        for(int cell = 0; cell < 100; cell++)
+            board.fireAtCell(cell);
+
+        int rowVersion = board.getRowVersion(0);
+        board.reset(new SeededRandomSource(5));
+
+        Board built = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(5)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        Assert.assertFalse(board.allShipsDestroyed());
+        Assert.assertNotEquals(rowVersion, board.getRowVersion(0));
+
+        // Playing the reset board again gives the same results as the new board.
+        for(int cell = 0; cell < 100; cell++){
+            Assert.assertEquals(BoardSquare.BoardSquareState.NOTHING, board.getCellState(cell));
+            Assert.assertEquals(built.fireAtCell(cell), board.fireAtCell(cell));
+        }
+
+        Assert.assertTrue(board.allShipsDestroyed());
+    }
+
+    @Test
+    public void reset_FleetDoesNotFit_BoardLeftAsItWas(){
+        // The columns are the only way to fit the fleet that this seed doesn't find.
+        Board.BoardBuilder builder = new Board.BoardBuilder(5, 4).setEngine(engine);
+        for(int x = 0; x < 5; x++)
+            builder.addShip(ShipType.DESTROYER, x, 0, Board.Direction.NORTH);
+
+        Board board = builder.build();
+        for(int cell = 0; cell < 10; cell++)
+            board.fireAtCell(cell);
+
+        Ship[] shipsBefore = new Ship[20];
+        BoardSquare.BoardSquareState[] statesBefore = new BoardSquare.BoardSquareState[20];
+        for(int cell = 0; cell < 20; cell++){
+            shipsBefore[cell] = board.getShipAtCell(cell);
+            statesBefore[cell] = board.getCellState(cell);
+        }
+
+        try {
+            board.reset(new SeededRandomSource(0));
+            Assert.fail("The fleet should not have fitted");
+        } catch (IllegalStateException e){
+            // Expected.
+        }
+
+        for(int cell = 0; cell < 20; cell++){
+            Assert.assertSame(shipsBefore[cell], board.getShipAtCell(cell));
+            Assert.assertEquals(statesBefore[cell], board.getCellState(cell));
+        }
+
+        // The game carries on where it was.
+        for(int cell = 10; cell < 20; cell++)
+            board.fireAtCell(cell);
+        Assert.assertTrue(board.allShipsDestroyed());
+    }
+
+    @Test
+    public void reset_LayoutOfAnotherBoard_ShipsCopiedAndShotsCleared(){
+        Board layout = new Board.BoardBuilder(10, 10)
+                .setEngine(Board.Engine.BITBOARD)
+                .setSeed(9)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+        layout.fireAtCell(0);
+
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+        for(int cell = 0; cell < 100; cell++)
+            board.fireAtCell(cell);
+
+        board.reset(layout);
+
+        Assert.assertFalse(board.allShipsDestroyed());
+        for(int cell = 0; cell < 100; cell++){
+            Assert.assertEquals(BoardSquare.BoardSquareState.NOTHING, board.getCellState(cell));
+            Assert.assertEquals(layout.getShipAtCell(cell) == null, board.getShipAtCell(cell) == null);
+        }
+
+        // The layout keeps its own shots.
+        Assert.assertNotEquals(BoardSquare.BoardSquareState.NOTHING, layout.getCellState(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reset_LayoutWithAnotherFleet_ExceptionThrown(){
+        Board layout = new Board.BoardBuilder(10, 10)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.BATTLESHIP)
+                .build();
+
+        new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .build()
+                .reset(layout);
+    }
+
+    @Test
+    public void rollback_ShotsAfterMark_BoardAsItWasAtTheMark(){
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(4)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+        Board untouched = board.fork();
+
+        for(int cell = 0; cell < 30; cell++)
+            board.fireAtCell(cell);
+
+        int outer = board.mark();
+        for(int cell = 30; cell < 60; cell++)
+            board.fireAtCell(cell);
+
+        // A nested branch fires at the rest of the board, then both branches are undone.
+        int inner = board.mark();
+        int[] cells = new int[40];
+        for(int i = 0; i < cells.length; i++)
+            cells[i] = 99 - i;
+        board.fireBatch(cells, cells.length, new byte[cells.length], new int[board.getShipCount()]);
+        board.fireAtCell(0);
+
+        Assert.assertTrue(board.allShipsDestroyed());
+        board.rollback(inner);
+        board.rollback(outer);
+        board.commit();
+
+        // The board plays on as if only the first 30 shots had been fired.
+        Assert.assertFalse(board.allShipsDestroyed());
+        for(int cell = 0; cell < 30; cell++){
+            Assert.assertNotEquals(BoardSquare.BoardSquareState.NOTHING, board.getCellState(cell));
+            untouched.fireAtCell(cell);
+        }
+
+        for(int cell = 30; cell < 100; cell++){
+            Assert.assertEquals(BoardSquare.BoardSquareState.NOTHING, board.getCellState(cell));
+            Assert.assertEquals(untouched.fireAtCell(cell), board.fireAtCell(cell));
+        }
+
+        Assert.assertTrue(board.allShipsDestroyed());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rollback_NoMark_ExceptionThrown(){
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP)
+                .build();
+
+        int mark = board.mark();
+        board.commit();
+        board.rollback(mark);
+    }
+
+    @Test
+    public void fork_ShotsFiredAtFork_OriginalUnchanged(){
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(8)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        for(int cell = 0; cell < 50; cell++)
+            board.fireAtCell(cell);
+
+        Board fork = board.fork();
+        Assert.assertEquals(engine, fork.getEngine());
+
+        for(int cell = 0; cell < 100; cell++){
+            Assert.assertEquals(board.getCellState(cell), fork.getCellState(cell));
+            Assert.assertEquals(board.getShipAtCell(cell) == null, fork.getShipAtCell(cell) == null);
+        }
+
+        for(int cell = 50; cell < 100; cell++)
+            fork.fireAtCell(cell);
+
+        Assert.assertTrue(fork.allShipsDestroyed());
+        Assert.assertFalse(board.allShipsDestroyed());
+        for(int cell = 50; cell < 100; cell++)
+            Assert.assertEquals(BoardSquare.BoardSquareState.NOTHING, board.getCellState(cell));
+    }
+
+    @Test
+    public void getFrontierCells_ShipHitTwice_UnfiredSquaresNextToTheHits(){
+        Board board = new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .addShip(ShipType.BATTLESHIP, 2, 2, Board.Direction.EAST)
+                .addShip(ShipType.DESTROYER, 0, 9, Board.Direction.EAST)
+                .build();
+
+        board.fireAtSquare(3, 1);
+        board.fireAtSquare(3, 2);
+        board.fireAtSquare(5, 2);
+
+        Assert.assertEquals(1, board.getDamagedShipCount());
+        Assert.assertEquals(0, board.getDamagedShip(0));
+
+        int[] cells = new int[12];
+        Assert.assertEquals(2, board.getHitCells(0, cells));
+        Assert.assertArrayEquals(new int[]{23, 25}, Arrays.copyOf(cells, 2));
+
+        // The miss above the first hit is left out, and the square between the hits is only given once.
+        int count = board.getFrontierCells(cells);
+        int[] frontier = Arrays.copyOf(cells, count);
+        Arrays.sort(frontier);
+        Assert.assertArrayEquals(new int[]{15, 22, 24, 26, 33, 35}, frontier);
+
+        // Destroying the ship takes it off the damaged ships, and rolling back puts it on again.
+        board.fireAtSquare(2, 2);
+        board.fireAtSquare(4, 2);
+        int mark = board.mark();
+        Assert.assertEquals(Board.ShotResult.DESTROYED, board.fireAtSquare(6, 2));
+
+        Assert.assertEquals(0, board.getDamagedShipCount());
+        Assert.assertEquals(0, board.getFrontierCells(cells));
+
+        board.rollback(mark);
+        Assert.assertEquals(1, board.getDamagedShipCount());
+        Assert.assertEquals(1, board.fork().getDamagedShipCount());
+        Assert.assertEquals(4, board.getHitCells(0, cells));
+
+        board.reset(new SeededRandomSource(1));
+        Assert.assertEquals(0, board.getDamagedShipCount());
+    }
 }
@@ -0,0 +1,190 @@
+package com.callumgeorge.onesidedbattleships.board;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardSquare;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ConcurrentBoardTest {
+
+    private static final int SHOOTERS = 4;
+    private static final int BOARDS = 300;
+
+    @Test
+    public void fireAtSquare_ManyShooters_EachShipDestroyedExactlyOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SHOOTERS);
+
+        try {
+            for(int game = 0; game < BOARDS; game++){
+                Board board = new Board.BoardBuilder(10, 10)
+                        .setEngine(Board.Engine.CONCURRENT)
+                        .setSeed(game)
+                        .addShip(ShipType.BATTLESHIP)
+                        .addShip(ShipType.DESTROYER)
+                        .addShip(ShipType.DESTROYER)
+                        .addShip(ShipType.DESTROYER)
+                        .build();
+
+                // Every shooter fires at every square in its own order, starting at the same time.
+                CyclicBarrier start = new CyclicBarrier(SHOOTERS);
+                List<Future<int[]>> results = new ArrayList<>();
+                for(int shooter = 0; shooter < SHOOTERS; shooter++)
+                    results.add(executor.submit(fireAtEverySquare(board, start, game * SHOOTERS + shooter)));
+
+                int destroyed = 0;
+                int misses = 0;
+                for(Future<int[]> result : results){
+                    int[] counts = result.get();
+                    destroyed += counts[Board.ShotResult.DESTROYED.ordinal()];
+                    misses += counts[Board.ShotResult.MISS.ordinal()];
+                }
+
+                // Each ship reports DESTROYED once, and an empty square is a miss however many times it is fired at.
+                Assert.assertEquals(board.getShipCount(), destroyed);
+                Assert.assertEquals((100 - 17) * SHOOTERS, misses);
+                Assert.assertTrue(board.allShipsDestroyed());
+                Assert.assertEquals(0, board.getDamagedShipCount());
+                Assert.assertEquals(0, board.getFrontierCells(new int[100]));
+
+                // No update to a ship or a row was lost.
+                for(int x = 0; x < 10; x++){
+                    Assert.assertEquals(10, board.getRowVersion(x));
+
+                    for(int y = 0; y < 10; y++){
+                        Assert.assertNotEquals(BoardSquare.BoardSquareState.NOTHING, board.getSquareState(x, y));
+                        if(board.getShip(x, y) != null)
+                            Assert.assertEquals(0, board.getShip(x, y).getRemainingHealth());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getFrontierCells_ManyShooters_MatchesTheSameShotsFiredInOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(SHOOTERS + 1);
+
+        try {
+            for(int game = 0; game < BOARDS; game++){
+                Board board = buildBoard(Board.Engine.CONCURRENT, game);
+                Board expected = buildBoard(Board.Engine.GRID, game);
+
+                // Leave a third of the squares, so some ships are left damaged.
+                int[] cells = new int[100];
+                int cellCount = 0;
+                for(int cell = 0; cell < 100; cell++)
+                    if((cell * 7 + game) % 3 != 0) cells[cellCount++] = cell;
+                int[] volley = Arrays.copyOf(cells, cellCount);
+
+                CyclicBarrier start = new CyclicBarrier(SHOOTERS + 1);
+                List<Future<int[]>> results = new ArrayList<>();
+                for(int shooter = 0; shooter < SHOOTERS; shooter++)
+                    results.add(executor.submit(fireAtCells(board, start, volley, game * SHOOTERS + shooter)));
+
+                // The frontier is read while the shots are being fired.
+                Future<?> spectator = executor.submit(() -> {
+                    start.await();
+                    int[] frontier = new int[100];
+
+                    while(results.stream().anyMatch(result -> !result.isDone())){
+                        int count = board.getFrontierCells(frontier);
+                        for(int i = 0; i < count; i++)
+                            Assert.assertTrue(frontier[i] >= 0 && frontier[i] < 100);
+
+                        Assert.assertTrue(board.getDamagedShipCount() <= board.getShipCount());
+                    }
+
+                    return null;
+                });
+
+                for(Future<int[]> result : results)
+                    result.get();
+                spectator.get();
+
+                for(int cell : volley)
+                    expected.fireAtCell(cell);
+
+                Assert.assertEquals(expected.getDamagedShipCount(), board.getDamagedShipCount());
+
+                Set<Integer> expectedDamaged = new HashSet<>();
+                Set<Integer> damaged = new HashSet<>();
+                for(int position = 0; position < board.getDamagedShipCount(); position++){
+                    expectedDamaged.add(expected.getDamagedShip(position));
+                    damaged.add(board.getDamagedShip(position));
+                }
+                Assert.assertEquals(expectedDamaged, damaged);
+
+                Assert.assertEquals(frontierOf(expected), frontierOf(board));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Board buildBoard(Board.Engine engine, long seed){
+        return new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(seed)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .addShip(ShipType.DESTROYER)
+                .build();
+    }
+
+    private static Set<Integer> frontierOf(Board board){
+        int[] cells = new int[100];
+        int count = board.getFrontierCells(cells);
+
+        Set<Integer> frontier = new HashSet<>();
+        for(int i = 0; i < count; i++)
+            Assert.assertTrue("Frontier cell given twice", frontier.add(cells[i]));
+
+        return frontier;
+    }
+
+    private static Callable<int[]> fireAtEverySquare(Board board, CyclicBarrier start, long seed){
+        int[] cells = new int[100];
+        for(int i = 0; i < cells.length; i++)
+            cells[i] = i;
+
+        return fireAtCells(board, start, cells, seed);
+    }
+
+    private static Callable<int[]> fireAtCells(Board board, CyclicBarrier start, int[] cells, long seed){
+        return () -> {
+            int[] order = cells.clone();
+
+            RandomSource random = RandomSource.seeded(seed);
+            for(int i = order.length - 1; i > 0; i--){
+                int swap = random.nextInt(i + 1);
+                int cell = order[i];
+                order[i] = order[swap];
+                order[swap] = cell;
+            }
+
+            int[] counts = new int[Board.ShotResult.values().length];
+            start.await();
+
+            for(int cell : order)
+                counts[board.fireAtSquare(cell % 10, cell / 10).ordinal()]++;
+
+            return counts;
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.callumgeorge.onesidedbattleships.board;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.boards.BoardSquare;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.SeededRandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+public class SparseBoardTest {
+
+    @Test
+    public void fireAtSquare_HugeBoard_EveryShipSunk(){
+        Board.BoardBuilder builder = new Board.BoardBuilder(100_000, 100_000)
+                .setEngine(Board.Engine.SPARSE)
+                .setSeed(3);
+        for(int i = 0; i < 150; i++)
+            builder.addShip(ShipType.BATTLESHIP).addShip(ShipType.DESTROYER);
+
+        Board board = builder.build();
+
+        // Squares past the last int cell are addressed the same as any other.
+        Assert.assertEquals(Board.ShotResult.MISS, board.fireAtSquare(99_999, 99_999));
+        Assert.assertEquals(BoardSquare.BoardSquareState.MISS, board.getSquareState(99_999, 99_999));
+
+        for(int shipIndex = 0; shipIndex < board.getShipCount(); shipIndex++){
+            Point[] points = board.getShipPoints(shipIndex);
+
+            for(int i = 0; i < points.length; i++){
+                Assert.assertNotNull(board.getShip(points[i]));
+                Assert.assertEquals(i == points.length - 1 ? Board.ShotResult.DESTROYED : Board.ShotResult.HIT,
+                        board.fireAtSquare(points[i]));
+            }
+        }
+
+        Assert.assertTrue(board.allShipsDestroyed());
+
+        // The empty squares of a row are all the same square.
+        BoardSquare[] row = board.getRow(99_999);
+        Assert.assertEquals(100_000, row.length);
+        Assert.assertEquals(BoardSquare.BoardSquareState.MISS, row[99_999].getState());
+        Assert.assertSame(row[0], row[1]);
+        Assert.assertEquals(BoardSquare.BoardSquareState.NOTHING, row[0].getState());
+    }
+
+    @Test
+    public void getFrontierCells_HitFarDownHugeBoard_CellsPastTheLastIntGiven(){
+        Board board = new Board.BoardBuilder(100_000, 100_000)
+                .setEngine(Board.Engine.SPARSE)
+                .addShip(ShipType.DESTROYER, 50_000, 99_990, Board.Direction.NORTH)
+                .build();
+
+        Assert.assertEquals(Board.ShotResult.HIT, board.fireAtSquare(50_000, 99_992));
+
+        long[] cells = new long[10];
+        int count = board.getFrontierCells(cells);
+        long[] frontier = Arrays.copyOf(cells, count);
+        Arrays.sort(frontier);
+
+        long cell = 99_992L * 100_000 + 50_000;
+        Assert.assertArrayEquals(new long[]{cell - 100_000, cell - 1, cell + 1, cell + 100_000}, frontier);
+
+        // The cells can't be given as ints, rather than being given wrong.
+        try {
+            board.getFrontierCells(new int[10]);
+            Assert.fail("The cells should not fit in an int");
+        } catch (IllegalStateException e){
+            // Expected.
+        }
+    }
+
+    @Test
+    public void rollback_RandomShotsAndRollbacks_SameResultsAsBitBoard(){
+        Board sparse = build(Board.Engine.SPARSE);
+        Board bitBoard = build(Board.Engine.BITBOARD);
+        SeededRandomSource random = new SeededRandomSource(17);
+
+        // Fire volleys that are often rolled back, so squares are stored and forgotten many times.
+        for(int round = 0; round < 200; round++){
+            int sparseMark = sparse.mark();
+            int bitBoardMark = bitBoard.mark();
+
+            for(int shot = 0; shot < 50; shot++){
+                int x = random.nextInt(64);
+                int y = random.nextInt(64);
+                Assert.assertEquals(bitBoard.fireAtSquare(x, y), sparse.fireAtSquare(x, y));
+            }
+
+            if(random.nextInt(3) != 0){
+                sparse.rollback(sparseMark);
+                bitBoard.rollback(bitBoardMark);
+            }
+        }
+
+        for(int y = 0; y < 64; y++){
+            for(int x = 0; x < 64; x++){
+                Assert.assertEquals(bitBoard.getSquareState(x, y), sparse.getSquareState(x, y));
+                Assert.assertEquals(bitBoard.fireAtSquare(x, y), sparse.fireAtSquare(x, y));
+            }
+        }
+
+        Assert.assertTrue(sparse.allShipsDestroyed());
+    }
+
+    private static Board build(Board.Engine engine){
+        Board.BoardBuilder builder = new Board.BoardBuilder(64, 64)
+                .setEngine(engine)
+                .setSeed(5);
+        for(int i = 0; i < 40; i++)
+            builder.addShip(ShipType.BATTLESHIP).addShip(ShipType.DESTROYER);
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,199 @@
+package com.callumgeorge.onesidedbattleships.events;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class GameEventStreamTest {
+
+    @Test
+    public void poll_GamePlayedToTheEnd_EveryShotSinkAndGameOver(){
+        Board board = build(Board.Engine.BITBOARD, 0);
+        GameEventStream stream = new GameEventStream(1024);
+        board.setEventStream(stream);
+        GameEventStream.Subscription subscription = stream.subscribe(GameEventStream.OverflowPolicy.DROP);
+
+        // Fire at the corner twice, then at every square.
+        board.fireAtSquare(0, 0);
+        board.fireAtSquare(0, 0);
+        for(int cell = 0; cell < 100; cell++)
+            board.fireAtCell(cell);
+
+        RecordingHandler handler = new RecordingHandler();
+        Assert.assertEquals(103, subscription.poll(handler, Integer.MAX_VALUE));
+        Assert.assertEquals(0, subscription.poll(handler, Integer.MAX_VALUE));
+
+        Assert.assertEquals(102, handler.shots);
+        Assert.assertEquals(2, handler.repeats);
+        Assert.assertEquals(9, handler.hits);
+        Assert.assertEquals(2, handler.sunk.size());
+        Assert.assertTrue(handler.sunk.contains(ShipType.BATTLESHIP));
+        Assert.assertTrue(handler.sunk.contains(ShipType.DESTROYER));
+        Assert.assertEquals(1, handler.gameOvers.size());
+        Assert.assertEquals(0, subscription.getDroppedCount());
+
+        // The game is over as soon as the last ship sinks, so the turn count is the shots up to then.
+        Assert.assertTrue(handler.gameOvers.get(0) <= 102);
+        Assert.assertEquals(handler.shotsAtGameOver, (int) handler.gameOvers.get(0));
+    }
+
+    @Test
+    public void poll_SubscriberLapped_DropsTheOldestShots(){
+        Board board = build(Board.Engine.GRID, 1);
+        GameEventStream stream = new GameEventStream(16);
+        board.setEventStream(stream);
+        GameEventStream.Subscription subscription = stream.subscribe(GameEventStream.OverflowPolicy.DROP);
+
+        // Only miss, so every shot is one event.
+        int misses = 0;
+        for(int cell = 0; cell < 100 && misses < 40; cell++)
+            if(board.getShipAtCell(cell) == null){
+                board.fireAtCell(cell);
+                misses++;
+            }
+
+        RecordingHandler handler = new RecordingHandler();
+        Assert.assertEquals(16, subscription.poll(handler, Integer.MAX_VALUE));
+        Assert.assertEquals(24, subscription.getDroppedCount());
+        Assert.assertEquals(24, handler.dropped);
+        Assert.assertEquals(16, handler.shots);
+        Assert.assertEquals(0, subscription.getLag());
+    }
+
+    @Test
+    public void poll_BlockingSubscriber_ReadsEveryShotFromAnotherThread() throws Exception {
+        GameEventStream stream = new GameEventStream(8);
+        GameEventStream.Subscription subscription = stream.subscribe(GameEventStream.OverflowPolicy.BLOCK);
+        // Never polled, so it must not hold the board back.
+        stream.subscribe(GameEventStream.OverflowPolicy.DROP);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        int games = 50;
+
+        try {
+            // The ring is far smaller than a game, so the board has to wait for the subscriber.
+            Future<?> shooter = executor.submit(() -> {
+                for(int game = 0; game < games; game++){
+                    Board board = build(Board.Engine.CONCURRENT, game).setEventStream(stream);
+
+                    for(int cell = 0; cell < 100; cell++)
+                        board.fireAtCell(cell);
+                }
+            });
+
+            RecordingHandler handler = new RecordingHandler();
+            while(handler.gameOvers.size() < games)
+                subscription.poll(handler, 3);
+
+            // Read the shots fired after the last ship sank.
+            shooter.get();
+            subscription.poll(handler, Integer.MAX_VALUE);
+
+            Assert.assertEquals(games * 100, handler.shots);
+            Assert.assertEquals(games * 9, handler.hits);
+            Assert.assertEquals(0, subscription.getDroppedCount());
+
+            subscription.cancel();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void poll_ManyShootersOnConcurrentBoard_EachHitAndGameOverPublishedOnce() throws Exception {
+        int shooters = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(shooters);
+
+        try {
+            for(int game = 0; game < 200; game++){
+                Board board = build(Board.Engine.CONCURRENT, game);
+                GameEventStream stream = new GameEventStream(1024);
+                board.setEventStream(stream);
+                GameEventStream.Subscription subscription = stream.subscribe(GameEventStream.OverflowPolicy.DROP);
+
+                // Every shooter fires at every square, starting from a different corner of the board.
+                List<Future<?>> shots = new ArrayList<>();
+                for(int shooter = 0; shooter < shooters; shooter++){
+                    int offset = shooter * 25;
+                    shots.add(executor.submit(() -> {
+                        for(int i = 0; i < 100; i++)
+                            board.fireAtCell((offset + i) % 100);
+                    }));
+                }
+                for(Future<?> shot : shots)
+                    shot.get();
+
+                RecordingHandler handler = new RecordingHandler();
+                subscription.poll(handler, Integer.MAX_VALUE);
+
+                Assert.assertEquals(shooters * 100, handler.shots);
+                Assert.assertEquals(shooters * 100 - 100, handler.repeats);
+                Assert.assertEquals(9, handler.hits);
+                Assert.assertEquals(2, handler.sunk.size());
+                Assert.assertEquals(1, handler.gameOvers.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void poll_Cancelled_ThrowsException(){
+        GameEventStream.Subscription subscription = new GameEventStream(4).subscribe(GameEventStream.OverflowPolicy.DROP);
+        subscription.cancel();
+        subscription.poll(new RecordingHandler(), 1);
+    }
+
+    private static Board build(Board.Engine engine, long seed){
+        return new Board.BoardBuilder(10, 10)
+                .setEngine(engine)
+                .setSeed(seed)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .build();
+    }
+
+    private static class RecordingHandler implements GameEventHandler {
+        int shots;
+        int repeats;
+        int hits;
+        long dropped;
+        int shotsAtGameOver;
+        final List<ShipType> sunk = new ArrayList<>();
+        final List<Integer> gameOvers = new ArrayList<>();
+
+        @Override
+        public void onShotFired(int x, int y, boolean repeated){
+            shots++;
+            if(repeated) repeats++;
+        }
+
+        @Override
+        public void onShipHit(int x, int y){
+            hits++;
+        }
+
+        @Override
+        public void onShipSunk(int x, int y, ShipType shipType){
+            sunk.add(shipType);
+        }
+
+        @Override
+        public void onGameOver(int turnCount){
+            if(gameOvers.isEmpty()) shotsAtGameOver = shots;
+            gameOvers.add(turnCount);
+        }
+
+        @Override
+        public void onEventsDropped(long shots){
+            dropped += shots;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.callumgeorge.onesidedbattleships.journal;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class MoveJournalTest {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replay_JournalReopened_GamesRebuilt() throws IOException {
+        Path path = folder.newFile().toPath();
+        JournalReplayer replayer = new JournalReplayer(10, 10, FLEET);
+
+        Board finished = replayer.buildBoard(1);
+        Board unfinished = replayer.buildBoard(2);
+
+        try(MoveJournal journal = new MoveJournal(path, 1024)){
+            int finishedId = journal.startGame(1);
+            int unfinishedId = journal.startGame(2);
+
+            for(int cell = 0; cell < 100; cell++){
+                journal.recordShot(finishedId, cell, finished.fireAtSquare(cell % 10, cell / 10));
+
+                if(cell % 3 == 0)
+                    journal.recordShot(unfinishedId, cell, unfinished.fireAtSquare(cell % 10, cell / 10));
+            }
+        }
+
+        try(MoveJournal journal = new MoveJournal(path, 1024)){
+            Map<Integer, JournalReplayer.ReplayedGame> games = replayer.replay(journal);
+            Assert.assertEquals(2, games.size());
+
+            JournalReplayer.ReplayedGame replayedUnfinished = replayer.replayUnfinished(journal).values().iterator().next();
+            Assert.assertEquals(2, replayedUnfinished.getSeed());
+            Assert.assertEquals(34, replayedUnfinished.getTurnCount());
+
+            for(int x = 0; x < 10; x++)
+                for(int y = 0; y < 10; y++)
+                    Assert.assertEquals(unfinished.getSquareState(x, y), replayedUnfinished.getBoard().getSquareState(x, y));
+
+            // Game ids carry on from the games already in the journal.
+            Assert.assertEquals(3, journal.startGame(3));
+        }
+    }
+
+    @Test
+    public void open_RecordMissingPartWay_RecordsAfterTheGapDropped() throws IOException {
+        Path path = folder.newFile().toPath();
+
+        try(MoveJournal journal = new MoveJournal(path, 64)){
+            int gameId = journal.startGame(1);
+            for(int cell = 0; cell < 5; cell++)
+                journal.recordShot(gameId, cell, Board.ShotResult.MISS);
+        }
+
+        // Clear the type of the third shot, as if its writer died before finishing it.
+        try(RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")){
+            file.seek(4 * MoveJournal.RECORD_LENGTH);
+            file.write(0);
+        }
+
+        try(MoveJournal journal = new MoveJournal(path, 64)){
+            Assert.assertEquals(3, journal.getRecordCount());
+
+            // Filling the gap must not bring back the records that were after it.
+            journal.recordShot(1, 50, Board.ShotResult.HIT);
+            Assert.assertEquals(4, journal.getRecordCount());
+        }
+
+        try(MoveJournal journal = new MoveJournal(path, 64)){
+            Assert.assertEquals(4, journal.getRecordCount());
+        }
+    }
+
+    @Test
+    public void read_ShotResultDamaged_ReplayEndsAtTheRecord() throws IOException {
+        Path path = folder.newFile().toPath();
+
+        try(MoveJournal journal = new MoveJournal(path, 64)){
+            int gameId = journal.startGame(1);
+            for(int cell = 0; cell < 5; cell++)
+                journal.recordShot(gameId, cell, Board.ShotResult.MISS);
+        }
+
+        // Damage the result of the third shot.
+        try(RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")){
+            file.seek(4 * MoveJournal.RECORD_LENGTH + 1);
+            file.write(100);
+        }
+
+        try(MoveJournal journal = new MoveJournal(path, 64)){
+            Assert.assertEquals(3, journal.getRecordCount());
+
+            int[] shots = new int[1];
+            journal.read(new MoveJournal.RecordVisitor() {
+                @Override
+                public void gameStarted(int gameId, long seed){
+                }
+
+                @Override
+                public void shotFired(int gameId, int cell, Board.ShotResult result){
+                    shots[0]++;
+                }
+            });
+
+            Assert.assertEquals(2, shots[0]);
+        }
+    }
+
+    @Test
+    public void recordShot_ManyThreads_NoRecordsLost() throws Exception {
+        Path path = folder.newFile().toPath();
+
+        try(MoveJournal journal = new MoveJournal(path, 40_001)){
+            Thread[] threads = new Thread[4];
+            for(int i = 0; i < threads.length; i++){
+                int gameId = journal.startGame(i);
+                threads[i] = new Thread(() -> {
+                    for(int shot = 0; shot < 10_000 - 1; shot++)
+                        journal.recordShot(gameId, shot % 100, Board.ShotResult.MISS);
+                });
+                threads[i].start();
+            }
+
+            for(Thread thread : threads)
+                thread.join();
+
+            int[] shots = new int[1];
+            journal.read(new MoveJournal.RecordVisitor() {
+                @Override
+                public void gameStarted(int gameId, long seed){
+                }
+
+                @Override
+                public void shotFired(int gameId, int cell, Board.ShotResult result){
+                    shots[0]++;
+                }
+            });
+
+            Assert.assertEquals(4 * (10_000 - 1), shots[0]);
+        }
+    }
+
+    @Test
+    public void commit_ManyThreads_EveryCommitReturns() throws Exception {
+        Path path = folder.newFile().toPath();
+
+        try(MoveJournal journal = new MoveJournal(path, 8 * 200 + 1, 0)){
+            Thread[] threads = new Thread[8];
+            for(int i = 0; i < threads.length; i++){
+                int gameId = journal.startGame(i);
+                threads[i] = new Thread(() -> {
+                    for(int shot = 0; shot < 200 - 1; shot++){
+                        journal.recordShot(gameId, shot, Board.ShotResult.MISS);
+                        journal.commit();
+                    }
+                });
+                threads[i].start();
+            }
+
+            for(Thread thread : threads)
+                thread.join();
+
+            Assert.assertEquals(8 * 200, journal.getRecordCount());
+        }
+
+        try(MoveJournal journal = new MoveJournal(path, 8 * 200 + 1)){
+            Assert.assertEquals(8 * 200, journal.getRecordCount());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void replay_DifferentFleet_ExceptionThrown() throws IOException {
+        JournalReplayer replayer = new JournalReplayer(10, 10, FLEET);
+        Board board = replayer.buildBoard(1);
+
+        try(MoveJournal journal = new MoveJournal(folder.newFile().toPath(), 1024)){
+            int gameId = journal.startGame(1);
+            for(int cell = 0; cell < 100; cell++)
+                journal.recordShot(gameId, cell, board.fireAtSquare(cell % 10, cell / 10));
+
+            new JournalReplayer(10, 10, new ShipType[]{ShipType.DESTROYER}).replay(journal);
+        }
+    }
+}
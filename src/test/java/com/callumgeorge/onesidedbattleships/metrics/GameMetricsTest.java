@@ -0,0 +1,104 @@
+package com.callumgeorge.onesidedbattleships.metrics;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.events.GameEventStream;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GameMetricsTest {
+
+    private final GameMetricsMXBean metrics = GameMetrics.getMXBean();
+
+    @Before
+    public void setUp(){
+        metrics.reset();
+    }
+
+    @Test
+    public void recordShot_MixedResults_CountsAndRatioReturned(){
+        GameMetrics.recordShot(Board.ShotResult.MISS, false);
+        GameMetrics.recordShot(Board.ShotResult.MISS, false);
+        GameMetrics.recordShot(Board.ShotResult.HIT, false);
+        GameMetrics.recordShot(Board.ShotResult.DESTROYED, true);
+
+        Assert.assertEquals(4, metrics.getShots());
+        Assert.assertEquals(2, metrics.getMisses());
+        Assert.assertEquals(1, metrics.getDestroyed());
+        Assert.assertEquals(1, metrics.getGamesWon());
+        Assert.assertEquals(0.5, metrics.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    public void fireBatch_EventStreamAttached_EachShotCountedOnce(){
+        Assume.assumeTrue(GameMetrics.ENABLED);
+
+        int[] cells = new int[100];
+        for(int cell = 0; cell < cells.length; cell++)
+            cells[cell] = cell;
+
+        for(Board.Engine engine : Board.Engine.values()){
+            metrics.reset();
+
+            Board board = new Board.BoardBuilder(10, 10)
+                    .setEngine(engine)
+                    .setSeed(1)
+                    .addShip(ShipType.BATTLESHIP)
+                    .addShip(ShipType.DESTROYER)
+                    .addShip(ShipType.DESTROYER)
+                    .build()
+                    .setEventStream(new GameEventStream(256));
+
+            int sunk = board.fireBatch(cells, cells.length, new byte[cells.length], new int[3]);
+
+            Assert.assertEquals(3, sunk);
+            Assert.assertEquals(engine.name(), 100, metrics.getShots());
+            Assert.assertEquals(engine.name(), 100 - 5 - 4 - 4, metrics.getMisses());
+            Assert.assertEquals(engine.name(), 3, metrics.getDestroyed());
+            Assert.assertEquals(engine.name(), 1, metrics.getGamesWon());
+        }
+    }
+
+    @Test
+    public void recordLayout_ManyThreads_TimingsMerged() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for(int i = 0; i < threads.length; i++){
+            threads[i] = new Thread(() -> {
+                for(int layout = 1; layout <= 1000; layout++)
+                    GameMetrics.recordLayout(layout);
+            });
+            threads[i].start();
+        }
+
+        for(Thread thread : threads)
+            thread.join();
+
+        Assert.assertEquals(4000, metrics.getBoardsLaidOut());
+        Assert.assertEquals(1000, metrics.getLayoutMaxNanos());
+        Assert.assertTrue(GameMetrics.dump().contains("layout.count 4000"));
+    }
+
+    @Test
+    public void reset_AfterManyShortLivedThreads_TimingsStartAgain() throws InterruptedException {
+        // Each thread ends straight away, so its timings are folded into the total of the ended threads.
+        for(int i = 0; i < 200; i++){
+            Thread thread = new Thread(() -> GameMetrics.recordRender(10));
+            thread.start();
+            thread.join();
+        }
+
+        GameMetrics.recordRender(20);
+        Assert.assertEquals(201, metrics.getRenders());
+        Assert.assertEquals(20, metrics.getRenderMaxNanos());
+
+        metrics.reset();
+        Assert.assertEquals(0, metrics.getRenders());
+
+        // The timings of this thread are cleared when it next records.
+        GameMetrics.recordRender(5);
+        Assert.assertEquals(1, metrics.getRenders());
+        Assert.assertEquals(5, metrics.getRenderMaxNanos());
+    }
+}
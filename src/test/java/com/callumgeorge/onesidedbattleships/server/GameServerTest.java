@@ -0,0 +1,192 @@
+package com.callumgeorge.onesidedbattleships.server;
+
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.ships.TestShipTypes;
+import com.callumgeorge.onesidedbattleships.utils.CoordinateUtils;
+import com.callumgeorge.onesidedbattleships.utils.LatencyHistogram;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class GameServerTest {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+
+    private GameServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new GameServer(10, 10, FLEET).setLoopCount(2);
+        server.start(0);
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void play_EverySquare_AllShipsSunkAndGameWon() throws IOException {
+        try(Socket socket = new Socket("localhost", server.getPort())){
+            socket.setSoTimeout(10_000);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+
+            int sunk = 0;
+            int hits = 0;
+            String win = null;
+
+            for(int cell = 0; cell < 100 && win == null; cell++){
+                writer.write(CoordinateUtils.getColumnLabel(cell % 10) + (cell / 10 + 1) + "\n");
+                writer.flush();
+
+                String result = reader.readLine();
+                if(result.startsWith("SUNK ")){
+                    sunk++;
+                    hits++;
+                } else if(result.equals("HIT")){
+                    hits++;
+                } else Assert.assertEquals("MISS", result);
+
+                if(sunk == FLEET.length)
+                    win = reader.readLine();
+            }
+
+            Assert.assertEquals(FLEET.length, sunk);
+            Assert.assertEquals(13, hits);
+            Assert.assertTrue(win.startsWith("WIN "));
+        }
+    }
+
+    @Test
+    public void play_EverySquareOnOneLine_EveryMoveAnswered() throws IOException {
+        try(Socket socket = new Socket("localhost", server.getPort())){
+            socket.setSoTimeout(10_000);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+
+            // Far more moves than are parsed from a line at once.
+            StringBuilder line = new StringBuilder();
+            for(int cell = 0; cell < 100; cell++)
+                line.append(CoordinateUtils.getColumnLabel(cell % 10)).append(cell / 10 + 1).append(' ');
+            writer.write(line.append('\n').toString());
+            writer.flush();
+
+            // Moves after the win are played on the next game.
+            int answered = 0;
+            int sunk = 0;
+            boolean won = false;
+            while(answered < 100){
+                String result = reader.readLine();
+
+                if(result.startsWith("WIN ")){
+                    Assert.assertEquals(FLEET.length, sunk);
+                    won = true;
+                    continue;
+                }
+
+                if(result.startsWith("SUNK ")){
+                    if(!won) sunk++;
+                } else Assert.assertTrue(result, result.equals("HIT") || result.equals("MISS"));
+                answered++;
+            }
+
+            Assert.assertTrue(won);
+        }
+    }
+
+    @Test
+    public void play_LongNonAsciiShipName_SunkLineSentWhole() throws IOException {
+        StringBuilder name = new StringBuilder("\u041b\u041e\u0414\u041a\u0410");
+        while(name.length() < 3000)
+            name.append("_\u041b\u041e\u0414\u041a\u0410");
+        ShipType boat = ShipType.register(name.toString(), 1);
+
+        // The type is removed afterwards, so it doesn't take up an id for every test after this one.
+        try(GameServer boatServer = new GameServer(1, 1, new ShipType[]{boat}).setLoopCount(1)){
+            boatServer.start(0);
+
+            try(Socket socket = new Socket("localhost", boatServer.getPort())){
+                socket.setSoTimeout(10_000);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+
+                writer.write("A1 A1\n");
+                writer.flush();
+
+                for(int game = 0; game < 2; game++){
+                    Assert.assertEquals("SUNK " + name, reader.readLine());
+                    Assert.assertEquals("WIN 1", reader.readLine());
+                }
+            }
+        } finally {
+            TestShipTypes.unregister(boat);
+        }
+
+        Assert.assertEquals(boat.getId(), ShipType.values().length);
+    }
+
+    @Test
+    public void play_InvalidMoves_ErrorReturned() throws IOException {
+        try(Socket socket = new Socket("localhost", server.getPort())){
+            socket.setSoTimeout(10_000);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+
+            writer.write("K1\r\nA0\nhello\n");
+            writer.flush();
+
+            Assert.assertEquals("ERR", reader.readLine());
+            Assert.assertEquals("ERR", reader.readLine());
+            Assert.assertEquals("ERR", reader.readLine());
+        }
+    }
+
+    @Test
+    public void play_LineLongerThanTheBuffer_WholeLineDropped() throws IOException {
+        ShipType buoy = ShipType.register("BUOY", 1);
+
+        try(GameServer buoyServer = new GameServer(1, 1, new ShipType[]{buoy}).setLoopCount(1)){
+            buoyServer.start(0);
+
+            try(Socket socket = new Socket("localhost", buoyServer.getPort())){
+                socket.setSoTimeout(10_000);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+
+                // The move at the end of the long line is part of it, so only the move on the next line is played.
+                StringBuilder line = new StringBuilder();
+                while(line.length() < 2048)
+                    line.append('x');
+                writer.write(line.append(" A1\nA1\nK1\n").toString());
+                writer.flush();
+
+                Assert.assertEquals("ERR", reader.readLine());
+                Assert.assertEquals("SUNK BUOY", reader.readLine());
+                Assert.assertEquals("WIN 1", reader.readLine());
+                Assert.assertEquals("ERR", reader.readLine());
+            }
+        }
+    }
+
+    @Test
+    public void run_ManyClients_EveryMoveAnswered() throws IOException {
+        LoadGenerator generator = new LoadGenerator(new InetSocketAddress("localhost", server.getPort()), 10, 10);
+
+        LatencyHistogram latencies = generator.run(20, 250, 1);
+
+        Assert.assertEquals(20 * 250, latencies.getCount());
+        Assert.assertTrue(latencies.getPercentile(50) <= latencies.getPercentile(99));
+        Assert.assertTrue(latencies.getPercentile(99) <= latencies.getMax());
+    }
+}
@@ -0,0 +1,34 @@
+package com.callumgeorge.onesidedbattleships.ships;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FleetConfigTest {
+
+    @Test
+    public void parse_ConfigWithNewType_FleetLoadedAndTypeRegistered(){
+        ShipType[] fleet = FleetConfig.parse("# name, length, count\n"
+                + "\n"
+                + "CARRIER 6 1\n"
+                + "BATTLESHIP, 5, 1\n"
+                + "SUBMARINE\t3\t2\n");
+
+        Assert.assertEquals(4, fleet.length);
+        Assert.assertEquals(6, fleet[0].getLength());
+        Assert.assertSame(ShipType.BATTLESHIP, fleet[1]);
+        Assert.assertSame(fleet[2], fleet[3]);
+        Assert.assertSame(fleet[2], ShipType.valueOf("SUBMARINE"));
+        Assert.assertSame(fleet[2], ShipType.forId(fleet[2].getId()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_ExistingTypeWithDifferentLength_ExceptionThrown(){
+        FleetConfig.parse("DESTROYER 3 1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_MissingCount_ExceptionThrown(){
+        FleetConfig.parse("FRIGATE 3");
+    }
+
+}
@@ -17,4 +17,54 @@ public class ShipTest {
         Assert.assertEquals(4, ship.getLength());
     }
 
+    @Test
+    public void getRemainingHealth_NodesDestroyed_HealthDecreases(){
+        Ship ship = new Ship(ShipType.DESTROYER);
+
+        ship.getShipNode(0).destroyNode();
+        ship.getShipNode(1).destroyNode();
+
+        Assert.assertEquals(2, ship.getRemainingHealth());
+        Assert.assertFalse(ship.isShipDestroyed());
+    }
+
+    @Test
+    public void destroyNode_SameNodeDestroyedTwice_HealthOnlyDecreasesOnce(){
+        Ship ship = new Ship(ShipType.DESTROYER);
+
+        ship.getShipNode(0).destroyNode();
+        ship.getShipNode(0).destroyNode();
+
+        Assert.assertEquals(3, ship.getRemainingHealth());
+    }
+
+    @Test
+    public void destroyNode_AllNodesDestroyed_ShipDestroyed(){
+        Ship ship = new Ship(ShipType.BATTLESHIP);
+
+        for(int i = 0; i < 4; i++)
+            Assert.assertFalse(ship.getShipNode(i).destroyNode());
+
+        Assert.assertTrue(ship.getShipNode(4).destroyNode());
+        Assert.assertEquals(0, ship.getRemainingHealth());
+    }
+
+    @Test
+    public void repairNode_DestroyedShip_ShipAfloatAgainAndCopyUnchanged(){
+        Ship ship = new Ship(ShipType.DESTROYER);
+        for(int i = 0; i < 4; i++)
+            ship.getShipNode(i).destroyNode();
+
+        Ship copy = new Ship(ship);
+
+        Assert.assertTrue(ship.getShipNode(2).repairNode());
+        Assert.assertFalse(ship.getShipNode(2).repairNode());
+        Assert.assertFalse(ship.isShipDestroyed());
+        Assert.assertEquals(1, ship.getRemainingHealth());
+
+        Assert.assertTrue(copy.isShipDestroyed());
+        Assert.assertTrue(copy.getShipNode(2).isDestroyed());
+        Assert.assertSame(copy, copy.getShipNode(2).getShip());
+    }
+
 }
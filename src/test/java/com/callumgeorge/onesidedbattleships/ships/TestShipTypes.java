@@ -0,0 +1,20 @@
+package com.callumgeorge.onesidedbattleships.ships;
+
+/**
+ * Lets tests in other packages remove the ship types they register for themselves,
+ * so the types don't stay registered for every test that runs after them.
+ */
+public final class TestShipTypes {
+
+    private TestShipTypes(){
+    }
+
+    /**
+     * Remove the type registered last.
+     * @param shipType Ship type to remove.
+     * @throws IllegalStateException If the type isn't the last one registered.
+     */
+    public static void unregister(ShipType shipType){
+        ShipType.unregister(shipType);
+    }
+}
@@ -0,0 +1,123 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class LayoutEnumeratorTest {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+
+    // The same buoy as the board tests register, so no new types are added for every test after this one.
+    private static final ShipType BUOY = ShipType.register("BUOY", 1);
+
+    @Test
+    public void count_NonSquareBoard_MatchesEveryLayoutListed(){
+        assertMatchesEveryLayoutListed(4, 5, new ShipType[]{ShipType.DESTROYER, BUOY, ShipType.DESTROYER});
+    }
+
+    @Test
+    public void count_FiveShips_MatchesEveryLayoutListed(){
+        // With more than three ships, the layouts of the ships left to place are remembered by their occupancy.
+        assertMatchesEveryLayoutListed(4, 4, new ShipType[]{ShipType.DESTROYER, BUOY, ShipType.DESTROYER, BUOY, BUOY});
+    }
+
+    @Test
+    public void count_DefaultFleet_ChancesAddUpToTheFleetLength(){
+        LayoutEnumerator.LayoutCount count = new LayoutEnumerator(10, 10, FLEET).count();
+
+        // Counted separately by placing the battleship and then every pair of destroyers that don't overlap it or each other.
+        Assert.assertEquals(760_704, count.getLayoutCount());
+
+        double total = 0;
+        for(int cell = 0; cell < 100; cell++)
+            total += count.getOccupancyProbability(cell);
+
+        Assert.assertEquals(5 + 4 + 4, total, 1e-9);
+
+        // The board is symmetric, and the corners are the least likely squares.
+        Assert.assertEquals(count.getCoveringCount(0), count.getCoveringCount(99));
+        Assert.assertEquals(count.getCoveringCount(3 * 10 + 7), count.getCoveringCount(7 * 10 + 3));
+        Assert.assertTrue(count.getCoveringCount(0) < count.getCoveringCount(5 * 10 + 5));
+    }
+
+    @Test
+    public void count_FleetDoesNotFit_NoLayouts(){
+        LayoutEnumerator.LayoutCount count = new LayoutEnumerator(4, 4, FLEET).count();
+
+        Assert.assertEquals(0, count.getLayoutCount());
+        Assert.assertEquals(0, count.getOccupancyProbability(0), 0);
+    }
+
+    /**
+     * Check the counts against every layout listed one by one.
+     */
+    private static void assertMatchesEveryLayoutListed(int width, int height, ShipType[] fleet){
+        LayoutEnumerator.LayoutCount count = new LayoutEnumerator(width, height, fleet).count();
+
+        // List the layouts by placing the ships in order, dropping those that only swap identical ships.
+        Set<Map<ShipType, Set<Set<Integer>>>> layouts = new HashSet<>();
+        listLayouts(width, height, fleet, 0, new ArrayList<>(), new boolean[width * height], layouts);
+
+        Assert.assertTrue(layouts.size() > 0);
+        Assert.assertEquals(layouts.size(), count.getLayoutCount());
+        for(int cell = 0; cell < width * height; cell++){
+            long covering = 0;
+            for(Map<ShipType, Set<Set<Integer>>> layout : layouts)
+                for(Set<Set<Integer>> ships : layout.values())
+                    for(Set<Integer> ship : ships) if(ship.contains(cell)) covering++;
+
+            Assert.assertEquals(covering, count.getCoveringCount(cell));
+        }
+    }
+
+    /**
+     * List every layout as the squares covered by the ships of each type, so swapping identical ships is the same layout.
+     */
+    private static void listLayouts(int width, int height, ShipType[] fleet, int shipIndex, List<Set<Integer>> placed,
+                                    boolean[] occupied, Set<Map<ShipType, Set<Set<Integer>>>> layouts){
+        if(shipIndex == fleet.length){
+            Map<ShipType, Set<Set<Integer>>> layout = new HashMap<>();
+            for(int i = 0; i < fleet.length; i++)
+                layout.computeIfAbsent(fleet[i], shipType -> new HashSet<>()).add(placed.get(i));
+
+            layouts.add(layout);
+            return;
+        }
+
+        int length = fleet[shipIndex].getLength();
+        Set<Set<Integer>> placements = new HashSet<>();
+        for(int y = 0; y < height; y++){
+            for(int x = 0; x < width; x++){
+                if(x + length <= width){
+                    Set<Integer> ship = new HashSet<>();
+                    for(int i = 0; i < length; i++) ship.add(y * width + x + i);
+                    placements.add(ship);
+                }
+                if(y + length <= height){
+                    Set<Integer> ship = new HashSet<>();
+                    for(int i = 0; i < length; i++) ship.add((y + i) * width + x);
+                    placements.add(ship);
+                }
+            }
+        }
+
+        for(Set<Integer> ship : placements){
+            if(ship.stream().anyMatch(cell -> occupied[cell]))
+                continue;
+
+            for(int cell : ship) occupied[cell] = true;
+            placed.add(ship);
+            listLayouts(width, height, fleet, shipIndex + 1, placed, occupied, layouts);
+            placed.remove(placed.size() - 1);
+            for(int cell : ship) occupied[cell] = false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import com.callumgeorge.onesidedbattleships.utils.RandomSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProbabilityDensityStrategyTest {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+
+    @Test
+    public void newGame_EmptyBoard_CornerHasLowestDensity(){
+        ProbabilityDensityStrategy strategy = new ProbabilityDensityStrategy();
+        strategy.newGame(10, 10, FLEET, RandomSource.seeded(1));
+
+        // A battleship fits over a corner one way along each axis, and each destroyer the same.
+        Assert.assertEquals(2 + 2 * 2, strategy.getDensity(0));
+        Assert.assertTrue(strategy.getDensity(0) < strategy.getDensity(5 * 10 + 5));
+    }
+
+    @Test
+    public void recordResult_Miss_DensityMatchesRecount(){
+        ProbabilityDensityStrategy strategy = new ProbabilityDensityStrategy();
+        strategy.newGame(10, 10, FLEET, RandomSource.seeded(1));
+
+        // Miss down a diagonal, then recount the placements of each ship without those squares.
+        boolean[] missed = new boolean[100];
+        for(int i = 0; i < 10; i += 3){
+            strategy.recordResult(i * 10 + i, Board.ShotResult.MISS, null);
+            missed[i * 10 + i] = true;
+        }
+
+        for(int cell = 0; cell < 100; cell++)
+            Assert.assertEquals(countPlacements(cell, 5, missed) + 2 * countPlacements(cell, 4, missed), strategy.getDensity(cell));
+    }
+
+    @Test
+    public void nextTarget_AfterHit_NeighbourTargeted(){
+        ProbabilityDensityStrategy strategy = new ProbabilityDensityStrategy();
+        strategy.newGame(10, 10, FLEET, RandomSource.seeded(1));
+
+        strategy.recordResult(4 * 10 + 4, Board.ShotResult.HIT, null);
+        int target = strategy.nextTarget();
+
+        Assert.assertEquals(1, Math.abs(target % 10 - 4) + Math.abs(target / 10 - 4));
+    }
+
+    @Test
+    public void run_DensityStrategy_FewerTurnsThanRandom(){
+        SimulationResult density = new SimulationRunner(10, 10, FLEET, ProbabilityDensityStrategy::new).run(500, 3);
+        SimulationResult random = new SimulationRunner(10, 10, FLEET, RandomTargetingStrategy::new).run(500, 3);
+
+        Assert.assertEquals(500, density.getGames());
+        Assert.assertTrue(density.getMeanTurns() < random.getMeanTurns() - 20);
+    }
+
+    /**
+     * Count the placements of a ship of the given length that cover the cell and none of the missed squares.
+     */
+    private static int countPlacements(int cell, int length, boolean[] missed){
+        int x = cell % 10;
+        int y = cell / 10;
+        int count = 0;
+
+        for(int start = x - length + 1; start <= x; start++)
+            if(start >= 0 && start + length <= 10 && isClear(y * 10 + start, 1, length, missed)) count++;
+
+        for(int start = y - length + 1; start <= y; start++)
+            if(start >= 0 && start + length <= 10 && isClear(start * 10 + x, 10, length, missed)) count++;
+
+        return count;
+    }
+
+    private static boolean isClear(int startCell, int step, int length, boolean[] missed){
+        for(int i = 0; i < length; i++)
+            if(missed[startCell + i * step]) return false;
+
+        return true;
+    }
+
+}
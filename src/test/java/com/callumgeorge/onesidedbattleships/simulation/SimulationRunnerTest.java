@@ -0,0 +1,59 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SimulationRunnerTest {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+
+    @Test
+    public void run_RandomStrategy_EveryGamePlayedWithinBoardSize(){
+        SimulationResult result = new SimulationRunner(10, 10, FLEET, RandomTargetingStrategy::new)
+                .run(500, 1);
+
+        Assert.assertEquals(500, result.getGames());
+
+        // Every ship square must be hit, and no square is fired at twice.
+        Assert.assertTrue(result.getMinTurns() >= 13);
+        Assert.assertTrue(result.getMaxTurns() <= 100);
+    }
+
+    @Test
+    public void run_SameSeed_SameResult(){
+        SimulationRunner runner = new SimulationRunner(10, 10, FLEET, RandomTargetingStrategy::new);
+
+        SimulationResult first = runner.run(300, 7);
+        SimulationResult second = runner.run(300, 7);
+
+        for(int turns = 0; turns <= 100; turns++)
+            Assert.assertEquals(first.getGamesWithTurns(turns), second.getGamesWithTurns(turns));
+    }
+
+    @Test
+    public void getPercentileTurns_KnownDistribution_TurnsReturned(){
+        long[] turnCounts = new long[11];
+        turnCounts[5] = 50;
+        turnCounts[10] = 50;
+
+        SimulationResult result = new SimulationResult(turnCounts);
+
+        Assert.assertEquals(5, result.getPercentileTurns(50));
+        Assert.assertEquals(10, result.getPercentileTurns(99));
+        Assert.assertEquals(7.5, result.getMeanTurns(), 0.0001);
+    }
+
+    @Test
+    public void getMeanConfidenceInterval_KnownDistribution_IntervalReturned(){
+        long[] turnCounts = new long[11];
+        turnCounts[5] = 50;
+        turnCounts[10] = 50;
+
+        SimulationResult result = new SimulationResult(turnCounts);
+
+        // Standard deviation is 2.5 * sqrt(100 / 99), over sqrt(100) games.
+        Assert.assertEquals(2.5126, result.getStandardDeviation(), 1e-4);
+        Assert.assertEquals(1.959964 * 2.5126 / 10, result.getMeanConfidenceInterval(), 1e-4);
+    }
+}
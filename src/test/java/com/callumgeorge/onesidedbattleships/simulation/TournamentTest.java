@@ -0,0 +1,50 @@
+package com.callumgeorge.onesidedbattleships.simulation;
+
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TournamentTest {
+
+    private static final ShipType[] FLEET = {ShipType.BATTLESHIP, ShipType.DESTROYER, ShipType.DESTROYER};
+
+    @Test
+    public void run_OneStrategy_SameTurnsAsSimulationWithTheSameSeed(){
+        TournamentResult result = new Tournament(10, 10, FLEET)
+                .addStrategy("random", RandomTargetingStrategy::new)
+                .run(400, 11);
+
+        SimulationResult simulated = new SimulationRunner(10, 10, FLEET, RandomTargetingStrategy::new).run(400, 11);
+
+        for(int turns = 0; turns <= 100; turns++)
+            Assert.assertEquals(simulated.getGamesWithTurns(turns), result.getResult("random").getGamesWithTurns(turns));
+    }
+
+    @Test
+    public void run_SameStrategyTwice_SameTurnsOnEveryGame(){
+        TournamentResult result = new Tournament(10, 10, FLEET)
+                .addStrategy("first", RandomTargetingStrategy::new)
+                .addStrategy("second", RandomTargetingStrategy::new)
+                .addStrategy("density", ProbabilityDensityStrategy::new)
+                .run(300, 3);
+
+        Assert.assertEquals(300, result.getGames());
+        for(int game = 0; game < 300; game++)
+            Assert.assertEquals(result.getTurns("first", game), result.getTurns("second", game));
+
+        Assert.assertEquals(0, result.getMeanDifference("first", "second"), 0);
+        Assert.assertEquals(0, result.getMeanDifferenceConfidenceInterval("first", "second"), 0);
+
+        // Density needs far fewer turns than random, well outside the confidence interval.
+        double difference = result.getMeanDifference("density", "first");
+        Assert.assertTrue(difference + result.getMeanDifferenceConfidenceInterval("density", "first") < 0);
+        Assert.assertEquals(result.getResult("density").getMeanTurns() - result.getResult("first").getMeanTurns(), difference, 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addStrategy_NameAlreadyEntered_ExceptionThrown(){
+        new Tournament(10, 10, FLEET)
+                .addStrategy("random", RandomTargetingStrategy::new)
+                .addStrategy("random", ProbabilityDensityStrategy::new);
+    }
+}
@@ -0,0 +1,92 @@
+package com.callumgeorge.onesidedbattleships.utils;
+
+import com.callumgeorge.onesidedbattleships.boards.Board;
+import com.callumgeorge.onesidedbattleships.ships.ShipType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+public class AsciiBoardRendererTest {
+
+    @Test
+    public void render_SquaresFiredAt_MatchesAsciiBoard(){
+        // Build a board where the destroyer must fill the first row.
+        Board board = new Board.BoardBuilder(4, 1)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        board.fireAtSquare(1, 0);
+
+        StringBuilder textBoard = new StringBuilder();
+        new AsciiBoardRenderer(board).render(textBoard);
+
+        String expected = "+---+---+---+---+---+\n"
+                + "|     | A | B | C | D |\n"
+                + "+---+---+---+---+---+\n"
+                + "|  1  |   | X |   |   |\n"
+                + "+---+---+---+---+---+\n";
+
+        Assert.assertEquals(expected, textBoard.toString());
+        Assert.assertEquals(expected, BoardUtils.generateAsciiBoard(board));
+    }
+
+    @Test
+    public void update_OneRowFiredAt_OnlyThatRowRedrawn(){
+        Board board = new Board.BoardBuilder(10, 10)
+                .addShip(ShipType.BATTLESHIP)
+                .build();
+
+        AsciiBoardRenderer renderer = new AsciiBoardRenderer(board);
+        Assert.assertEquals(0, renderer.update());
+
+        board.fireAtSquare(3, 7);
+        board.fireAtSquare(4, 7);
+        Assert.assertEquals(1, renderer.update());
+        Assert.assertEquals(0, renderer.update());
+
+        // Firing at the same square again changes nothing.
+        board.fireAtSquare(3, 7);
+        Assert.assertEquals(0, renderer.update());
+    }
+
+    @Test
+    public void render_Writer_MatchesAsciiBoardEachTurn() throws IOException {
+        Board board = new Board.BoardBuilder(12, 11)
+                .setEngine(Board.Engine.BITBOARD)
+                .addShip(ShipType.BATTLESHIP)
+                .addShip(ShipType.DESTROYER)
+                .build();
+
+        AsciiBoardRenderer renderer = new AsciiBoardRenderer(board);
+
+        for(int turn = 0; turn < 11; turn++){
+            board.fireAtSquare(turn, turn);
+
+            StringWriter writer = new StringWriter();
+            renderer.render(writer);
+            Assert.assertEquals(BoardUtils.generateAsciiBoard(board), writer.toString());
+        }
+    }
+
+    @Test
+    public void render_MoreThan26ColumnsAnd99Rows_CellsStayAligned(){
+        Board board = new Board.BoardBuilder(30, 105)
+                .addShip(ShipType.BATTLESHIP)
+                .build();
+
+        board.fireAtSquare(29, 104);
+        String[] lines = BoardUtils.generateAsciiBoard(board).split("\n");
+
+        // Every line has its cell boundaries in the same places as the header.
+        Assert.assertTrue(lines[1].contains("| AD  |"));
+        for(String line : lines){
+            Assert.assertEquals(lines[1].length(), line.length());
+
+            for(int i = 0; i < line.length(); i++)
+                Assert.assertEquals(lines[1].charAt(i) == '|', line.charAt(i) == '|' || line.charAt(i) == '+');
+        }
+    }
+
+}
@@ -5,6 +5,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.awt.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 public class CoordinateUtilsTest {
 
@@ -64,4 +66,64 @@ public class CoordinateUtilsTest {
         Assert.assertEquals(0, point.y);
     }
 
+    @Test
+    public void isValid_RowZero_ReturnFalse(){
+        Assert.assertFalse(CoordinateUtils.isValid("A0"));
+        Assert.assertFalse(CoordinateUtils.isValid("A00"));
+    }
+
+    @Test
+    public void parseCell_MultiLetterColumnAndLargeRow_CellReturned(){
+        // AB is the 28th column.
+        int cell = CoordinateUtils.parseCell("AB120", 100, 200);
+        Assert.assertEquals(119 * 100 + 27, cell);
+    }
+
+    @Test
+    public void parseCell_LowerCaseColumn_CellReturned(){
+        Assert.assertEquals(9 * 10 + 9, CoordinateUtils.parseCell("j10", 10, 10));
+    }
+
+    @Test
+    public void parseCell_OffTheBoard_ReturnMinusOne(){
+        Assert.assertEquals(-1, CoordinateUtils.parseCell("AA1", 26, 10));
+        Assert.assertEquals(-1, CoordinateUtils.parseCell("A11", 26, 10));
+        Assert.assertEquals(-1, CoordinateUtils.parseCell("A01", 26, 10));
+        Assert.assertEquals(-1, CoordinateUtils.parseCell("", 26, 10));
+    }
+
+    @Test
+    public void parseMoves_CharSequence_AllMovesParsed(){
+        int[] cells = new int[10];
+        int count = CoordinateUtils.parseMoves(" A1, B2;J10\nK1 ", 10, 10, cells);
+
+        Assert.assertEquals(4, count);
+        Assert.assertEquals(0, cells[0]);
+        Assert.assertEquals(11, cells[1]);
+        Assert.assertEquals(99, cells[2]);
+        Assert.assertEquals(-1, cells[3]);
+    }
+
+    @Test
+    public void parseMoves_ByteBufferLargerThanCells_PositionLeftAtNextMove(){
+        ByteBuffer buffer = ByteBuffer.wrap("A1 b2 A0 C3".getBytes(StandardCharsets.US_ASCII));
+        int[] cells = new int[3];
+
+        Assert.assertEquals(3, CoordinateUtils.parseMoves(buffer, 10, 10, cells));
+        Assert.assertArrayEquals(new int[]{0, 11, -1}, cells);
+
+        Assert.assertEquals(1, CoordinateUtils.parseMoves(buffer, 10, 10, cells));
+        Assert.assertEquals(22, cells[0]);
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void getColumnLabel_ColumnsPastZ_MultipleLettersReturned(){
+        Assert.assertEquals("A", CoordinateUtils.getColumnLabel(0));
+        Assert.assertEquals("Z", CoordinateUtils.getColumnLabel(25));
+        Assert.assertEquals("AA", CoordinateUtils.getColumnLabel(26));
+        Assert.assertEquals("AB", CoordinateUtils.getColumnLabel(27));
+        Assert.assertEquals("ALL", CoordinateUtils.getColumnLabel(999));
+    }
+
 }
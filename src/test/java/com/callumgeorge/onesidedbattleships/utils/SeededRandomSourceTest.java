@@ -0,0 +1,20 @@
+package com.callumgeorge.onesidedbattleships.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SeededRandomSourceTest {
+
+    @Test
+    public void nextInt_SameSeed_SameSequenceAsSeededSource(){
+        RandomSource expected = RandomSource.seeded(42);
+        SeededRandomSource actual = new SeededRandomSource(7).setSeed(42);
+
+        // Cover powers of two, which are masked, and other bounds, which can reject values.
+        int[] bounds = {1, 2, 10, 64, 100, 1_000_003, Integer.MAX_VALUE};
+        for(int i = 0; i < 10_000; i++){
+            int bound = bounds[i % bounds.length];
+            Assert.assertEquals(expected.nextInt(bound), actual.nextInt(bound));
+        }
+    }
+}